@@ -0,0 +1,60 @@
+package com.stickhero.benchmarks;
+
+import com.stickhero.analytics.AnalyticsRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of capturing one round of analytics on the game thread, with the
+ * background writer running. Rows the writer can't keep up with are dropped,
+ * which is part of the measured cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyticsBenchmark {
+    
+    private Path directory;
+    private AnalyticsRecorder recorder;
+    private int round;
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("stickhero-analytics");
+        recorder = AnalyticsRecorder.open(directory);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        recorder.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public boolean record() {
+        round++;
+        return recorder.record(1_700_000_000_000L + round, 42, round, 120, 75, 150, 1.5, -3.5, (round & 7) != 0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.stickhero.benchmarks;
+
+import com.stickhero.entities.Platform;
+import com.stickhero.game.PlatformGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared world layout for the benchmarks, matching the game's default window
+ */
+final class BenchmarkWorld {
+    
+    static final double WIDTH = 800;
+    static final double HEIGHT = 600;
+    static final double GROUND_Y = HEIGHT - 150;
+    static final double PLATFORM_HEIGHT = 100;
+    
+    private BenchmarkWorld() {
+    }
+    
+    /**
+     * Create a row of platforms starting where the game places the first one
+     */
+    static List<Platform> platforms(PlatformGenerator generator, int count) {
+        List<Platform> platforms = new ArrayList<>(count);
+        Platform platform = new Platform(50, GROUND_Y - PLATFORM_HEIGHT, 100, PLATFORM_HEIGHT);
+        platforms.add(platform);
+        while (platforms.size() < count) {
+            platform = generator.next(platform);
+            platforms.add(platform);
+        }
+        return platforms;
+    }
+}
@@ -0,0 +1,102 @@
+package com.stickhero.benchmarks;
+
+import com.stickhero.entities.Hero;
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.game.PlatformGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame entity logic: hero walking, stick growth, stick hit tests and platform generation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+    
+    private static final double FRAME_TIME = 1.0 / 60;
+    private static final double STICK_MAX_LENGTH = 300;
+    private static final int HIT_TEST_POINTS = 64;
+    
+    private Hero hero;
+    private Stick growingStick;
+    private Stick fallenStick;
+    private double[] hitTestX;
+    private double[] hitTestY;
+    private int hitTestIndex;
+    private PlatformGenerator platformGenerator;
+    private Platform lastPlatform;
+    
+    @Setup
+    public void setup() {
+        hero = new Hero(120, 300);
+        hero.startWalking(Double.MAX_VALUE);
+        
+        growingStick = new Stick(150, 350);
+        
+        fallenStick = new Stick(150, 350);
+        for (int i = 0; i < 60; i++) {
+            fallenStick.grow(FRAME_TIME);
+        }
+        fallenStick.startRotating();
+        fallenStick.update(1.0);
+        
+        // Half the points lie on the stick, half are off it
+        Random random = new Random(42);
+        hitTestX = new double[HIT_TEST_POINTS];
+        hitTestY = new double[HIT_TEST_POINTS];
+        for (int i = 0; i < HIT_TEST_POINTS; i++) {
+            double t = random.nextDouble();
+            double offset = i % 2 == 0 ? 0 : 10 + random.nextDouble() * 20;
+            hitTestX[i] = fallenStick.getBaseX() + (fallenStick.getEndX() - fallenStick.getBaseX()) * t + offset;
+            hitTestY[i] = fallenStick.getBaseY() + (fallenStick.getEndY() - fallenStick.getBaseY()) * t + offset;
+        }
+        
+        platformGenerator = new PlatformGenerator(42);
+        lastPlatform = new Platform(50, BenchmarkWorld.GROUND_Y - BenchmarkWorld.PLATFORM_HEIGHT,
+                                    100, BenchmarkWorld.PLATFORM_HEIGHT);
+    }
+    
+    @Benchmark
+    public double heroUpdate() {
+        hero.update(FRAME_TIME);
+        return hero.getX();
+    }
+    
+    @Benchmark
+    public double stickGrow() {
+        if (growingStick.getLength() >= STICK_MAX_LENGTH) {
+            growingStick = new Stick(150, 350);
+        }
+        growingStick.grow(FRAME_TIME);
+        return growingStick.getLength();
+    }
+    
+    @Benchmark
+    public boolean stickCanWalkOn() {
+        int i = hitTestIndex;
+        hitTestIndex = (i + 1) % HIT_TEST_POINTS;
+        return fallenStick.canWalkOn(hitTestX[i], hitTestY[i]);
+    }
+    
+    @Benchmark
+    public Platform generatePlatform() {
+        lastPlatform = platformGenerator.next(lastPlatform);
+        return lastPlatform;
+    }
+}
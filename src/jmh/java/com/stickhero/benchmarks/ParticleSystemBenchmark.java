@@ -0,0 +1,92 @@
+package com.stickhero.benchmarks;
+
+import com.stickhero.entities.Platform;
+import com.stickhero.game.PlatformGenerator;
+import com.stickhero.utils.ParticleSystem;
+import com.stickhero.utils.SpatialHashGrid;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParticleSystem update and render cost at different live particle counts.
+ *
+ * Particles die within a few seconds of game time, so each invocation first
+ * tops the population back up with success bursts over the platforms. The
+ * spawn cost is part of the measurement, as it is in a real frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParticleSystemBenchmark {
+    
+    private static final double FRAME_TIME = 1.0 / 60;
+    private static final int BURST_SIZE = 15;
+    
+    @Param({"100", "1000", "5000"})
+    public int population;
+    
+    private ParticleSystem particleSystem;
+    private List<Platform> platforms;
+    private Random random;
+    private GraphicsContext gc;
+    
+    @Setup
+    public void setup() {
+        particleSystem = new ParticleSystem();
+        particleSystem.setParticleBudget(population);
+        particleSystem.setGroundY(BenchmarkWorld.GROUND_Y);
+        
+        SpatialHashGrid grid = new SpatialHashGrid(64);
+        platforms = new ArrayList<>(BenchmarkWorld.platforms(new PlatformGenerator(42), 8));
+        for (Platform platform : platforms) {
+            grid.insert(platform);
+        }
+        particleSystem.setCollisionGrid(grid);
+        
+        random = new Random(7);
+        gc = new Canvas(BenchmarkWorld.WIDTH, BenchmarkWorld.HEIGHT).getGraphicsContext2D();
+        topUp();
+    }
+    
+    private void topUp() {
+        while (particleSystem.getParticleCount() <= population - BURST_SIZE) {
+            Platform platform = platforms.get(random.nextInt(platforms.size()));
+            particleSystem.createSuccessParticles(platform.getX() + random.nextDouble() * platform.getWidth(),
+                                                  platform.getY());
+        }
+    }
+    
+    @Benchmark
+    public int update() {
+        topUp();
+        particleSystem.update(FRAME_TIME);
+        return particleSystem.getParticleCount();
+    }
+    
+    @Benchmark
+    public int render() {
+        topUp();
+        gc.clearRect(0, 0, BenchmarkWorld.WIDTH, BenchmarkWorld.HEIGHT);
+        particleSystem.render(gc);
+        return particleSystem.getParticleCount();
+    }
+}
@@ -0,0 +1,117 @@
+package com.stickhero.benchmarks;
+
+import com.stickhero.entities.Hero;
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameEngine;
+import com.stickhero.game.PlatformGenerator;
+import com.stickhero.ui.GameUI;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing the draw calls for each kind of entity and the HUD.
+ *
+ * GraphicsContext is final, so there is no stand-in to substitute. Instead
+ * the benchmarks draw into a Canvas that is never shown: its GraphicsContext
+ * only records commands into a buffer, which is exactly the work the game
+ * thread does (rasterizing happens later on the render thread). Clearing the
+ * whole canvas discards the buffer, as the game does at the start of a frame,
+ * and the clearOnly benchmark measures that baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    
+    private GraphicsContext gc;
+    private List<Platform> platforms;
+    private Hero idleHero;
+    private Hero walkingHero;
+    private Stick stick;
+    private GameUI gameUI;
+    
+    @Setup
+    public void setup() {
+        gc = new Canvas(BenchmarkWorld.WIDTH, BenchmarkWorld.HEIGHT).getGraphicsContext2D();
+        platforms = BenchmarkWorld.platforms(new PlatformGenerator(42), 5);
+        
+        Platform first = platforms.get(0);
+        idleHero = new Hero(first.getX() + first.getWidth() - 30, first.getY() - 40);
+        walkingHero = new Hero(first.getX() + first.getWidth() - 30, first.getY() - 40);
+        walkingHero.startWalking(Double.MAX_VALUE);
+        walkingHero.update(0.1);
+        
+        stick = new Stick(first.getRightX(), first.getY());
+        for (int i = 0; i < 90; i++) {
+            stick.grow(1.0 / 60);
+        }
+        stick.startRotating();
+        stick.update(0.25);
+        
+        gameUI = new GameUI();
+    }
+    
+    private void clear() {
+        gc.clearRect(0, 0, BenchmarkWorld.WIDTH, BenchmarkWorld.HEIGHT);
+    }
+    
+    @Benchmark
+    public void clearOnly() {
+        clear();
+    }
+    
+    @Benchmark
+    public void platforms() {
+        clear();
+        for (Platform platform : platforms) {
+            platform.render(gc);
+        }
+    }
+    
+    @Benchmark
+    public void heroIdle() {
+        clear();
+        idleHero.render(gc);
+    }
+    
+    @Benchmark
+    public void heroWalking() {
+        clear();
+        walkingHero.render(gc);
+    }
+    
+    @Benchmark
+    public void stick() {
+        clear();
+        stick.render(gc);
+    }
+    
+    @Benchmark
+    public void hudReady() {
+        clear();
+        gameUI.render(gc, 42, GameEngine.GameState.READY);
+    }
+    
+    @Benchmark
+    public void hudGameOver() {
+        clear();
+        gameUI.render(gc, 42, GameEngine.GameState.GAME_OVER);
+    }
+}
@@ -1,6 +1,11 @@
 package com.stickhero;
 
 import com.stickhero.game.GameEngine;
+import com.stickhero.management.GameMBeans;
+import com.stickhero.utils.AssetManifest;
+import com.stickhero.utils.StartupTimeline;
+import com.stickhero.spectator.SpectatorScreen;
+import com.stickhero.versus.VersusScreen;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.layout.StackPane;
@@ -14,18 +19,34 @@ public class App extends Application {
     private static final int WINDOW_WIDTH = 800;
     private static final int WINDOW_HEIGHT = 600;
     private static final String GAME_TITLE = "Stick Hero";
+    private static final String ASSET_MANIFEST = "/assets.manifest";
     
     private GameEngine gameEngine;
+    private volatile GameMBeans mbeans;
 
     @Override
     public void start(Stage primaryStage) {
+        StartupTimeline.mark("fx start");
         StackPane root = new StackPane();
         Scene scene = new Scene(root, WINDOW_WIDTH, WINDOW_HEIGHT);
         
+        if (VersusScreen.isEnabled()) {
+            startVersus(primaryStage, root, scene);
+            return;
+        }
+        if (SpectatorScreen.isEnabled()) {
+            startSpectator(primaryStage, root, scene);
+            return;
+        }
+        
         // Initialize game engine
         gameEngine = new GameEngine(WINDOW_WIDTH, WINDOW_HEIGHT);
         root.getChildren().add(gameEngine.getGameCanvas());
         
+        // Expose live metrics over JMX, registered in the background
+        gameEngine.getBootstrapper().add("jmx", gameEngine.getBootstrapper().background(),
+                                         () -> mbeans = GameMBeans.register(gameEngine));
+        
         // Ensure canvas can receive keyboard input
         gameEngine.getGameCanvas().requestFocus();
         
@@ -34,12 +55,21 @@ public class App extends Application {
         primaryStage.setScene(scene);
         primaryStage.setResizable(true);
         primaryStage.show();
+        StartupTimeline.mark("stage shown");
+        
+        // Preload assets in the background while the loading screen is shown
+        gameEngine.loadAssets(AssetManifest.fromResource(ASSET_MANIFEST));
         
         // Start game loop
         gameEngine.start();
+        StartupTimeline.mark("loop started");
         
         // Handle window close
         primaryStage.setOnCloseRequest(e -> {
+            GameMBeans registered = mbeans;
+            if (registered != null) {
+                registered.unregister();
+            }
             gameEngine.stop();
             System.exit(0);
         });
@@ -51,7 +81,47 @@ public class App extends Application {
             gameEngine.handleResize(scene.getWidth(), newHeight.doubleValue()));
     }
 
+    /**
+     * Show the two-player race instead of the normal game
+     */
+    private void startVersus(Stage primaryStage, StackPane root, Scene scene) {
+        VersusScreen versus = new VersusScreen(WINDOW_WIDTH, WINDOW_HEIGHT);
+        root.getChildren().add(versus.getCanvas());
+        versus.getCanvas().requestFocus();
+        
+        primaryStage.setTitle(GAME_TITLE + " - Versus");
+        primaryStage.setScene(scene);
+        primaryStage.setResizable(false);
+        primaryStage.show();
+        versus.start();
+        
+        primaryStage.setOnCloseRequest(e -> {
+            versus.stop();
+            System.exit(0);
+        });
+    }
+
+    /**
+     * Watch a streamed game instead of playing
+     */
+    private void startSpectator(Stage primaryStage, StackPane root, Scene scene) {
+        SpectatorScreen spectator = new SpectatorScreen(WINDOW_WIDTH, WINDOW_HEIGHT);
+        root.getChildren().add(spectator.getCanvas());
+        
+        primaryStage.setTitle(GAME_TITLE + " - Spectating");
+        primaryStage.setScene(scene);
+        primaryStage.setResizable(false);
+        primaryStage.show();
+        spectator.start();
+        
+        primaryStage.setOnCloseRequest(e -> {
+            spectator.stop();
+            System.exit(0);
+        });
+    }
+
     public static void main(String[] args) {
+        StartupTimeline.mark("main");
         launch(args);
     }
 }
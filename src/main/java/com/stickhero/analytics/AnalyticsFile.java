@@ -0,0 +1,145 @@
+package com.stickhero.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * The columnar analytics file format, and a reader for it.
+ *
+ * A file starts with a header: magic, version, column count, then each
+ * column's value width and name. Rows follow in blocks; a block is its row
+ * count, a CRC32C of its data, then each column's values back to back in
+ * {@link Column} order. Files are only appended to, so a reader stops at
+ * the first torn or corrupt block, which is where a crash (or the writer
+ * still working on the file) left it.
+ */
+public final class AnalyticsFile {
+
+    public static final String EXTENSION = ".sha";
+
+    static final int MAGIC = 0x5348414E; // "SHAN"
+    static final int VERSION = 1;
+    static final int BLOCK_HEADER_SIZE = 8;
+
+    private static final Column[] COLUMNS = Column.values();
+    private static final int ROW_WIDTH = rowWidth();
+
+    /**
+     * Receives each block of a file in order
+     */
+    public interface BlockVisitor {
+        void visit(Block block);
+    }
+
+    /**
+     * One block of rows, read straight from the mapped file
+     */
+    public static final class Block {
+        private final int rowCount;
+        private final ByteBuffer[] columns;
+
+        Block(int rowCount, ByteBuffer[] columns) {
+            this.rowCount = rowCount;
+            this.columns = columns;
+        }
+
+        public int getRowCount() { return rowCount; }
+
+        public long getLong(Column column, int row) {
+            return columns[column.ordinal()].getLong(row * 8);
+        }
+
+        public int getInt(Column column, int row) {
+            return columns[column.ordinal()].getInt(row * 4);
+        }
+
+        public float getFloat(Column column, int row) {
+            return columns[column.ordinal()].getFloat(row * 4);
+        }
+
+        public boolean getBoolean(Column column, int row) {
+            return columns[column.ordinal()].get(row) != 0;
+        }
+    }
+
+    private AnalyticsFile() {
+    }
+
+    /**
+     * Encode the file header
+     */
+    static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(256);
+        header.putInt(MAGIC).putInt(VERSION).putInt(COLUMNS.length);
+        for (Column column : COLUMNS) {
+            byte[] name = column.name().getBytes(StandardCharsets.US_ASCII);
+            header.put((byte) column.getWidth()).put((byte) name.length).put(name);
+        }
+        return header.flip();
+    }
+
+    private static int rowWidth() {
+        int width = 0;
+        for (Column column : COLUMNS) {
+            width += column.getWidth();
+        }
+        return width;
+    }
+
+    /**
+     * Get the size of a block's data, excluding its header
+     */
+    static long blockDataSize(int rowCount) {
+        return (long) ROW_WIDTH * rowCount;
+    }
+
+    /**
+     * Memory-map a file and pass each intact block to the visitor. Returns the number of rows read.
+     */
+    public static long read(Path path, BlockVisitor visitor) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        ByteBuffer expected = header();
+        if (buffer.remaining() < expected.remaining() ||
+            !buffer.slice(0, expected.remaining()).equals(expected)) {
+            throw new IOException("Not an analytics file (or an unsupported version): " + path);
+        }
+        int position = expected.remaining();
+
+        CRC32C crc = new CRC32C();
+        long rows = 0;
+        while (position + BLOCK_HEADER_SIZE <= buffer.limit()) {
+            int rowCount = buffer.getInt(position);
+            int checksum = buffer.getInt(position + 4);
+            // A corrupt row count can't be trusted to multiply without overflowing
+            if (rowCount <= 0 || rowCount > (buffer.limit() - position - BLOCK_HEADER_SIZE) / ROW_WIDTH) break;
+            long dataSize = blockDataSize(rowCount);
+
+            int dataStart = position + BLOCK_HEADER_SIZE;
+            crc.reset();
+            crc.update(buffer.slice(dataStart, (int) dataSize));
+            if ((int) crc.getValue() != checksum) break;
+
+            ByteBuffer[] columns = new ByteBuffer[COLUMNS.length];
+            int columnStart = dataStart;
+            for (Column column : COLUMNS) {
+                int columnSize = column.getWidth() * rowCount;
+                columns[column.ordinal()] = buffer.slice(columnStart, columnSize);
+                columnStart += columnSize;
+            }
+            visitor.visit(new Block(rowCount, columns));
+            rows += rowCount;
+            position = dataStart + (int) dataSize;
+        }
+        return rows;
+    }
+}
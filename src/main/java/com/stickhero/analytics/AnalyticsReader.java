@@ -0,0 +1,69 @@
+package com.stickhero.analytics;
+
+import com.stickhero.persistence.ScoreStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Aggregates a directory of analytics files, one file per parallel task.
+ *
+ * Run with {@code ./gradlew analyticsReport} (or -Pdir=<directory>) to
+ * print a summary of everything recorded.
+ */
+public final class AnalyticsReader {
+
+    private AnalyticsReader() {
+    }
+
+    /**
+     * Get the directory the game records analytics into
+     */
+    public static Path defaultDirectory() {
+        return ScoreStore.defaultDirectory().resolve("analytics");
+    }
+
+    /**
+     * List the analytics files in a directory, oldest first
+     */
+    public static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(AnalyticsFile.EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Summarize every file in a directory. Files that can't be read are reported and skipped.
+     */
+    public static AnalyticsSummary summarize(Path directory) throws IOException {
+        return listFiles(directory).parallelStream()
+                                   .map(AnalyticsReader::summarizeFile)
+                                   .reduce(new AnalyticsSummary(), AnalyticsSummary::merge);
+    }
+
+    private static AnalyticsSummary summarizeFile(Path file) {
+        AnalyticsSummary summary = new AnalyticsSummary();
+        try {
+            AnalyticsFile.read(file, summary::add);
+        } catch (IOException e) {
+            System.err.println("Skipping " + file + ": " + e.getMessage());
+        }
+        return summary;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : defaultDirectory();
+        List<Path> files = listFiles(directory);
+        long start = System.nanoTime();
+        AnalyticsSummary summary = summarize(directory);
+        System.out.printf("%d files in %s (%.1f ms)%n", files.size(), directory, (System.nanoTime() - start) / 1e6);
+        System.out.println(summary);
+    }
+}
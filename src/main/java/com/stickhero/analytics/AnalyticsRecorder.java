@@ -0,0 +1,211 @@
+package com.stickhero.analytics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.CRC32C;
+
+/**
+ * Records one row per round played into rolling {@link AnalyticsFile}s.
+ *
+ * {@link #record} goes into an {@link AnalyticsRing} on the game thread.
+ * A background thread drains the ring into per-column block buffers and
+ * writes a block when it is full or has been waiting for
+ * {@link #FLUSH_INTERVAL_MILLIS}. A new file is started every hour or
+ * every 8 MB, so files can be collected or deleted while the game runs.
+ *
+ * Enabled unless -Dstickhero.analytics=false.
+ */
+public class AnalyticsRecorder implements Closeable {
+
+    public static final String ENABLED_PROPERTY = "stickhero.analytics";
+    public static final long FLUSH_INTERVAL_MILLIS = 5_000;
+
+    static final int BLOCK_ROWS = 1024;
+
+    private static final int RING_CAPACITY = 4096;
+    private static final long ROLLOVER_MILLIS = 60 * 60 * 1000L;
+    private static final long ROLLOVER_BYTES = 8L * 1024 * 1024;
+    private static final long POLL_MILLIS = 250;
+    private static final Column[] COLUMNS = Column.values();
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final AnalyticsRing ring;
+    private final Thread writer;
+    private volatile boolean running;
+
+    // Writer thread state
+    private final ByteBuffer[] columns;
+    private final ByteBuffer blockHeader;
+    private final ByteBuffer[] block; // header then columns, for gathering writes
+    private final CRC32C crc;
+    private int blockRows;
+    private long blockStartMillis;
+    private FileChannel file;
+    private long fileOpenedMillis;
+    private long fileBytes;
+    private int fileSequence;
+    private volatile long rowsWritten;
+
+    private AnalyticsRecorder(Path directory) {
+        this.directory = directory;
+        this.ring = new AnalyticsRing(RING_CAPACITY);
+        this.columns = new ByteBuffer[COLUMNS.length];
+        for (Column column : COLUMNS) {
+            columns[column.ordinal()] = ByteBuffer.allocateDirect(column.getWidth() * BLOCK_ROWS);
+        }
+        this.blockHeader = ByteBuffer.allocate(AnalyticsFile.BLOCK_HEADER_SIZE);
+        this.block = new ByteBuffer[COLUMNS.length + 1];
+        this.block[0] = blockHeader;
+        System.arraycopy(columns, 0, block, 1, columns.length);
+        this.crc = new CRC32C();
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "analytics-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Start recording into files in the given directory
+     */
+    public static AnalyticsRecorder open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new AnalyticsRecorder(directory);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Record a finished round. Game thread only; never blocks or allocates.
+     */
+    public boolean record(long timestamp, long seed, int round, double gap, double platformWidth,
+                          double stickLength, double holdTime, double landingOffset, boolean landed) {
+        return ring.record(timestamp, seed, round, gap, platformWidth, stickLength, holdTime, landingOffset, landed);
+    }
+
+    private void writeLoop() {
+        while (running || ring.size() > 0) {
+            int drained = ring.drainTo(this::append, BLOCK_ROWS - blockRows);
+            long now = System.currentTimeMillis();
+            if (blockRows == BLOCK_ROWS || (blockRows > 0 && now - blockStartMillis >= FLUSH_INTERVAL_MILLIS)) {
+                writeBlock(now);
+            }
+            if (drained == 0 && running) {
+                try {
+                    Thread.sleep(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        writeBlock(System.currentTimeMillis());
+        closeFile();
+    }
+
+    private void append(long timestamp, long seed, int round, float gap, float platformWidth, float stickLength,
+                        float holdTime, float landingOffset, boolean landed) {
+        if (blockRows == 0) {
+            blockStartMillis = System.currentTimeMillis();
+        }
+        columns[Column.TIMESTAMP.ordinal()].putLong(timestamp);
+        columns[Column.SEED.ordinal()].putLong(seed);
+        columns[Column.ROUND.ordinal()].putInt(round);
+        columns[Column.GAP.ordinal()].putFloat(gap);
+        columns[Column.PLATFORM_WIDTH.ordinal()].putFloat(platformWidth);
+        columns[Column.STICK_LENGTH.ordinal()].putFloat(stickLength);
+        columns[Column.HOLD_TIME.ordinal()].putFloat(holdTime);
+        columns[Column.LANDING_OFFSET.ordinal()].putFloat(landingOffset);
+        columns[Column.LANDED.ordinal()].put((byte) (landed ? 1 : 0));
+        blockRows++;
+    }
+
+    private void writeBlock(long now) {
+        if (blockRows == 0) return;
+        try {
+            if (file != null && (now - fileOpenedMillis >= ROLLOVER_MILLIS || fileBytes >= ROLLOVER_BYTES)) {
+                closeFile();
+            }
+            if (file == null) {
+                openFile(now);
+            }
+
+            crc.reset();
+            for (ByteBuffer column : columns) {
+                column.flip();
+                crc.update(column.duplicate());
+            }
+            blockHeader.clear();
+            blockHeader.putInt(blockRows).putInt((int) crc.getValue()).flip();
+
+            long size = AnalyticsFile.BLOCK_HEADER_SIZE + AnalyticsFile.blockDataSize(blockRows);
+            long written = 0;
+            while (written < size) {
+                written += file.write(block);
+            }
+            fileBytes += written;
+            rowsWritten += blockRows;
+        } catch (IOException e) {
+            System.err.println("Failed to write " + blockRows + " analytics rows: " + e.getMessage());
+            closeFile();
+        } finally {
+            for (ByteBuffer column : columns) {
+                column.clear();
+            }
+            blockRows = 0;
+        }
+    }
+
+    private void openFile(long now) throws IOException {
+        String name = "analytics-" + LocalDateTime.now().format(FILE_TIME) + "-" + fileSequence++ +
+                      AnalyticsFile.EXTENSION;
+        file = FileChannel.open(directory.resolve(name), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        fileOpenedMillis = now;
+        fileBytes = 0;
+        ByteBuffer header = AnalyticsFile.header();
+        while (header.hasRemaining()) {
+            fileBytes += file.write(header);
+        }
+    }
+
+    private void closeFile() {
+        if (file == null) return;
+        try {
+            file.force(false);
+            file.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close analytics file: " + e.getMessage());
+        }
+        file = null;
+    }
+
+    public Path getDirectory() { return directory; }
+    public long getRowsWritten() { return rowsWritten; }
+
+    /**
+     * Get the number of rows dropped because the writer fell behind. Read on the game thread.
+     */
+    public long getDroppedCount() { return ring.getDroppedCount(); }
+
+    /**
+     * Write everything recorded so far and close the current file
+     */
+    @Override
+    public void close() {
+        // Not interrupted: an interrupt during a write would close the file channel
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.stickhero.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size single-producer single-consumer ring of round rows, stored as
+ * one preallocated array per column.
+ *
+ * The game thread calls {@link #record}, which only writes array slots and
+ * publishes the new head with a release store; it never blocks or
+ * allocates, and drops the row (counting it) if the writer has fallen a
+ * whole ring behind. One background thread calls {@link #drainTo}.
+ */
+public class AnalyticsRing {
+
+    /**
+     * Receives drained rows
+     */
+    public interface Sink {
+        void accept(long timestamp, long seed, int round, float gap, float platformWidth, float stickLength,
+                    float holdTime, float landingOffset, boolean landed);
+    }
+
+    private final int mask;
+    private final long[] timestamps;
+    private final long[] seeds;
+    private final int[] rounds;
+    private final float[] gaps;
+    private final float[] platformWidths;
+    private final float[] stickLengths;
+    private final float[] holdTimes;
+    private final float[] landingOffsets;
+    private final boolean[] landed;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private long head;
+    private long droppedCount;
+
+    /**
+     * Create a ring; the capacity is rounded up to a power of two
+     */
+    public AnalyticsRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        timestamps = new long[size];
+        seeds = new long[size];
+        rounds = new int[size];
+        gaps = new float[size];
+        platformWidths = new float[size];
+        stickLengths = new float[size];
+        holdTimes = new float[size];
+        landingOffsets = new float[size];
+        landed = new boolean[size];
+    }
+
+    /**
+     * Add a row. Game thread only. Returns false if the ring is full.
+     */
+    public boolean record(long timestamp, long seed, int round, double gap, double platformWidth,
+                          double stickLength, double holdTime, double landingOffset, boolean hasLanded) {
+        if (head - consumed.getAcquire() > mask) {
+            droppedCount++;
+            return false;
+        }
+        int i = (int) head & mask;
+        timestamps[i] = timestamp;
+        seeds[i] = seed;
+        rounds[i] = round;
+        gaps[i] = (float) gap;
+        platformWidths[i] = (float) platformWidth;
+        stickLengths[i] = (float) stickLength;
+        holdTimes[i] = (float) holdTime;
+        landingOffsets[i] = (float) landingOffset;
+        landed[i] = hasLanded;
+        published.setRelease(++head);
+        return true;
+    }
+
+    /**
+     * Pass up to {@code max} rows to the sink, oldest first, and free their
+     * slots. Consumer thread only. Returns the number of rows drained.
+     */
+    public int drainTo(Sink sink, int max) {
+        long tail = consumed.get();
+        long end = Math.min(published.getAcquire(), tail + max);
+        for (long sequence = tail; sequence < end; sequence++) {
+            int i = (int) sequence & mask;
+            sink.accept(timestamps[i], seeds[i], rounds[i], gaps[i], platformWidths[i], stickLengths[i],
+                        holdTimes[i], landingOffsets[i], landed[i]);
+        }
+        consumed.setRelease(end);
+        return (int) (end - tail);
+    }
+
+    /**
+     * Get the number of rows waiting to be drained
+     */
+    public int size() {
+        return (int) (published.getAcquire() - consumed.getAcquire());
+    }
+
+    public int getCapacity() { return mask + 1; }
+
+    /**
+     * Get the number of rows dropped because the ring was full. Read on the game thread.
+     */
+    public long getDroppedCount() { return droppedCount; }
+}
@@ -0,0 +1,82 @@
+package com.stickhero.analytics;
+
+/**
+ * Totals over any number of analytics rows. Summaries of separate files can
+ * be merged, so files can be summarized in parallel.
+ */
+public class AnalyticsSummary {
+
+    private long rounds;
+    private long landedCount;
+    private double stickLengthSum;
+    private double holdTimeSum;
+    private double gapSum;
+    private double landedOffsetSum; // absolute offsets of landed rounds
+    private float minGap = Float.POSITIVE_INFINITY;
+    private float maxGap = Float.NEGATIVE_INFINITY;
+    private long firstTimestamp = Long.MAX_VALUE;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Add every row of a block
+     */
+    public void add(AnalyticsFile.Block block) {
+        for (int row = 0; row < block.getRowCount(); row++) {
+            float gap = block.getFloat(Column.GAP, row);
+            float stickLength = block.getFloat(Column.STICK_LENGTH, row);
+            float offset = block.getFloat(Column.LANDING_OFFSET, row);
+            long timestamp = block.getLong(Column.TIMESTAMP, row);
+
+            rounds++;
+            stickLengthSum += stickLength;
+            holdTimeSum += block.getFloat(Column.HOLD_TIME, row);
+            gapSum += gap;
+            if (block.getBoolean(Column.LANDED, row)) {
+                landedCount++;
+                landedOffsetSum += Math.abs(offset);
+            }
+            minGap = Math.min(minGap, gap);
+            maxGap = Math.max(maxGap, gap);
+            firstTimestamp = Math.min(firstTimestamp, timestamp);
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+        }
+    }
+
+    /**
+     * Combine two summaries into a new one
+     */
+    public AnalyticsSummary merge(AnalyticsSummary other) {
+        AnalyticsSummary merged = new AnalyticsSummary();
+        merged.rounds = rounds + other.rounds;
+        merged.landedCount = landedCount + other.landedCount;
+        merged.stickLengthSum = stickLengthSum + other.stickLengthSum;
+        merged.holdTimeSum = holdTimeSum + other.holdTimeSum;
+        merged.gapSum = gapSum + other.gapSum;
+        merged.landedOffsetSum = landedOffsetSum + other.landedOffsetSum;
+        merged.minGap = Math.min(minGap, other.minGap);
+        merged.maxGap = Math.max(maxGap, other.maxGap);
+        merged.firstTimestamp = Math.min(firstTimestamp, other.firstTimestamp);
+        merged.lastTimestamp = Math.max(lastTimestamp, other.lastTimestamp);
+        return merged;
+    }
+
+    public long getRounds() { return rounds; }
+    public long getLandedCount() { return landedCount; }
+    public double getLandingRate() { return rounds > 0 ? (double) landedCount / rounds : 0; }
+    public double getMeanStickLength() { return rounds > 0 ? stickLengthSum / rounds : 0; }
+    public double getMeanHoldTime() { return rounds > 0 ? holdTimeSum / rounds : 0; }
+    public double getMeanGap() { return rounds > 0 ? gapSum / rounds : 0; }
+    public double getMeanLandedOffset() { return landedCount > 0 ? landedOffsetSum / landedCount : 0; }
+    public float getMinGap() { return rounds > 0 ? minGap : 0; }
+    public float getMaxGap() { return rounds > 0 ? maxGap : 0; }
+    public long getFirstTimestamp() { return firstTimestamp; }
+    public long getLastTimestamp() { return lastTimestamp; }
+
+    @Override
+    public String toString() {
+        return String.format("rounds=%d landed=%d (%.1f%%) meanStick=%.1f meanHold=%.3fs meanGap=%.1f " +
+                             "gap=[%.1f, %.1f] meanLandedOffset=%.1f",
+                             rounds, landedCount, getLandingRate() * 100, getMeanStickLength(), getMeanHoldTime(),
+                             getMeanGap(), getMinGap(), getMaxGap(), getMeanLandedOffset());
+    }
+}
@@ -0,0 +1,29 @@
+package com.stickhero.analytics;
+
+/**
+ * The columns of an analytics file, one row per round played, in file order.
+ */
+public enum Column {
+    TIMESTAMP(8),      // long: when the round ended, epoch milliseconds
+    SEED(8),           // long: the run seed
+    ROUND(4),          // int: round number within the run, from 0
+    GAP(4),            // float: distance from the current platform to the next
+    PLATFORM_WIDTH(4), // float: width of the platform aimed at
+    STICK_LENGTH(4),   // float
+    HOLD_TIME(4),      // float: seconds the button was held to grow the stick
+    LANDING_OFFSET(4), // float: where the hero stopped relative to the platform centre
+    LANDED(1);         // byte: 1 if the hero landed, 0 if they fell
+
+    private final int width;
+
+    Column(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Get the size of one value in bytes
+     */
+    public int getWidth() {
+        return width;
+    }
+}
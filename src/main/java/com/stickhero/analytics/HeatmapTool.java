@@ -0,0 +1,193 @@
+package com.stickhero.analytics;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Offline landing analysis over a directory of analytics files.
+ *
+ * Files are memory-mapped and analysed in parallel, one file per task, then
+ * merged. Prints compact histograms of landing position and score at death,
+ * and renders the landing position against gap size as a PNG heatmap
+ * (drawn into a BufferedImage, so it runs headless).
+ *
+ * Run with {@code ./gradlew heatmaps} (-Pdir=<directory>), or directly with
+ * the analytics directory and an output directory as arguments.
+ */
+public final class HeatmapTool {
+
+    private static final int CELL_SIZE = 12;
+    private static final int MARGIN = 40;
+    private static final int BAR_WIDTH = 40;
+    private static final Color[] COLOR_MAP = {
+        new Color(0, 0, 4), new Color(87, 16, 110), new Color(188, 55, 84),
+        new Color(249, 142, 9), new Color(252, 255, 164)
+    };
+
+    private HeatmapTool() {
+    }
+
+    /**
+     * Analyse every file in a directory. Files that can't be read are reported and skipped.
+     */
+    public static LandingAnalysis analyse(Path directory) throws IOException {
+        return AnalyticsReader.listFiles(directory).parallelStream()
+                              .map(HeatmapTool::analyseFile)
+                              .reduce(new LandingAnalysis(), LandingAnalysis::merge);
+    }
+
+    private static LandingAnalysis analyseFile(Path file) {
+        LandingAnalysis analysis = new LandingAnalysis();
+        try {
+            AnalyticsFile.read(file, analysis::add);
+        } catch (IOException e) {
+            System.err.println("Skipping " + file + ": " + e.getMessage());
+        }
+        return analysis;
+    }
+
+    /**
+     * Print the landing position and death score histograms, and the
+     * undershoot/landed/overshoot split for each gap size
+     */
+    public static void printReport(LandingAnalysis analysis, PrintStream out) {
+        out.printf("%d rounds%n%nLanding position (0 = platform left edge, 1 = right edge):%n", analysis.getRounds());
+        long[] positions = new long[LandingAnalysis.POSITION_BINS];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = analysis.getPositionCount(i);
+        }
+        printBars(out, positions, i -> String.format("%+5.2f", LandingAnalysis.positionBinStart(i)));
+
+        out.printf("%nBy gap size:       under  landed    over%n");
+        for (int g = 0; g < LandingAnalysis.GAP_BINS; g++) {
+            long under = 0, landed = 0, over = 0;
+            for (int i = 0; i < LandingAnalysis.POSITION_BINS; i++) {
+                double start = LandingAnalysis.positionBinStart(i);
+                long count = analysis.getPositionCount(g, i);
+                if (start < 0) under += count;
+                else if (start < 1) landed += count;
+                else over += count;
+            }
+            long total = under + landed + over;
+            if (total == 0) continue;
+            out.printf("  gap %5.0f-%-5.0f %6.1f%% %6.1f%% %6.1f%%  (%d)%n",
+                       LandingAnalysis.gapBinStart(g), LandingAnalysis.gapBinStart(g + 1),
+                       100.0 * under / total, 100.0 * landed / total, 100.0 * over / total, total);
+        }
+
+        out.printf("%nScore at death:%n");
+        long[] deaths = new long[LandingAnalysis.MAX_DEATH_SCORE + 1];
+        int last = 0;
+        for (int i = 0; i < deaths.length; i++) {
+            deaths[i] = analysis.getDeathCount(i);
+            if (deaths[i] > 0) last = i;
+        }
+        long[] trimmed = Arrays.copyOf(deaths, last + 1);
+        printBars(out, trimmed, i -> i == LandingAnalysis.MAX_DEATH_SCORE ? String.format("%4d+", i)
+                                                                           : String.format("%5d", i));
+    }
+
+    private interface Label {
+        String of(int bin);
+    }
+
+    private static void printBars(PrintStream out, long[] counts, Label label) {
+        long max = 1;
+        for (long count : counts) {
+            max = Math.max(max, count);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            int length = (int) Math.ceil((double) counts[i] / max * BAR_WIDTH);
+            out.printf("  %s |%-" + BAR_WIDTH + "s %d%n", label.of(i), "#".repeat(length), counts[i]);
+        }
+    }
+
+    /**
+     * Render landing position (x) against gap size (y, small gaps at the
+     * top) with a log colour scale. White lines mark the platform edges.
+     */
+    public static BufferedImage renderHeatmap(LandingAnalysis analysis) {
+        int columns = LandingAnalysis.POSITION_BINS;
+        int rows = LandingAnalysis.GAP_BINS;
+        int width = columns * CELL_SIZE + 2 * MARGIN;
+        int height = rows * CELL_SIZE + 2 * MARGIN;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.DARK_GRAY);
+            g.fillRect(0, 0, width, height);
+
+            long max = 1;
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    max = Math.max(max, analysis.getPositionCount(row, column));
+                }
+            }
+            double logMax = Math.log1p(max);
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    long count = analysis.getPositionCount(row, column);
+                    g.setColor(colorFor(count == 0 ? 0 : Math.log1p(count) / logMax));
+                    g.fillRect(MARGIN + column * CELL_SIZE, MARGIN + row * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+                }
+            }
+
+            // Platform edges at normalized positions 0 and 1
+            g.setColor(Color.WHITE);
+            g.setStroke(new BasicStroke(2));
+            for (double edge : new double[] {0, 1}) {
+                int x = MARGIN + (int) Math.round((edge - LandingAnalysis.MIN_POSITION) /
+                    (LandingAnalysis.MAX_POSITION - LandingAnalysis.MIN_POSITION) * columns * CELL_SIZE);
+                g.drawLine(x, MARGIN, x, MARGIN + rows * CELL_SIZE);
+            }
+            g.drawRect(MARGIN, MARGIN, columns * CELL_SIZE, rows * CELL_SIZE);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static Color colorFor(double t) {
+        double scaled = Math.max(0, Math.min(1, t)) * (COLOR_MAP.length - 1);
+        int i = Math.min(COLOR_MAP.length - 2, (int) scaled);
+        double f = scaled - i;
+        Color a = COLOR_MAP[i];
+        Color b = COLOR_MAP[i + 1];
+        return new Color((int) Math.round(a.getRed() + (b.getRed() - a.getRed()) * f),
+                         (int) Math.round(a.getGreen() + (b.getGreen() - a.getGreen()) * f),
+                         (int) Math.round(a.getBlue() + (b.getBlue() - a.getBlue()) * f));
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Path directory = args.length > 0 ? Paths.get(args[0]) : AnalyticsReader.defaultDirectory();
+        Path output = args.length > 1 ? Paths.get(args[1]) : Paths.get("heatmaps");
+
+        List<Path> files = AnalyticsReader.listFiles(directory);
+        long start = System.nanoTime();
+        LandingAnalysis analysis = analyse(directory);
+        System.out.printf("Analysed %d files in %s (%.1f ms)%n", files.size(), directory,
+                          (System.nanoTime() - start) / 1e6);
+        printReport(analysis, System.out);
+
+        Files.createDirectories(output);
+        Path heatmap = output.resolve("landing-by-gap.png");
+        ImageIO.write(renderHeatmap(analysis), "png", heatmap.toFile());
+        System.out.println("\nWrote " + heatmap + " (x: landing position " + LandingAnalysis.MIN_POSITION + " to " +
+                           LandingAnalysis.MAX_POSITION + ", y: gap " + LandingAnalysis.MIN_GAP + " to " +
+                           LandingAnalysis.MAX_GAP + ")");
+    }
+}
@@ -0,0 +1,99 @@
+package com.stickhero.analytics;
+
+import com.stickhero.game.PlatformGenerator;
+
+/**
+ * Histograms of where the hero stops, over any number of analytics rows.
+ *
+ * Landing position is normalized to the platform aimed at: 0 is its left
+ * edge ({@code Platform.getX()}), 1 its right edge ({@code getRightX()}),
+ * so below 0 is an undershoot and above 1 an overshoot. Positions are
+ * binned from -1 to 2 overall and against the gap size; scores at death
+ * come from the rounds the hero fell (the round number is the score).
+ * Analyses of separate files can be merged.
+ */
+public class LandingAnalysis {
+
+    public static final double MIN_POSITION = -1;
+    public static final double MAX_POSITION = 2;
+    public static final int POSITION_BINS = 60;
+    public static final double MIN_GAP = PlatformGenerator.MIN_PLATFORM_GAP;
+    public static final double MAX_GAP = PlatformGenerator.MAX_PLATFORM_GAP;
+    public static final int GAP_BINS = 30;
+    public static final int MAX_DEATH_SCORE = 100; // higher scores share the last bin
+
+    private final long[] positions;
+    private final long[][] positionsByGap;
+    private final long[] deathScores;
+    private long rounds;
+
+    public LandingAnalysis() {
+        positions = new long[POSITION_BINS];
+        positionsByGap = new long[GAP_BINS][POSITION_BINS];
+        deathScores = new long[MAX_DEATH_SCORE + 1];
+    }
+
+    /**
+     * Add every row of a block
+     */
+    public void add(AnalyticsFile.Block block) {
+        for (int row = 0; row < block.getRowCount(); row++) {
+            float width = block.getFloat(Column.PLATFORM_WIDTH, row);
+            if (width <= 0) continue;
+            double position = (block.getFloat(Column.LANDING_OFFSET, row) + width / 2) / width;
+            int positionBin = bin(position, MIN_POSITION, MAX_POSITION, POSITION_BINS);
+            int gapBin = bin(block.getFloat(Column.GAP, row), MIN_GAP, MAX_GAP, GAP_BINS);
+
+            positions[positionBin]++;
+            positionsByGap[gapBin][positionBin]++;
+            if (!block.getBoolean(Column.LANDED, row)) {
+                deathScores[Math.min(MAX_DEATH_SCORE, Math.max(0, block.getInt(Column.ROUND, row)))]++;
+            }
+            rounds++;
+        }
+    }
+
+    private static int bin(double value, double min, double max, int bins) {
+        int bin = (int) Math.floor((value - min) / (max - min) * bins);
+        return Math.max(0, Math.min(bins - 1, bin));
+    }
+
+    /**
+     * Combine two analyses into a new one
+     */
+    public LandingAnalysis merge(LandingAnalysis other) {
+        LandingAnalysis merged = new LandingAnalysis();
+        merged.rounds = rounds + other.rounds;
+        for (int i = 0; i < POSITION_BINS; i++) {
+            merged.positions[i] = positions[i] + other.positions[i];
+        }
+        for (int g = 0; g < GAP_BINS; g++) {
+            for (int i = 0; i < POSITION_BINS; i++) {
+                merged.positionsByGap[g][i] = positionsByGap[g][i] + other.positionsByGap[g][i];
+            }
+        }
+        for (int i = 0; i <= MAX_DEATH_SCORE; i++) {
+            merged.deathScores[i] = deathScores[i] + other.deathScores[i];
+        }
+        return merged;
+    }
+
+    /**
+     * Get the lowest normalized position that falls into a position bin
+     */
+    public static double positionBinStart(int bin) {
+        return MIN_POSITION + (MAX_POSITION - MIN_POSITION) * bin / POSITION_BINS;
+    }
+
+    /**
+     * Get the smallest gap that falls into a gap bin
+     */
+    public static double gapBinStart(int bin) {
+        return MIN_GAP + (MAX_GAP - MIN_GAP) * bin / GAP_BINS;
+    }
+
+    public long getRounds() { return rounds; }
+    public long getPositionCount(int bin) { return positions[bin]; }
+    public long getPositionCount(int gapBin, int positionBin) { return positionsByGap[gapBin][positionBin]; }
+    public long getDeathCount(int score) { return deathScores[score]; }
+}
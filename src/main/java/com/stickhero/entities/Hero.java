@@ -3,6 +3,8 @@ package com.stickhero.entities;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents the hero character in the Stick Hero game
  */
@@ -168,6 +170,14 @@ public class Hero {
         this.startY = y;
     }
 
+    /**
+     * Set the walking animation directly, e.g. to mirror a hero from another game
+     */
+    public void setAnimation(boolean walking, double animationTime) {
+        this.isWalking = walking;
+        this.animationTime = animationTime;
+    }
+
     // Getters
     public double getX() { return x; }
     public double getY() { return y; }
@@ -177,6 +187,7 @@ public class Hero {
     public boolean isWalkingComplete() { return walkingComplete; }
     public double getWalkDistance() { return walkDistance; }
     public double getCurrentWalkDistance() { return currentWalkDistance; }
+    public double getAnimationTime() { return animationTime; }
     
     /**
      * Get the hero's bounding box for collision detection
@@ -207,6 +218,39 @@ public class Hero {
         frameTime = 0;
     }
     
+    /**
+     * Write the hero's position and walking state, for a snapshot
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putDouble(x).putDouble(y)
+              .putDouble(startX).putDouble(startY)
+              .putDouble(targetX).putDouble(targetY)
+              .putDouble(walkDistance).putDouble(currentWalkDistance)
+              .putDouble(animationTime).putDouble(frameTime)
+              .putInt(walkFrame)
+              .put((byte) ((isWalking ? 1 : 0) | (walkingComplete ? 2 : 0)));
+    }
+    
+    /**
+     * Restore state written by {@link #writeState}
+     */
+    public void readState(ByteBuffer buffer) {
+        x = buffer.getDouble();
+        y = buffer.getDouble();
+        startX = buffer.getDouble();
+        startY = buffer.getDouble();
+        targetX = buffer.getDouble();
+        targetY = buffer.getDouble();
+        walkDistance = buffer.getDouble();
+        currentWalkDistance = buffer.getDouble();
+        animationTime = buffer.getDouble();
+        frameTime = buffer.getDouble();
+        walkFrame = Math.floorMod(buffer.getInt(), WALK_FRAMES);
+        byte flags = buffer.get();
+        isWalking = (flags & 1) != 0;
+        walkingComplete = (flags & 2) != 0;
+    }
+    
     /**
      * Make hero fall (for game over animation)
      */
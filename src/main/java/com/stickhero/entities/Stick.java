@@ -4,6 +4,8 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.transform.Rotate;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents the stick that grows and rotates in the Stick Hero game
  */
@@ -44,6 +46,57 @@ public class Stick {
         }
     }
 
+    /**
+     * Get the length a stick reaches when held for the given time
+     */
+    public static double lengthForHoldTime(double seconds) {
+        return Math.max(0, Math.min(MAX_STICK_LENGTH, GROWTH_SPEED * seconds));
+    }
+    
+    /**
+     * Get how long a stick must be held to reach the given length
+     */
+    public static double holdTimeForLength(double length) {
+        return length / GROWTH_SPEED;
+    }
+    
+    /**
+     * Set the length directly, e.g. to replay a recorded stick
+     */
+    public void setLength(double length) {
+        this.length = Math.max(0, Math.min(maxLength, length));
+    }
+    
+    /**
+     * Set the rotation in degrees directly, e.g. to mirror a stick from another game
+     */
+    public void setRotation(double rotation) {
+        this.rotation = Math.max(0, Math.min(90, rotation));
+    }
+    
+    /**
+     * Write the stick's geometry and phase, for a snapshot
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putDouble(baseX).putDouble(baseY)
+              .putDouble(length).putDouble(rotation)
+              .put((byte) ((isGrowing ? 1 : 0) | (isRotating ? 2 : 0) | (rotationComplete ? 4 : 0)));
+    }
+    
+    /**
+     * Create a stick from state written by {@link #writeState}
+     */
+    public static Stick readState(ByteBuffer buffer) {
+        Stick stick = new Stick(buffer.getDouble(), buffer.getDouble());
+        stick.setLength(buffer.getDouble());
+        stick.rotation = Math.max(0, Math.min(90, buffer.getDouble()));
+        byte flags = buffer.get();
+        stick.isGrowing = (flags & 1) != 0;
+        stick.isRotating = (flags & 2) != 0;
+        stick.rotationComplete = (flags & 4) != 0;
+        return stick;
+    }
+    
     public void startRotating() {
         isGrowing = false;
         isRotating = true;
@@ -1,11 +1,27 @@
 package com.stickhero.game;
 
+import com.stickhero.analytics.AnalyticsReader;
+import com.stickhero.analytics.AnalyticsRecorder;
 import com.stickhero.entities.Hero;
 import com.stickhero.entities.Platform;
 import com.stickhero.entities.Stick;
+import com.stickhero.jfr.FrameEvent;
+import com.stickhero.net.LeaderboardClient;
+import com.stickhero.persistence.RunRecord;
+import com.stickhero.persistence.ScoreEntry;
+import com.stickhero.persistence.ScoreStore;
+import com.stickhero.persistence.SnapshotStore;
+import com.stickhero.spectator.SpectatorServer;
 import com.stickhero.ui.GameUI;
 import com.stickhero.utils.AssetManager;
+import com.stickhero.utils.AssetManifest;
+import com.stickhero.utils.AssetPreload;
+import com.stickhero.utils.AudioMixer;
+import com.stickhero.utils.Bootstrapper;
+import com.stickhero.utils.FrameProfiler;
+import com.stickhero.utils.LatencyProbe;
 import com.stickhero.utils.ParticleSystem;
+import com.stickhero.utils.StartupTimeline;
 import javafx.animation.AnimationTimer;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -16,9 +32,14 @@ import javafx.scene.paint.LinearGradient;
 import javafx.scene.paint.Stop;
 import javafx.scene.paint.CycleMethod;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main game engine handling game loop, rendering, and game logic
@@ -30,103 +51,184 @@ public class GameEngine {
     private final GameUI gameUI;
     private final AssetManager assetManager;
     private final ParticleSystem particleSystem;
+    private final AudioMixer audioMixer;
+    private final FrameProfiler profiler;
+    private final Bootstrapper bootstrapper;
+    private final LatencyProbe latencyProbe; // null unless probing
+    private boolean probeAttached;
+    private boolean probePending;
+    private long probeNanos;
+    private boolean probeSynthetic;
+    private volatile AssetPreload assetPreload;
+    private volatile ScoreStore scoreStore;
+    private volatile LeaderboardClient leaderboardClient;
+    private volatile AnalyticsRecorder analytics;
+    private volatile SnapshotStore snapshotStore;
+    private volatile SpectatorServer spectatorServer;
+    private volatile ByteBuffer resumeSnapshot;
+    private ByteBuffer snapshotBuffer;
+    private GameState checkpointedState;
+    private CompletableFuture<Void> gameplayReady;
     
     private AnimationTimer gameLoop;
     private long lastFrameTime;
     private double deltaTime;
+    private boolean firstFrameRendered;
     
     // Game state
-    private GameState currentState;
-    private int score;
-    private boolean isMousePressed;
-    
-    // Game objects
-    private Hero hero;
-    private Stick currentStick;
-    private List<Platform> platforms;
-    private Random random;
+    private final GameWorld world;
+    private final InputQueue inputQueue;
+    private byte holdSource; // input holding the stick down, 0 if none
+    private boolean spaceDown;
+    private long stickPressNanos;
+    private double holdTime;
+    private long frameNanos;
+    private boolean showProfiler;
+    private volatile int qualityLevel;
     
     // Camera and scaling
     private double cameraOffsetX;
     private double scaleX, scaleY;
     
-    // Constants
-    private static final double GROUND_HEIGHT = 150;
-    private static final double PLATFORM_HEIGHT = 100;
-    private static final double MIN_PLATFORM_GAP = 50;
-    private static final double MAX_PLATFORM_GAP = 200;
-    private static final double MIN_PLATFORM_WIDTH = 50;
-    private static final double MAX_PLATFORM_WIDTH = 100;
+    // Quality levels: low drops background details and particle glow, medium drops glow
+    public static final int QUALITY_LOW = 0;
+    public static final int QUALITY_MEDIUM = 1;
+    public static final int QUALITY_HIGH = 2;
+    
+    // Sound effects
+    private static final String SOUND_SUCCESS = "success";
+    private static final String SOUND_FAIL = "fail";
+    private static final String SOUND_STICK_THUD = "stick_thud";
+    
+    // Startup tasks that must finish before gameplay starts
+    public static final String TASK_FONTS = "fonts";
+    public static final String TASK_ASSET_MANAGER = "asset manager";
+    public static final String TASK_ASSETS = "asset preload";
+    public static final String TASK_AUDIO = "audio";
+    public static final String TASK_SCORES = "scores";
+    public static final String TASK_LEADERBOARD = "leaderboard";
+    public static final String TASK_ANALYTICS = "analytics";
+    public static final String TASK_SNAPSHOT = "snapshot";
+    public static final String TASK_SPECTATORS = "spectators";
 
     public enum GameState {
-        READY, GROWING_STICK, ROTATING_STICK, HERO_WALKING, GAME_OVER
+        LOADING, READY, GROWING_STICK, ROTATING_STICK, HERO_WALKING, GAME_OVER
     }
 
     public GameEngine(double width, double height) {
         gameCanvas = new Canvas(width, height);
         gc = gameCanvas.getGraphicsContext2D();
+        StartupTimeline.mark("canvas");
+        
+        // Construction only wires objects together; anything slow is a startup task
         gameUI = new GameUI();
         assetManager = new AssetManager();
         particleSystem = new ParticleSystem();
-        
-        platforms = new ArrayList<>();
-        random = new Random();
+        audioMixer = new AudioMixer(assetManager);
+        profiler = new FrameProfiler();
+        bootstrapper = new Bootstrapper();
+        latencyProbe = LatencyProbe.fromSystemProperties();
+        bootstrapper.add(TASK_FONTS, bootstrapper.background(), gameUI::loadFonts);
+        bootstrapper.add(TASK_ASSET_MANAGER, bootstrapper.background(), assetManager::initialize);
+        bootstrapper.add(TASK_SCORES, bootstrapper.background(), this::openScoreStore);
+        bootstrapper.add(TASK_LEADERBOARD, bootstrapper.background(),
+                         () -> leaderboardClient = LeaderboardClient.fromSystemProperties());
+        bootstrapper.add(TASK_ANALYTICS, bootstrapper.background(), this::openAnalytics);
+        bootstrapper.add(TASK_SNAPSHOT, bootstrapper.background(), this::openSnapshotStore);
+        bootstrapper.add(TASK_SPECTATORS, bootstrapper.background(), this::openSpectatorServer);
+        
+        world = new GameWorld(height);
+        inputQueue = new InputQueue();
+        world.setState(GameState.LOADING);
         scaleX = scaleY = 1.0;
-        
-        initializeGame();
-        setupInputHandlers();
-    }
-
-    private void initializeGame() {
-        currentState = GameState.READY;
-        score = 0;
+        qualityLevel = QUALITY_HIGH;
         cameraOffsetX = 0;
         
-        // Create initial platforms
-        platforms.clear();
-        Platform firstPlatform = new Platform(50, gameCanvas.getHeight() - GROUND_HEIGHT - PLATFORM_HEIGHT, 100, PLATFORM_HEIGHT);
-        platforms.add(firstPlatform);
-        
-        generateNextPlatform();
-        
-        // Create hero
-        hero = new Hero(firstPlatform.getX() + firstPlatform.getWidth() - 30, 
-                       firstPlatform.getY() - 40);
-        
-        currentStick = null;
-    }
-
-    private void generateNextPlatform() {
-        if (platforms.isEmpty()) return;
-        
-        Platform lastPlatform = platforms.get(platforms.size() - 1);
-        double gap = MIN_PLATFORM_GAP + random.nextDouble() * (MAX_PLATFORM_GAP - MIN_PLATFORM_GAP);
-        double width = MIN_PLATFORM_WIDTH + random.nextDouble() * (MAX_PLATFORM_WIDTH - MIN_PLATFORM_WIDTH);
-        double x = lastPlatform.getX() + lastPlatform.getWidth() + gap;
-        double y = lastPlatform.getY();
+        particleSystem.setCollisionGrid(world.getPlatformGrid());
+        particleSystem.setGroundY(height - GameWorld.GROUND_HEIGHT);
+        world.setListener(new GameWorld.Listener() {
+            @Override
+            public void onStickDropped(Stick stick) {
+                audioMixer.play(SOUND_STICK_THUD, AudioMixer.Priority.NORMAL);
+            }
+            
+            @Override
+            public void onLanded(double x, double y) {
+                particleSystem.createSuccessParticles(x, y);
+                audioMixer.play(SOUND_SUCCESS, AudioMixer.Priority.HIGH);
+            }
+            
+            @Override
+            public void onRoundFinished(int round, double gap, double platformWidth, double stickLength,
+                                        double landingOffset, boolean landed) {
+                AnalyticsRecorder recorder = analytics;
+                if (recorder != null) {
+                    recorder.record(System.currentTimeMillis(), world.getRunSeed(), round, gap, platformWidth,
+                                    stickLength, holdTime, landingOffset, landed);
+                }
+            }
+            
+            @Override
+            public void onFell(double x, double y) {
+                particleSystem.createFailParticles(x, y);
+                audioMixer.play(SOUND_FAIL, AudioMixer.Priority.HIGH);
+                saveRun();
+            }
+        });
         
-        platforms.add(new Platform(x, y, width, PLATFORM_HEIGHT));
+        setupInputHandlers();
+        StartupTimeline.mark("game engine");
     }
 
     private void setupInputHandlers() {
+        // Stick input is only timestamped and queued here; the game loop applies it (see processInput)
         gameCanvas.setOnMousePressed(e -> {
-            if (e.getButton() == MouseButton.PRIMARY && currentState == GameState.READY) {
-                startGrowingStick();
-                isMousePressed = true;
+            // Touches also arrive as synthesized mouse events; those are handled as touch
+            if (e.getButton() == MouseButton.PRIMARY && !e.isSynthesized()) {
+                inputQueue.add(InputQueue.PRESS, InputQueue.SOURCE_MOUSE);
             }
         });
         
         gameCanvas.setOnMouseReleased(e -> {
-            if (e.getButton() == MouseButton.PRIMARY && currentState == GameState.GROWING_STICK) {
-                stopGrowingAndRotateStick();
-                isMousePressed = false;
+            if (e.getButton() == MouseButton.PRIMARY && !e.isSynthesized()) {
+                inputQueue.add(InputQueue.RELEASE, InputQueue.SOURCE_MOUSE);
             }
         });
         
-        // Add keyboard input for restart
+        gameCanvas.setOnTouchPressed(e -> {
+            if (e.getTouchCount() == 1) {
+                inputQueue.add(InputQueue.PRESS, InputQueue.SOURCE_TOUCH);
+            }
+            e.consume();
+        });
+        
+        gameCanvas.setOnTouchReleased(e -> {
+            if (e.getTouchCount() == 1) {
+                inputQueue.add(InputQueue.RELEASE, InputQueue.SOURCE_TOUCH);
+            }
+            e.consume();
+        });
+        
+        gameCanvas.setOnKeyReleased(e -> {
+            if (e.getCode() == KeyCode.SPACE) {
+                spaceDown = false;
+                inputQueue.add(InputQueue.RELEASE, InputQueue.SOURCE_KEYBOARD);
+            }
+        });
+        
+        // Space grows the stick like the mouse button; R restarts
         gameCanvas.setOnKeyPressed(e -> {
-            if (e.getCode() == KeyCode.R && currentState == GameState.GAME_OVER) {
+            if (e.getCode() == KeyCode.SPACE) {
+                // Held keys repeat; only the first press counts
+                if (!spaceDown) {
+                    spaceDown = true;
+                    inputQueue.add(InputQueue.PRESS, InputQueue.SOURCE_KEYBOARD);
+                }
+            } else if (e.getCode() == KeyCode.R && world.getCurrentState() == GameState.GAME_OVER) {
                 restartGame();
+            } else if (e.getCode() == KeyCode.F3) {
+                // Toggle profiler overlay
+                showProfiler = !showProfiler;
             }
         });
         
@@ -134,117 +236,377 @@ public class GameEngine {
         gameCanvas.setFocusTraversable(true);
     }
 
-    private void startGrowingStick() {
-        if (platforms.size() < 2) return; // Safety check
-        
-        Platform currentPlatform = platforms.get(platforms.size() - 2);
-        double stickX = currentPlatform.getX() + currentPlatform.getWidth();
-        double stickY = currentPlatform.getY();
-        
-        currentStick = new Stick(stickX, stickY);
-        currentState = GameState.GROWING_STICK;
-    }
-
-    private void stopGrowingAndRotateStick() {
-        if (currentStick != null) {
-            currentStick.startRotating();
-            currentState = GameState.ROTATING_STICK;
-        }
-    }
-
+    /**
+     * Start the game loop and the startup tasks. The loop shows the loading
+     * screen from the first frame; gameplay starts once the fonts, assets and
+     * audio are ready.
+     */
     public void start() {
+        // Warm up the sound effects once they are loaded
+        bootstrapper.add(TASK_AUDIO, bootstrapper.background(), () -> {
+            audioMixer.start();
+            audioMixer.preload(SOUND_SUCCESS, SOUND_FAIL, SOUND_STICK_THUD);
+        }, bootstrapper.hasTask(TASK_ASSETS) ? TASK_ASSETS : TASK_ASSET_MANAGER);
+        
+        List<String> gameplayTasks = new ArrayList<>();
+        for (String task : new String[] {TASK_FONTS, TASK_ASSET_MANAGER, TASK_ASSETS, TASK_AUDIO, TASK_SCORES,
+                                         TASK_SNAPSHOT}) {
+            if (bootstrapper.hasTask(task)) {
+                gameplayTasks.add(task);
+            }
+        }
+        gameplayReady = bootstrapper.whenReady(gameplayTasks.toArray(new String[0]));
+        
         gameLoop = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                if (lastFrameTime == 0) {
-                    lastFrameTime = now;
-                    return;
+                // Render the first pulse too, with no time elapsed, so the first frame isn't delayed
+                deltaTime = lastFrameTime == 0 ? 0 : (now - lastFrameTime) / 1_000_000_000.0;
+                lastFrameTime = now;
+                frameNanos = now;
+                if (latencyProbe != null) {
+                    attachLatencyProbe();
+                    latencyProbe.beginPulse();
                 }
                 
-                deltaTime = (now - lastFrameTime) / 1_000_000_000.0;
-                lastFrameTime = now;
+                FrameEvent frameEvent = new FrameEvent();
+                frameEvent.begin();
                 
+                profiler.beginFrame();
                 update(deltaTime);
+                profiler.lap(FrameProfiler.Phase.UPDATE);
+                updateCamera();
+                profiler.lap(FrameProfiler.Phase.CAMERA);
                 render();
+                profiler.endFrame();
+                if (latencyProbe != null) {
+                    latencyProbe.frameRendered();
+                }
+                if (!firstFrameRendered) {
+                    firstFrameRendered = true;
+                    StartupTimeline.markFirstFrame();
+                    if (Boolean.getBoolean(StartupTimeline.EXIT_PROPERTY)) {
+                        // Training run for the class data sharing archive
+                        javafx.application.Platform.exit();
+                    }
+                }
+                
+                if (frameEvent.shouldCommit()) {
+                    long updateTime = profiler.getLastNanos(FrameProfiler.Phase.UPDATE) +
+                                      profiler.getLastNanos(FrameProfiler.Phase.CAMERA);
+                    frameEvent.updateTime = updateTime;
+                    frameEvent.renderTime = profiler.getLastNanos(FrameProfiler.Phase.FRAME) - updateTime;
+                    frameEvent.gameState = world.getCurrentState().name();
+                    frameEvent.particleCount = particleSystem.getParticleCount();
+                    frameEvent.commit();
+                }
             }
         };
         gameLoop.start();
+        bootstrapper.start();
+        if (latencyProbe != null && LatencyProbe.isSyntheticEnabled()) {
+            latencyProbe.startSyntheticInput(new LatencyProbe.SyntheticInput() {
+                @Override
+                public double press(long timestampNanos) {
+                    return pressSynthetic(timestampNanos);
+                }
+                
+                @Override
+                public void release(long timestampNanos) {
+                    inputQueue.add(InputQueue.RELEASE, InputQueue.SOURCE_SYNTHETIC, timestampNanos);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Hook the probe into the scene's pulse once the canvas is on a scene
+     */
+    private void attachLatencyProbe() {
+        if (probeAttached || gameCanvas.getScene() == null) return;
+        gameCanvas.getScene().addPostLayoutPulseListener(latencyProbe::frameSynced);
+        probeAttached = true;
+    }
+    
+    /**
+     * Queue a synthetic press that aims for the middle of the next platform,
+     * returning how long to hold it, or -1 if the game can't take a press now
+     */
+    private double pressSynthetic(long timestampNanos) {
+        if (world.getCurrentState() == GameState.GAME_OVER) {
+            restartGame();
+            return -1;
+        }
+        if (world.getCurrentState() != GameState.READY || holdSource != 0) {
+            return -1;
+        }
+        Platform next = world.getNextPlatform();
+        double target = next.getX() + next.getWidth() / 2 - world.getHero().getX();
+        inputQueue.add(InputQueue.PRESS, InputQueue.SOURCE_SYNTHETIC, timestampNanos);
+        return Stick.holdTimeForLength(target);
     }
 
     public void stop() {
         if (gameLoop != null) {
             gameLoop.stop();
         }
+        if (latencyProbe != null) {
+            latencyProbe.close();
+        }
+        
+        SnapshotStore snapshots = snapshotStore;
+        if (snapshots != null) {
+            // Save the exact frame we stopped on, to resume from next time
+            if (world.getCurrentState() != GameState.LOADING) {
+                saveSnapshot();
+            }
+            snapshots.close();
+        }
+        bootstrapper.shutdown();
+        audioMixer.shutdown();
+        assetManager.shutdown();
+        
+        AnalyticsRecorder recorder = analytics;
+        if (recorder != null) {
+            recorder.close();
+        }
+        
+        SpectatorServer spectators = spectatorServer;
+        if (spectators != null) {
+            try {
+                spectators.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close spectator server: " + e.getMessage());
+            }
+        }
+        
+        ScoreStore store = scoreStore;
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close score store: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void openScoreStore() {
+        try {
+            ScoreStore store = ScoreStore.open(ScoreStore.defaultDirectory());
+            ScoreEntry best = store.getPersonalBest();
+            if (best != null) {
+                gameUI.setBestScore(best.getScore());
+            }
+            scoreStore = store;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open score store", e);
+        }
+    }
+    
+    private void openSnapshotStore() {
+        if (!SnapshotStore.isEnabled()) return;
+        try {
+            Files.createDirectories(ScoreStore.defaultDirectory());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create data directory", e);
+        }
+        SnapshotStore store = new SnapshotStore(ScoreStore.defaultDirectory().resolve(SnapshotStore.FILE_NAME));
+        resumeSnapshot = store.load();
+        snapshotStore = store;
+    }
+    
+    /**
+     * Queue a snapshot of the current frame; the store writes it off the FX thread
+     */
+    private void saveSnapshot() {
+        SnapshotStore store = snapshotStore;
+        if (store == null) return;
+        
+        int size = 8 + world.getSnapshotSize();
+        if (snapshotBuffer == null || snapshotBuffer.capacity() < size) {
+            snapshotBuffer = ByteBuffer.allocate(size * 2);
+        }
+        snapshotBuffer.clear();
+        snapshotBuffer.putDouble(cameraOffsetX);
+        world.writeSnapshot(snapshotBuffer);
+        store.save(snapshotBuffer.flip());
+    }
+    
+    /**
+     * Continue from a saved snapshot. Returns false if there is none or it can't be used.
+     */
+    private boolean resumeFromSnapshot() {
+        ByteBuffer snapshot = resumeSnapshot;
+        resumeSnapshot = null;
+        if (snapshot == null) return false;
+        
+        try {
+            double savedCameraOffsetX = snapshot.getDouble();
+            world.readSnapshot(snapshot);
+            cameraOffsetX = savedCameraOffsetX;
+            if (world.getCurrentState() == GameState.GROWING_STICK) {
+                // Nothing holds the stick yet, so it waits for a press to carry on growing
+                world.setStickFrozen(true);
+            }
+            System.err.println("Resumed from snapshot: " + world.getCurrentState() + ", score " + world.getScore());
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("Ignoring unusable snapshot: " + e);
+            return false;
+        }
+    }
+    
+    private void openSpectatorServer() {
+        try {
+            spectatorServer = SpectatorServer.fromSystemProperties();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start spectator server", e);
+        }
+    }
+    
+    private void openAnalytics() {
+        if (!AnalyticsRecorder.isEnabled()) return;
+        try {
+            analytics = AnalyticsRecorder.open(AnalyticsReader.defaultDirectory());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open analytics directory", e);
+        }
+    }
+    
+    /**
+     * Queue the run that just ended to be saved and submitted to the
+     * leaderboard; neither blocks the FX thread
+     */
+    private void saveRun() {
+        int score = world.getScore();
+        if (score > gameUI.getBestScore()) {
+            gameUI.setBestScore(score);
+        }
+        
+        RunRecord record = new RunRecord(System.currentTimeMillis(), world.getRunSeed(), score,
+                                         (int) (world.getRunTime() * 1000), world.getStickLengths());
+        ScoreStore store = scoreStore;
+        if (store != null) {
+            store.submit(record);
+        }
+        LeaderboardClient client = leaderboardClient;
+        if (client != null) {
+            client.submit(record).exceptionally(e -> {
+                System.err.println("Failed to submit run to leaderboard: " + e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Preload assets in the background as a startup task. Must be called
+     * before {@link #start}; gameplay waits for the preload to finish.
+     */
+    public void loadAssets(AssetManifest manifest) {
+        bootstrapper.addAsync(TASK_ASSETS, bootstrapper.background(),
+                              () -> assetPreload = assetManager.preloadAsync(manifest), TASK_ASSET_MANAGER);
     }
 
     private void update(double deltaTime) {
-        switch (currentState) {
-            case GROWING_STICK:
-                if (currentStick != null) {
-                    currentStick.grow(deltaTime);
+        if (world.getCurrentState() == GameState.LOADING) {
+            if (gameplayReady.isDone()) {
+                AssetPreload preload = assetPreload;
+                if (preload != null && preload.getFailedCount() > 0) {
+                    System.err.println("Failed to preload " + preload.getFailedCount() + " of " +
+                                       preload.getTotalCount() + " assets");
                 }
-                break;
-                
-            case ROTATING_STICK:
-                if (currentStick != null) {
-                    currentStick.update(deltaTime);
-                    if (currentStick.isRotationComplete()) {
-                        startHeroWalking();
-                    }
+                if (gameplayReady.isCompletedExceptionally()) {
+                    System.err.println("Starting without some subsystems, see the startup errors above");
                 }
-                break;
-                
-            case HERO_WALKING:
-                hero.update(deltaTime);
-                if (hero.isWalkingComplete()) {
-                    checkCollisionAndContinue();
+                if (!resumeFromSnapshot()) {
+                    world.setState(GameState.READY);
                 }
-                break;
+                checkpointedState = world.getCurrentState();
+                StartupTimeline.markReady();
+            }
+            inputQueue.clear();
+        } else {
+            processInput();
+            world.update(deltaTime);
+            
+            // The stick's length follows from how long it has been held, not from frame times
+            if (holdSource != 0 && world.getCurrentState() == GameState.GROWING_STICK) {
+                world.growStickTo(Stick.lengthForHoldTime((frameNanos - stickPressNanos) / 1_000_000_000.0));
+            }
+            if (probePending) {
+                reportProbedInput();
+            }
+            SpectatorServer spectators = spectatorServer;
+            if (spectators != null) {
+                spectators.publish(world);
+            }
+            
+            // Checkpoint on every state change, so a recycled process loses at most part of a round
+            if (world.getCurrentState() != checkpointedState) {
+                checkpointedState = world.getCurrentState();
+                saveSnapshot();
+            }
         }
         
         particleSystem.update(deltaTime);
-        updateCamera();
     }
 
-    private void startHeroWalking() {
-        if (currentStick != null) {
-            double walkDistance = currentStick.getLength();
-            hero.startWalking(walkDistance);
-            currentState = GameState.HERO_WALKING;
+    /**
+     * Apply queued input in order. A release drops the stick at exactly the
+     * length it reached between the press and release timestamps, whichever
+     * frames they arrived in.
+     */
+    private void processInput() {
+        while (!inputQueue.isEmpty()) {
+            long timestamp = inputQueue.peekNanos();
+            byte type = inputQueue.peekType();
+            byte source = inputQueue.peekSource();
+            inputQueue.remove();
+            
+            if (type == InputQueue.PRESS) {
+                if (holdSource != 0) continue; // Another input is already holding the stick
+                if (world.startStick()) {
+                    holdSource = source;
+                    stickPressNanos = timestamp;
+                    probeInput(timestamp, source);
+                } else if (world.getCurrentState() == GameState.GROWING_STICK) {
+                    // Resumed from a snapshot mid-growth: carry on from the current length
+                    holdSource = source;
+                    stickPressNanos = timestamp -
+                        (long) (Stick.holdTimeForLength(world.getCurrentStick().getLength()) * 1_000_000_000L);
+                    world.setStickFrozen(false);
+                }
+            } else if (source == holdSource) {
+                holdSource = 0;
+                holdTime = (timestamp - stickPressNanos) / 1_000_000_000.0;
+                if (world.dropStick(Stick.lengthForHoldTime(holdTime))) {
+                    probeInput(timestamp, source);
+                }
+            }
         }
     }
-
-    private void checkCollisionAndContinue() {
-        if (platforms.size() < 2) return; // Safety check
-        
-        Platform nextPlatform = platforms.get(platforms.size() - 1);
-        double heroEndX = hero.getX() + hero.getWalkDistance();
-        
-        // Check if hero lands on the platform
-        if (heroEndX >= nextPlatform.getX() && 
-            heroEndX <= nextPlatform.getX() + nextPlatform.getWidth()) {
-            
-            // Success!
-            score++;
-            particleSystem.createSuccessParticles(heroEndX, nextPlatform.getY());
-            
-            // Move hero to new platform
-            hero.setPosition(nextPlatform.getX() + nextPlatform.getWidth() - 30, 
-                           nextPlatform.getY() - 40);
-            
-            // Generate next platform and reset
-            generateNextPlatform();
-            currentStick = null;
-            currentState = GameState.READY;
-            
-        } else {
-            // Game Over
-            particleSystem.createFailParticles(heroEndX, hero.getY());
-            currentState = GameState.GAME_OVER;
+    
+    private void probeInput(long timestamp, byte source) {
+        if (latencyProbe == null) return;
+        probePending = true;
+        probeNanos = timestamp;
+        probeSynthetic = source == InputQueue.SOURCE_SYNTHETIC;
+    }
+    
+    /**
+     * Report the last applied input to the latency probe once its effect can
+     * be seen: a press once the stick has some length, a release right away
+     */
+    private void reportProbedInput() {
+        if (world.getCurrentState() == GameState.GROWING_STICK && world.getCurrentStick().getLength() <= 0) {
+            return;
         }
+        latencyProbe.inputApplied(probeNanos, probeSynthetic);
+        probePending = false;
     }
 
     private void updateCamera() {
+        Hero hero = world.getHero();
         if (hero != null) {
             double targetCameraX = hero.getX() - gameCanvas.getWidth() / 3;
             cameraOffsetX += (targetCameraX - cameraOffsetX) * 0.05; // Smooth camera follow
@@ -255,6 +617,12 @@ public class GameEngine {
         // Clear canvas
         gc.clearRect(0, 0, gameCanvas.getWidth(), gameCanvas.getHeight());
         
+        if (world.getCurrentState() == GameState.LOADING) {
+            AssetPreload preload = assetPreload;
+            gameUI.renderLoadingScreen(gc, preload != null ? preload.getProgress() : 0);
+            return;
+        }
+        
         // Save graphics state
         gc.save();
         
@@ -264,30 +632,42 @@ public class GameEngine {
         
         // Draw background
         drawBackground();
+        profiler.lap(FrameProfiler.Phase.BACKGROUND);
         
         // Draw platforms
-        for (Platform platform : platforms) {
+        for (Platform platform : world.getPlatforms()) {
             platform.render(gc);
         }
+        profiler.lap(FrameProfiler.Phase.PLATFORMS);
         
         // Draw stick
+        Stick currentStick = world.getCurrentStick();
         if (currentStick != null) {
             currentStick.render(gc);
         }
+        profiler.lap(FrameProfiler.Phase.STICK);
         
         // Draw hero
+        Hero hero = world.getHero();
         if (hero != null) {
             hero.render(gc);
         }
+        profiler.lap(FrameProfiler.Phase.HERO);
         
         // Draw particles
         particleSystem.render(gc);
+        profiler.lap(FrameProfiler.Phase.PARTICLES);
         
         // Restore graphics state
         gc.restore();
         
         // Draw UI (not affected by camera)
-        gameUI.render(gc, score, currentState);
+        gameUI.render(gc, world.getScore(), world.getCurrentState());
+        if (showProfiler) {
+            gameUI.renderProfiler(gc, profiler, particleSystem.getParticleCount(),
+                                  assetManager.getImageCache(), assetManager.getAudioCache());
+        }
+        profiler.lap(FrameProfiler.Phase.HUD);
     }
 
     private void drawBackground() {
@@ -304,12 +684,14 @@ public class GameEngine {
         
         // Ground
         gc.setFill(Color.DARKGREEN);
-        gc.fillRect(startX, canvasHeight - GROUND_HEIGHT, canvasWidth, GROUND_HEIGHT);
+        gc.fillRect(startX, canvasHeight - GameWorld.GROUND_HEIGHT, canvasWidth, GameWorld.GROUND_HEIGHT);
         
         // Ground details
-        gc.setFill(Color.GREEN);
-        for (double x = startX - 50; x < endX + 50; x += 30) {
-            gc.fillOval(x, canvasHeight - GROUND_HEIGHT + 10, 8, 4);
+        if (qualityLevel > QUALITY_LOW) {
+            gc.setFill(Color.GREEN);
+            for (double x = startX - 50; x < endX + 50; x += 30) {
+                gc.fillOval(x, canvasHeight - GameWorld.GROUND_HEIGHT + 10, 8, 4);
+            }
         }
     }
 
@@ -317,6 +699,35 @@ public class GameEngine {
         return gameCanvas;
     }
 
+    /**
+     * Set rendering quality (QUALITY_LOW to QUALITY_HIGH). Safe to call from any thread.
+     */
+    public void setQualityLevel(int level) {
+        qualityLevel = Math.max(QUALITY_LOW, Math.min(QUALITY_HIGH, level));
+        particleSystem.setGlowEnabled(qualityLevel >= QUALITY_HIGH);
+    }
+
+    public int getQualityLevel() { return qualityLevel; }
+    public GameState getCurrentState() { return world.getCurrentState(); }
+    public int getScore() { return world.getScore(); }
+    public int getPlatformCount() { return world.getPlatformCount(); }
+    public GameWorld getWorld() { return world; }
+    public ParticleSystem getParticleSystem() { return particleSystem; }
+    public AssetManager getAssetManager() { return assetManager; }
+    public AudioMixer getAudioMixer() { return audioMixer; }
+    public FrameProfiler getProfiler() { return profiler; }
+    public Bootstrapper getBootstrapper() { return bootstrapper; }
+    
+    /**
+     * Get the score store, or null if it isn't open (yet)
+     */
+    public ScoreStore getScoreStore() { return scoreStore; }
+    
+    /**
+     * Get the snapshot store, or null if resuming is disabled or it isn't open (yet)
+     */
+    public SnapshotStore getSnapshotStore() { return snapshotStore; }
+
     public void handleResize(double newWidth, double newHeight) {
         gameCanvas.setWidth(newWidth);
         gameCanvas.setHeight(newHeight);
@@ -326,28 +737,16 @@ public class GameEngine {
         double originalHeight = 600;
         scaleX = newWidth / originalWidth;
         scaleY = newHeight / originalHeight;
+        
+        particleSystem.setGroundY(newHeight / scaleY - GameWorld.GROUND_HEIGHT);
     }
     
     /**
      * Restart the game to initial state
      */
     private void restartGame() {
-        currentState = GameState.READY;
-        score = 0;
+        world.reset();
         cameraOffsetX = 0;
-        
-        // Clear platforms and recreate initial setup
-        platforms.clear();
-        Platform firstPlatform = new Platform(50, gameCanvas.getHeight() - GROUND_HEIGHT - PLATFORM_HEIGHT, 100, PLATFORM_HEIGHT);
-        platforms.add(firstPlatform);
-        generateNextPlatform();
-        
-        // Reset hero position
-        hero.reset(firstPlatform.getX() + firstPlatform.getWidth() - 30, 
-                   firstPlatform.getY() - 40);
-        
-        // Clear current stick and particles
-        currentStick = null;
         particleSystem.clear();
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,441 @@
+package com.stickhero.game;
+
+import com.stickhero.entities.Hero;
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.jfr.GameStateEvent;
+import com.stickhero.utils.SpatialHashGrid;
+import com.stickhero.utils.StatefulRandom;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The game rules: platforms, hero, stick, score and state transitions.
+ *
+ * The world has no rendering, input or audio, so it can be driven headless;
+ * the GameEngine feeds it input and frame times and reacts to its events
+ * through a {@link Listener}. Platforms the hero has left far behind are
+ * retired, so memory stays flat however long a run lasts.
+ *
+ * Each run's course is generated from a run seed, so a run can be replayed
+ * from its seed and the stick lengths it used, which the world records.
+ */
+public class GameWorld {
+
+    /**
+     * Receives gameplay events, e.g. to play effects
+     */
+    public interface Listener {
+        default void onStickDropped(Stick stick) {}
+        default void onLanded(double x, double y) {}
+        default void onFell(double x, double y) {}
+
+        /**
+         * Called when the hero stops walking, before onLanded or onFell.
+         * The offset is where the hero stopped relative to the centre of the
+         * platform aimed at.
+         */
+        default void onRoundFinished(int round, double gap, double platformWidth, double stickLength,
+                                     double landingOffset, boolean landed) {}
+    }
+
+    private final double worldHeight;
+    private final PlatformGenerator platformGenerator;
+    private final StatefulRandom seedSource;
+    private final List<Platform> platforms;
+    private final SpatialHashGrid platformGrid;
+    private Listener listener;
+
+    private GameEngine.GameState currentState;
+    private int score;
+    private Hero hero;
+    private Stick currentStick;
+    private boolean stickFrozen;
+    
+    // Current run
+    private long runSeed;
+    private double runTime;
+    private float[] stickLengths;
+    private int roundCount;
+
+    // Constants
+    public static final double GROUND_HEIGHT = 150;
+    public static final double PLATFORM_HEIGHT = 100;
+    private static final double COLLISION_CELL_SIZE = 64;
+    private static final double RETIRE_DISTANCE = 800; // platforms this far behind the hero are off screen
+    private static final int MIN_RETAINED_PLATFORMS = 3;
+    private static final int MAX_SNAPSHOT_PLATFORMS = 1024;
+    private static final int MAX_SNAPSHOT_ROUNDS = 1 << 24;
+
+    public GameWorld(double worldHeight) {
+        this(worldHeight, System.nanoTime());
+    }
+
+    /**
+     * Create a world whose run seeds come from the given seed, so the whole
+     * sequence of runs is reproducible
+     */
+    public GameWorld(double worldHeight, long seed) {
+        this.worldHeight = worldHeight;
+        this.platformGenerator = new PlatformGenerator();
+        this.seedSource = new StatefulRandom(seed);
+        this.stickLengths = new float[64];
+        this.platforms = new ArrayList<>();
+        this.platformGrid = new SpatialHashGrid(COLLISION_CELL_SIZE);
+        this.listener = new Listener() {};
+        reset();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : new Listener() {};
+    }
+
+    /**
+     * Start a new game with a fresh run seed
+     */
+    public void reset() {
+        reset(seedSource.nextLong());
+    }
+
+    /**
+     * Start a new game on the course generated from a run seed
+     */
+    public void reset(long runSeed) {
+        setState(GameEngine.GameState.READY);
+        score = 0;
+        this.runSeed = runSeed;
+        runTime = 0;
+        roundCount = 0;
+        platformGenerator.setSeed(runSeed);
+
+        platforms.clear();
+        platformGrid.clear();
+        Platform firstPlatform = new Platform(50, worldHeight - GROUND_HEIGHT - PLATFORM_HEIGHT, 100, PLATFORM_HEIGHT);
+        addPlatform(firstPlatform);
+        generateNextPlatform();
+
+        if (hero == null) {
+            hero = new Hero(firstPlatform.getX() + firstPlatform.getWidth() - 30,
+                            firstPlatform.getY() - 40);
+        } else {
+            hero.reset(firstPlatform.getX() + firstPlatform.getWidth() - 30,
+                       firstPlatform.getY() - 40);
+        }
+
+        currentStick = null;
+        stickFrozen = false;
+    }
+
+    private void generateNextPlatform() {
+        if (platforms.isEmpty()) return;
+
+        Platform lastPlatform = platforms.get(platforms.size() - 1);
+        addPlatform(platformGenerator.next(lastPlatform));
+    }
+
+    private void addPlatform(Platform platform) {
+        platforms.add(platform);
+        platformGrid.insert(platform);
+    }
+
+    private void retirePlatforms() {
+        while (platforms.size() > MIN_RETAINED_PLATFORMS &&
+               platforms.get(0).getRightX() < hero.getX() - RETIRE_DISTANCE) {
+            platformGrid.remove(platforms.remove(0));
+        }
+    }
+
+    /**
+     * Start growing a stick from the edge of the current platform.
+     * Returns false if the world is not ready for a new stick.
+     */
+    public boolean startStick() {
+        if (currentState != GameEngine.GameState.READY || platforms.size() < 2) return false;
+
+        Platform currentPlatform = platforms.get(platforms.size() - 2);
+        double stickX = currentPlatform.getX() + currentPlatform.getWidth();
+        double stickY = currentPlatform.getY();
+
+        currentStick = new Stick(stickX, stickY);
+        stickFrozen = false;
+        setState(GameEngine.GameState.GROWING_STICK);
+        return true;
+    }
+
+    /**
+     * Set the growing stick's length, e.g. from how long the input has been
+     * held rather than from frame times. Returns false if no stick is growing.
+     */
+    public boolean growStickTo(double length) {
+        if (currentState != GameEngine.GameState.GROWING_STICK || currentStick == null) return false;
+        currentStick.setLength(length);
+        return true;
+    }
+
+    /**
+     * Keep the growing stick at its length until unfrozen, e.g. after
+     * resuming mid-growth with nothing holding it yet
+     */
+    public void setStickFrozen(boolean frozen) {
+        stickFrozen = frozen;
+    }
+
+    /**
+     * Stop growing the stick and let it fall. Returns false if no stick is growing.
+     */
+    public boolean dropStick() {
+        return currentStick != null && dropStick(currentStick.getLength());
+    }
+
+    /**
+     * Stop growing the stick at the given length and let it fall, e.g. to
+     * replay a recorded run. Lengths are rounded to float precision, as they
+     * are recorded, so a replay sees exactly the lengths the run used.
+     */
+    public boolean dropStick(double length) {
+        if (currentState != GameEngine.GameState.GROWING_STICK || currentStick == null) return false;
+
+        currentStick.setLength((float) length);
+        currentStick.startRotating();
+        if (roundCount == stickLengths.length) {
+            stickLengths = Arrays.copyOf(stickLengths, roundCount * 2);
+        }
+        stickLengths[roundCount++] = (float) currentStick.getLength();
+        setState(GameEngine.GameState.ROTATING_STICK);
+        return true;
+    }
+
+    /**
+     * Advance the rules by one frame
+     */
+    public void update(double deltaTime) {
+        if (currentState != GameEngine.GameState.LOADING && currentState != GameEngine.GameState.GAME_OVER) {
+            runTime += deltaTime;
+        }
+        
+        switch (currentState) {
+            case GROWING_STICK:
+                if (currentStick != null && !stickFrozen) {
+                    currentStick.grow(deltaTime);
+                }
+                break;
+
+            case ROTATING_STICK:
+                if (currentStick != null) {
+                    currentStick.update(deltaTime);
+                    if (currentStick.isRotationComplete()) {
+                        startHeroWalking();
+                    }
+                }
+                break;
+
+            case HERO_WALKING:
+                hero.update(deltaTime);
+                if (hero.isWalkingComplete()) {
+                    checkCollisionAndContinue();
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void startHeroWalking() {
+        double walkDistance = currentStick.getLength();
+        listener.onStickDropped(currentStick);
+        hero.startWalking(walkDistance);
+        setState(GameEngine.GameState.HERO_WALKING);
+    }
+
+    private void checkCollisionAndContinue() {
+        if (platforms.size() < 2) return; // Safety check
+
+        Platform currentPlatform = platforms.get(platforms.size() - 2);
+        Platform nextPlatform = platforms.get(platforms.size() - 1);
+        double heroEndX = hero.getX();
+        boolean landed = heroEndX >= nextPlatform.getX() &&
+                         heroEndX <= nextPlatform.getX() + nextPlatform.getWidth();
+        listener.onRoundFinished(roundCount - 1, nextPlatform.getX() - currentPlatform.getRightX(),
+                                 nextPlatform.getWidth(), currentStick.getLength(),
+                                 heroEndX - (nextPlatform.getX() + nextPlatform.getWidth() / 2), landed);
+
+        // Check if hero lands on the platform
+        if (landed) {
+
+            // Success!
+            score++;
+            listener.onLanded(heroEndX, nextPlatform.getY());
+
+            // Move hero to new platform
+            hero.setPosition(nextPlatform.getX() + nextPlatform.getWidth() - 30,
+                             nextPlatform.getY() - 40);
+
+            // Generate next platform and reset
+            generateNextPlatform();
+            retirePlatforms();
+            currentStick = null;
+            setState(GameEngine.GameState.READY);
+
+        } else {
+            // Game Over
+            listener.onFell(heroEndX, hero.getY());
+            setState(GameEngine.GameState.GAME_OVER);
+        }
+    }
+
+    void setState(GameEngine.GameState newState) {
+        GameEngine.GameState oldState = currentState;
+        currentState = newState;
+
+        GameStateEvent event = new GameStateEvent();
+        if (event.shouldCommit()) {
+            event.fromState = oldState != null ? oldState.name() : null;
+            event.toState = newState.name();
+            event.score = score;
+            event.commit();
+        }
+    }
+
+    /**
+     * Get an upper bound on the bytes {@link #writeSnapshot} will write
+     */
+    public int getSnapshotSize() {
+        return 128 + platforms.size() * 32 + roundCount * 4 + 128;
+    }
+
+    /**
+     * Write the complete rules state: state, score, run, random generators,
+     * platforms, hero and stick. Restoring it with {@link #readSnapshot}
+     * continues from exactly this frame.
+     */
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.putInt(currentState.ordinal());
+        buffer.putInt(score);
+        buffer.putLong(runSeed);
+        buffer.putDouble(runTime);
+        buffer.putLong(seedSource.getState());
+        buffer.putLong(platformGenerator.getRandomState());
+
+        buffer.putInt(roundCount);
+        for (int i = 0; i < roundCount; i++) {
+            buffer.putFloat(stickLengths[i]);
+        }
+
+        buffer.putInt(platforms.size());
+        for (Platform platform : platforms) {
+            buffer.putDouble(platform.getX()).putDouble(platform.getY())
+                  .putDouble(platform.getWidth()).putDouble(platform.getHeight());
+        }
+
+        hero.writeState(buffer);
+        buffer.put((byte) (currentStick != null ? 1 : 0));
+        if (currentStick != null) {
+            currentStick.writeState(buffer);
+        }
+    }
+
+    /**
+     * Restore state written by {@link #writeSnapshot}. Throws
+     * IllegalArgumentException, leaving the world unchanged, if the data is
+     * inconsistent.
+     */
+    public void readSnapshot(ByteBuffer buffer) {
+        GameEngine.GameState[] states = GameEngine.GameState.values();
+        int stateIndex = buffer.getInt();
+        if (stateIndex < 0 || stateIndex >= states.length) {
+            throw new IllegalArgumentException("Bad game state in snapshot: " + stateIndex);
+        }
+        int savedScore = buffer.getInt();
+        long savedRunSeed = buffer.getLong();
+        double savedRunTime = buffer.getDouble();
+        long seedSourceState = buffer.getLong();
+        long generatorState = buffer.getLong();
+
+        int rounds = buffer.getInt();
+        if (rounds < 0 || rounds > MAX_SNAPSHOT_ROUNDS) {
+            throw new IllegalArgumentException("Bad round count in snapshot: " + rounds);
+        }
+        float[] savedStickLengths = new float[Math.max(64, rounds)];
+        for (int i = 0; i < rounds; i++) {
+            savedStickLengths[i] = buffer.getFloat();
+        }
+
+        int platformCount = buffer.getInt();
+        if (platformCount < 2 || platformCount > MAX_SNAPSHOT_PLATFORMS) {
+            throw new IllegalArgumentException("Bad platform count in snapshot: " + platformCount);
+        }
+        List<Platform> savedPlatforms = new ArrayList<>(platformCount);
+        for (int i = 0; i < platformCount; i++) {
+            savedPlatforms.add(new Platform(buffer.getDouble(), buffer.getDouble(),
+                                            buffer.getDouble(), buffer.getDouble()));
+        }
+
+        // Read everything before changing anything, so a truncated snapshot leaves this world alone
+        Hero savedHero = new Hero(0, 0);
+        savedHero.readState(buffer);
+        Stick savedStick = buffer.get() != 0 ? Stick.readState(buffer) : null;
+
+        score = savedScore;
+        runSeed = savedRunSeed;
+        runTime = savedRunTime;
+        seedSource.setState(seedSourceState);
+        platformGenerator.setRandomState(generatorState);
+        stickLengths = savedStickLengths;
+        roundCount = rounds;
+
+        platforms.clear();
+        platformGrid.clear();
+        for (Platform platform : savedPlatforms) {
+            addPlatform(platform);
+        }
+        hero = savedHero;
+        currentStick = savedStick;
+        stickFrozen = false;
+        setState(states[stateIndex]);
+    }
+
+    // Getters
+    public GameEngine.GameState getCurrentState() { return currentState; }
+    public int getScore() { return score; }
+    public Hero getHero() { return hero; }
+    public Stick getCurrentStick() { return currentStick; }
+    public SpatialHashGrid getPlatformGrid() { return platformGrid; }
+    public int getPlatformCount() { return platforms.size(); }
+    public double getWorldHeight() { return worldHeight; }
+    public long getRunSeed() { return runSeed; }
+    public double getRunTime() { return runTime; }
+    public int getRoundCount() { return roundCount; }
+
+    /**
+     * Get the length of every stick dropped in the current run, in order
+     */
+    public float[] getStickLengths() {
+        return Arrays.copyOf(stickLengths, roundCount);
+    }
+
+    /**
+     * Get the live platforms, oldest first
+     */
+    public List<Platform> getPlatforms() {
+        return Collections.unmodifiableList(platforms);
+    }
+
+    /**
+     * Get the platform the hero is standing on
+     */
+    public Platform getCurrentPlatform() {
+        return platforms.size() < 2 ? null : platforms.get(platforms.size() - 2);
+    }
+
+    /**
+     * Get the platform the hero is trying to reach
+     */
+    public Platform getNextPlatform() {
+        return platforms.isEmpty() ? null : platforms.get(platforms.size() - 1);
+    }
+}
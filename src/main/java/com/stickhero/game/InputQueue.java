@@ -0,0 +1,76 @@
+package com.stickhero.game;
+
+/**
+ * Press and release events waiting for the next frame, each stamped with
+ * System.nanoTime when its handler ran.
+ *
+ * Input handlers and the game loop both run on the FX thread, so the queue
+ * needs no locking. It is a fixed ring that never allocates; if it fills up
+ * between two frames the oldest events are overwritten.
+ */
+public class InputQueue {
+
+    public static final byte PRESS = 0;
+    public static final byte RELEASE = 1;
+
+    public static final byte SOURCE_MOUSE = 1;
+    public static final byte SOURCE_KEYBOARD = 2;
+    public static final byte SOURCE_TOUCH = 3;
+    public static final byte SOURCE_SYNTHETIC = 4; // injected by the latency probe
+
+    private static final int CAPACITY = 64; // power of two
+
+    private final long[] nanos;
+    private final byte[] types;
+    private final byte[] sources;
+    private int head;
+    private int size;
+
+    public InputQueue() {
+        nanos = new long[CAPACITY];
+        types = new byte[CAPACITY];
+        sources = new byte[CAPACITY];
+    }
+
+    /**
+     * Queue an event that happened now
+     */
+    public void add(byte type, byte source) {
+        add(type, source, System.nanoTime());
+    }
+
+    public void add(byte type, byte source, long timestampNanos) {
+        if (size == CAPACITY) {
+            head = (head + 1) & (CAPACITY - 1);
+            size--;
+        }
+        int i = (head + size) & (CAPACITY - 1);
+        nanos[i] = timestampNanos;
+        types[i] = type;
+        sources[i] = source;
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Oldest event
+    public long peekNanos() { return nanos[head]; }
+    public byte peekType() { return types[head]; }
+    public byte peekSource() { return sources[head]; }
+
+    /**
+     * Drop the oldest event
+     */
+    public void remove() {
+        if (size == 0) return;
+        head = (head + 1) & (CAPACITY - 1);
+        size--;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.stickhero.game;
+
+import com.stickhero.entities.Platform;
+import com.stickhero.utils.StatefulRandom;
+
+/**
+ * Generates the next platform at a random gap and width after the previous one
+ */
+public class PlatformGenerator {
+    
+    private final StatefulRandom random;
+    
+    // Constants
+    public static final double MIN_PLATFORM_GAP = 50;
+    public static final double MAX_PLATFORM_GAP = 200;
+    public static final double MIN_PLATFORM_WIDTH = 50;
+    public static final double MAX_PLATFORM_WIDTH = 100;
+    
+    public PlatformGenerator() {
+        this(System.nanoTime());
+    }
+    
+    public PlatformGenerator(long seed) {
+        this.random = new StatefulRandom(seed);
+    }
+    
+    /**
+     * Restart the random sequence, so the same seed always generates the same course
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+    
+    /**
+     * Get the random generator state, so a snapshot can continue the same course
+     */
+    public long getRandomState() {
+        return random.getState();
+    }
+    
+    public void setRandomState(long state) {
+        random.setState(state);
+    }
+    
+    /**
+     * Create a platform to the right of the previous one, at the same height
+     */
+    public Platform next(Platform previous) {
+        double gap = MIN_PLATFORM_GAP + random.nextDouble() * (MAX_PLATFORM_GAP - MIN_PLATFORM_GAP);
+        double width = MIN_PLATFORM_WIDTH + random.nextDouble() * (MAX_PLATFORM_WIDTH - MIN_PLATFORM_WIDTH);
+        double x = previous.getX() + previous.getWidth() + gap;
+        
+        return new Platform(x, previous.getY(), width, previous.getHeight());
+    }
+}
@@ -0,0 +1,37 @@
+package com.stickhero.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Loading and decoding of one asset. The event duration is the decode time.
+ */
+@Name("com.stickhero.AssetLoad")
+@Label("Asset Load")
+@Category("Stick Hero")
+@Description("An image or audio clip was loaded and decoded")
+@Enabled(false)
+public class AssetLoadEvent extends Event {
+    
+    @Label("Resource Path")
+    public String resourcePath;
+    
+    @Label("Asset Type")
+    public String assetType;
+    
+    @Label("Source")
+    @Description("Where the asset was read from: directory, pack or classpath")
+    public String source;
+    
+    @Label("Decoded Size")
+    @DataAmount
+    public long bytes;
+    
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,36 @@
+package com.stickhero.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One iteration of the game loop. The event duration is the whole frame.
+ */
+@Name("com.stickhero.Frame")
+@Label("Game Frame")
+@Category("Stick Hero")
+@Description("One iteration of the game loop")
+@Enabled(false)
+@StackTrace(false)
+public class FrameEvent extends Event {
+    
+    @Label("Update Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long updateTime;
+    
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long renderTime;
+    
+    @Label("Game State")
+    public String gameState;
+    
+    @Label("Particle Count")
+    public int particleCount;
+}
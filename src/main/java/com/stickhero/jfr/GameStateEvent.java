@@ -0,0 +1,30 @@
+package com.stickhero.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A transition between two game states
+ */
+@Name("com.stickhero.GameStateTransition")
+@Label("Game State Transition")
+@Category("Stick Hero")
+@Description("The game engine moved from one state to another")
+@Enabled(false)
+@StackTrace(false)
+public class GameStateEvent extends Event {
+    
+    @Label("From")
+    public String fromState;
+    
+    @Label("To")
+    public String toState;
+    
+    @Label("Score")
+    public int score;
+}
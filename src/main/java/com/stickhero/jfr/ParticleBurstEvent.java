@@ -0,0 +1,37 @@
+package com.stickhero.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A burst of particles spawned by the particle system. The event duration
+ * is the time spent creating them.
+ */
+@Name("com.stickhero.ParticleBurst")
+@Label("Particle Burst")
+@Category("Stick Hero")
+@Description("A burst of particles was spawned")
+@Enabled(false)
+@StackTrace(false)
+public class ParticleBurstEvent extends Event {
+    
+    @Label("Effect")
+    public String effect;
+    
+    @Label("Spawned")
+    public int spawned;
+    
+    @Label("Live Particles")
+    public int liveParticles;
+    
+    @Label("X")
+    public double x;
+    
+    @Label("Y")
+    public double y;
+}
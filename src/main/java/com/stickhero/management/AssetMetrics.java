@@ -0,0 +1,40 @@
+package com.stickhero.management;
+
+import com.stickhero.utils.AssetCache;
+import com.stickhero.utils.AssetManager;
+import com.stickhero.utils.AudioMixer;
+
+/**
+ * AssetsMXBean implementation reading live values from the asset caches and audio mixer
+ */
+public class AssetMetrics implements AssetsMXBean {
+    
+    private final AssetCache<?> imageCache;
+    private final AssetCache<?> audioCache;
+    private final AudioMixer audioMixer;
+    
+    public AssetMetrics(AssetManager assetManager, AudioMixer audioMixer) {
+        this.imageCache = assetManager.getImageCache();
+        this.audioCache = assetManager.getAudioCache();
+        this.audioMixer = audioMixer;
+    }
+    
+    @Override public int getImageCacheSize() { return imageCache.size(); }
+    @Override public long getImageCacheBytes() { return imageCache.getTotalBytes(); }
+    @Override public long getImageCacheBudgetBytes() { return imageCache.getMaxBytes(); }
+    @Override public void setImageCacheBudgetBytes(long budgetBytes) { imageCache.setMaxBytes(budgetBytes); }
+    @Override public double getImageHitRate() { return imageCache.getHitRate(); }
+    @Override public long getImageEvictionCount() { return imageCache.getEvictionCount(); }
+    @Override public long getImageFailedLoadCount() { return imageCache.getFailedLoadCount(); }
+    
+    @Override public int getAudioCacheSize() { return audioCache.size(); }
+    @Override public long getAudioCacheBytes() { return audioCache.getTotalBytes(); }
+    @Override public long getAudioCacheBudgetBytes() { return audioCache.getMaxBytes(); }
+    @Override public void setAudioCacheBudgetBytes(long budgetBytes) { audioCache.setMaxBytes(budgetBytes); }
+    @Override public double getAudioHitRate() { return audioCache.getHitRate(); }
+    @Override public long getAudioEvictionCount() { return audioCache.getEvictionCount(); }
+    @Override public long getAudioFailedLoadCount() { return audioCache.getFailedLoadCount(); }
+    
+    @Override public int getActiveVoiceCount() { return audioMixer.getActiveVoiceCount(); }
+    @Override public long getDroppedSoundCount() { return audioMixer.getDroppedCount(); }
+}
@@ -0,0 +1,27 @@
+package com.stickhero.management;
+
+/**
+ * Asset cache metrics exposed over JMX as com.stickhero:type=Assets.
+ * Cache memory budgets can be changed at runtime.
+ */
+public interface AssetsMXBean {
+    
+    int getImageCacheSize();
+    long getImageCacheBytes();
+    long getImageCacheBudgetBytes();
+    void setImageCacheBudgetBytes(long budgetBytes);
+    double getImageHitRate();
+    long getImageEvictionCount();
+    long getImageFailedLoadCount();
+    
+    int getAudioCacheSize();
+    long getAudioCacheBytes();
+    long getAudioCacheBudgetBytes();
+    void setAudioCacheBudgetBytes(long budgetBytes);
+    double getAudioHitRate();
+    long getAudioEvictionCount();
+    long getAudioFailedLoadCount();
+    
+    int getActiveVoiceCount();
+    long getDroppedSoundCount();
+}
@@ -0,0 +1,77 @@
+package com.stickhero.management;
+
+import com.stickhero.game.GameEngine;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers the game's MBeans with the platform MBean server
+ */
+public class GameMBeans {
+    
+    public static final String GAME_NAME = "com.stickhero:type=Game";
+    public static final String ASSETS_NAME = "com.stickhero:type=Assets";
+    
+    private static final long GC_SAMPLE_INTERVAL_SECONDS = 5;
+    
+    private final MBeanServer server;
+    private final ObjectName gameName;
+    private final ObjectName assetsName;
+    private final ScheduledExecutorService gcSampler;
+    
+    private GameMBeans(MBeanServer server, ObjectName gameName, ObjectName assetsName,
+                       ScheduledExecutorService gcSampler) {
+        this.server = server;
+        this.gameName = gameName;
+        this.assetsName = assetsName;
+        this.gcSampler = gcSampler;
+    }
+    
+    /**
+     * Register the game and asset MBeans. Returns null if registration fails,
+     * since monitoring must never stop the game from starting.
+     */
+    public static GameMBeans register(GameEngine engine) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName gameName = new ObjectName(GAME_NAME);
+            ObjectName assetsName = new ObjectName(ASSETS_NAME);
+            
+            GameMetrics gameMetrics = new GameMetrics(engine);
+            server.registerMBean(gameMetrics, gameName);
+            server.registerMBean(new AssetMetrics(engine.getAssetManager(), engine.getAudioMixer()), assetsName);
+            
+            ScheduledExecutorService gcSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jmx-gc-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            gcSampler.scheduleAtFixedRate(gameMetrics::sampleGc, GC_SAMPLE_INTERVAL_SECONDS,
+                                          GC_SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            
+            return new GameMBeans(server, gameName, assetsName, gcSampler);
+        } catch (JMException e) {
+            System.err.println("Failed to register MBeans: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Unregister the MBeans and stop sampling
+     */
+    public void unregister() {
+        gcSampler.shutdownNow();
+        try {
+            server.unregisterMBean(gameName);
+            server.unregisterMBean(assetsName);
+        } catch (JMException e) {
+            System.err.println("Failed to unregister MBeans: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.stickhero.management;
+
+/**
+ * Live game engine metrics exposed over JMX as com.stickhero:type=Game.
+ * The particle budget and quality level can be changed at runtime.
+ */
+public interface GameMXBean {
+    
+    double getFps();
+    double getFrameTimeP50Millis();
+    double getFrameTimeP99Millis();
+    double getFrameTimeMaxMillis();
+    double getAllocatedBytesPerFrame();
+    
+    String getGameState();
+    int getScore();
+    int getPlatformCount();
+    int getParticleCount();
+    
+    int getParticleBudget();
+    void setParticleBudget(int particleBudget);
+    
+    int getQualityLevel();
+    void setQualityLevel(int qualityLevel);
+    
+    double getGcCountPerMinute();
+    double getGcTimeMillisPerMinute();
+}
@@ -0,0 +1,140 @@
+package com.stickhero.management;
+
+import com.stickhero.game.GameEngine;
+import com.stickhero.utils.AllocationTracker;
+import com.stickhero.utils.FrameProfiler;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * GameMXBean implementation reading live values from the engine.
+ *
+ * GC rates are computed from samples of the JVM's collector counters taken
+ * by {@link #sampleGc}, which the owner calls periodically; the rate covers
+ * the span of the retained samples (up to a minute).
+ */
+public class GameMetrics implements GameMXBean {
+    
+    private static final int GC_SAMPLES = 13; // 12 intervals of 5 seconds
+    
+    private final GameEngine engine;
+    private final List<GarbageCollectorMXBean> collectors;
+    private final long[] sampleTimes;
+    private final long[] sampleCounts;
+    private final long[] sampleGcMillis;
+    private int sampleCount;
+    private int nextSample;
+    
+    public GameMetrics(GameEngine engine) {
+        this.engine = engine;
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        this.sampleTimes = new long[GC_SAMPLES];
+        this.sampleCounts = new long[GC_SAMPLES];
+        this.sampleGcMillis = new long[GC_SAMPLES];
+        sampleGc();
+    }
+    
+    /**
+     * Record the current GC counters
+     */
+    public synchronized void sampleGc() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        sampleTimes[nextSample] = System.nanoTime();
+        sampleCounts[nextSample] = count;
+        sampleGcMillis[nextSample] = millis;
+        nextSample = (nextSample + 1) % GC_SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, GC_SAMPLES);
+    }
+    
+    private synchronized double perMinute(long[] values) {
+        if (sampleCount < 2) return 0;
+        int newest = (nextSample - 1 + GC_SAMPLES) % GC_SAMPLES;
+        int oldest = (nextSample - sampleCount + GC_SAMPLES) % GC_SAMPLES;
+        double minutes = (sampleTimes[newest] - sampleTimes[oldest]) / 60_000_000_000.0;
+        return minutes <= 0 ? 0 : (values[newest] - values[oldest]) / minutes;
+    }
+    
+    @Override
+    public double getFps() {
+        return engine.getProfiler().getFps();
+    }
+    
+    @Override
+    public double getFrameTimeP50Millis() {
+        return engine.getProfiler().getP50Millis(FrameProfiler.Phase.FRAME);
+    }
+    
+    @Override
+    public double getFrameTimeP99Millis() {
+        return engine.getProfiler().getP99Millis(FrameProfiler.Phase.FRAME);
+    }
+    
+    @Override
+    public double getFrameTimeMaxMillis() {
+        return engine.getProfiler().getMaxMillis(FrameProfiler.Phase.FRAME);
+    }
+    
+    @Override
+    public double getAllocatedBytesPerFrame() {
+        AllocationTracker tracker = engine.getProfiler().getAllocationTracker();
+        return tracker != null ? tracker.getAverageBytes(FrameProfiler.Phase.FRAME) : -1;
+    }
+    
+    @Override
+    public String getGameState() {
+        GameEngine.GameState state = engine.getCurrentState();
+        return state != null ? state.name() : null;
+    }
+    
+    @Override
+    public int getScore() {
+        return engine.getScore();
+    }
+    
+    @Override
+    public int getPlatformCount() {
+        return engine.getPlatformCount();
+    }
+    
+    @Override
+    public int getParticleCount() {
+        return engine.getParticleSystem().getParticleCount();
+    }
+    
+    @Override
+    public int getParticleBudget() {
+        return engine.getParticleSystem().getParticleBudget();
+    }
+    
+    @Override
+    public void setParticleBudget(int particleBudget) {
+        engine.getParticleSystem().setParticleBudget(particleBudget);
+    }
+    
+    @Override
+    public int getQualityLevel() {
+        return engine.getQualityLevel();
+    }
+    
+    @Override
+    public void setQualityLevel(int qualityLevel) {
+        engine.setQualityLevel(qualityLevel);
+    }
+    
+    @Override
+    public double getGcCountPerMinute() {
+        return perMinute(sampleCounts);
+    }
+    
+    @Override
+    public double getGcTimeMillisPerMinute() {
+        return perMinute(sampleGcMillis);
+    }
+}
@@ -0,0 +1,71 @@
+package com.stickhero.net;
+
+import com.stickhero.persistence.RunRecord;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Submits finished runs to a leaderboard server without blocking the caller.
+ *
+ * Enabled by setting -Dstickhero.leaderboard to the server URL, e.g.
+ * {@code http://localhost:8642}. Runs go to the board named by
+ * -Dstickhero.board (default "default") under the player name from
+ * -Dstickhero.player (default: the OS user name).
+ */
+public class LeaderboardClient {
+
+    public static final String URL_PROPERTY = "stickhero.leaderboard";
+    public static final String BOARD_PROPERTY = "stickhero.board";
+    public static final String PLAYER_PROPERTY = "stickhero.player";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient httpClient;
+    private final URI submitUri;
+    private final String player;
+
+    public LeaderboardClient(String serverUrl, String board, String player) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+        this.submitUri = URI.create(serverUrl.replaceAll("/+$", "") + "/boards/" + board + "/runs");
+        this.player = player;
+    }
+
+    /**
+     * Create a client from the system properties, or return null if no server is configured
+     */
+    public static LeaderboardClient fromSystemProperties() {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        return new LeaderboardClient(url, System.getProperty(BOARD_PROPERTY, "default"),
+                                     System.getProperty(PLAYER_PROPERTY, System.getProperty("user.name", "player")));
+    }
+
+    /**
+     * Submit a run. The returned future completes with the server's reply,
+     * or exceptionally if the server couldn't be reached or rejected the run.
+     */
+    public CompletableFuture<String> submit(RunRecord record) {
+        String body = new RunSubmission(player, record).encode();
+        HttpRequest request = HttpRequest.newBuilder(submitUri)
+            .timeout(TIMEOUT)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+            .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Leaderboard rejected run (" + response.statusCode() + "): " +
+                                                response.body());
+            }
+            return response.body();
+        });
+    }
+}
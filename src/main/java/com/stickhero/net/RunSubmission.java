@@ -0,0 +1,101 @@
+package com.stickhero.net;
+
+import com.stickhero.persistence.RunRecord;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A run submitted to the leaderboard server: the player's name and the run
+ * record, whose seed and stick lengths are the input log the server replays.
+ *
+ * Encoded as an application/x-www-form-urlencoded body, e.g.
+ * {@code player=ann&seed=42&score=3&duration=5120&time=1700000000000&sticks=98.5,120.25,61.0,140.0}.
+ */
+public final class RunSubmission {
+
+    public static final int MAX_PLAYER_LENGTH = 32;
+    public static final int MAX_ROUNDS = 100_000;
+
+    private final String player;
+    private final RunRecord record;
+
+    public RunSubmission(String player, RunRecord record) {
+        this.player = player;
+        this.record = record;
+    }
+
+    public String getPlayer() { return player; }
+    public RunRecord getRecord() { return record; }
+
+    /**
+     * Encode as a form body
+     */
+    public String encode() {
+        StringBuilder body = new StringBuilder(64 + record.getRoundCount() * 8);
+        body.append("player=").append(URLEncoder.encode(player, StandardCharsets.UTF_8))
+            .append("&seed=").append(record.getSeed())
+            .append("&score=").append(record.getScore())
+            .append("&duration=").append(record.getDurationMillis())
+            .append("&time=").append(record.getTimestamp())
+            .append("&sticks=");
+        float[] sticks = record.getStickLengths();
+        for (int i = 0; i < sticks.length; i++) {
+            if (i > 0) body.append(',');
+            body.append(sticks[i]);
+        }
+        return body.toString();
+    }
+
+    /**
+     * Decode a form body; throws IllegalArgumentException if it is malformed
+     */
+    public static RunSubmission decode(String body) {
+        Map<String, String> fields = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals <= 0) continue;
+            fields.put(pair.substring(0, equals),
+                       URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+
+        String player = required(fields, "player").strip();
+        if (player.isEmpty() || player.length() > MAX_PLAYER_LENGTH) {
+            throw new IllegalArgumentException("Player name must be 1 to " + MAX_PLAYER_LENGTH + " characters");
+        }
+
+        try {
+            long seed = Long.parseLong(required(fields, "seed"));
+            int score = Integer.parseInt(required(fields, "score"));
+            int duration = Integer.parseInt(required(fields, "duration"));
+            long time = Long.parseLong(required(fields, "time"));
+
+            String sticksField = required(fields, "sticks");
+            String[] parts = sticksField.isEmpty() ? new String[0] : sticksField.split(",");
+            if (parts.length > MAX_ROUNDS) {
+                throw new IllegalArgumentException("Too many rounds: " + parts.length);
+            }
+            float[] sticks = new float[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                sticks[i] = Float.parseFloat(parts[i]);
+                if (!Float.isFinite(sticks[i])) {
+                    throw new IllegalArgumentException("Bad stick length: " + parts[i]);
+                }
+            }
+            return new RunSubmission(player, new RunRecord(time, seed, score, duration, sticks));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad number: " + e.getMessage());
+        }
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+}
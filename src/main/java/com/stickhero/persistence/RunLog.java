@@ -0,0 +1,203 @@
+package com.stickhero.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only file of finished runs.
+ *
+ * The file starts with a 16 byte header (magic, version). Each record is
+ * its payload length, a CRC32C of the payload, then the payload itself.
+ * Records are only ever appended, so a crash can at worst leave a torn
+ * record at the end; {@link #recover} finds the first record that is
+ * short or fails its checksum and truncates the file there.
+ *
+ * Not thread safe: the ScoreStore writer thread owns it.
+ */
+public class RunLog implements Closeable {
+
+    public static final int HEADER_SIZE = 16;
+
+    private static final int MAGIC = 0x5348524C; // "SHRL"
+    private static final int VERSION = 1;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Receives each valid record found by {@link #recover}
+     */
+    public interface Visitor {
+        void visit(long offset, RunRecord record, long endOffset);
+    }
+
+    private final FileChannel channel;
+    private final CRC32C crc;
+    private ByteBuffer writeBuffer;
+    private long size;
+
+    private RunLog(FileChannel channel, long size) {
+        this.channel = channel;
+        this.crc = new CRC32C();
+        this.writeBuffer = ByteBuffer.allocate(4096);
+        this.size = size;
+    }
+
+    /**
+     * Open a run log, creating it if it doesn't exist. Call {@link #recover}
+     * before appending to drop a torn record left by a crash.
+     */
+    public static RunLog open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.size() < HEADER_SIZE) {
+                // New file, or a crash before the header was complete
+                header.putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+                channel.force(true);
+            } else {
+                channel.read(header, 0);
+                header.flip();
+                if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                    throw new IOException("Not a run log (or an unsupported version): " + path);
+                }
+            }
+            return new RunLog(channel, channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read every record from the given offset to the end, truncating the file
+     * at the first record that is torn or corrupt. Returns the new end of the log.
+     */
+    public long recover(long fromOffset, Visitor visitor) throws IOException {
+        long offset = Math.max(fromOffset, HEADER_SIZE);
+        long fileSize = channel.size();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        ByteBuffer payload = ByteBuffer.allocate(256);
+
+        while (offset + RECORD_HEADER_SIZE <= fileSize) {
+            recordHeader.clear();
+            readFully(recordHeader, offset);
+            recordHeader.flip();
+            int length = recordHeader.getInt();
+            int checksum = recordHeader.getInt();
+            if (length <= 0 || length > MAX_PAYLOAD_SIZE || offset + RECORD_HEADER_SIZE + length > fileSize) {
+                break;
+            }
+
+            if (payload.capacity() < length) {
+                payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+            }
+            payload.clear().limit(length);
+            readFully(payload, offset + RECORD_HEADER_SIZE);
+            payload.flip();
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            RunRecord record = RunRecord.readFrom(payload);
+            if (record == null) {
+                break;
+            }
+            long end = offset + RECORD_HEADER_SIZE + length;
+            visitor.visit(offset, record, end);
+            offset = end;
+        }
+
+        if (offset < fileSize) {
+            System.err.println("Run log: dropping " + (fileSize - offset) + " bytes of torn or corrupt records");
+            channel.truncate(offset);
+            channel.force(true);
+        }
+        size = offset;
+        return size;
+    }
+
+    /**
+     * Append a record without syncing it to disk. Returns the record's offset.
+     */
+    public long append(RunRecord record) throws IOException {
+        int length = record.encodedSize();
+        int total = RECORD_HEADER_SIZE + length;
+        if (writeBuffer.capacity() < total) {
+            writeBuffer = ByteBuffer.allocate(Math.max(total, writeBuffer.capacity() * 2));
+        }
+        writeBuffer.clear().position(RECORD_HEADER_SIZE);
+        record.writeTo(writeBuffer);
+        writeBuffer.flip();
+
+        crc.reset();
+        crc.update(writeBuffer.duplicate().position(RECORD_HEADER_SIZE));
+        writeBuffer.putInt(0, length);
+        writeBuffer.putInt(4, (int) crc.getValue());
+
+        long offset = size;
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer, offset + writeBuffer.position());
+        }
+        size += total;
+        return offset;
+    }
+
+    /**
+     * Sync everything appended so far to disk
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Read the record at an offset returned by {@link #append} or {@link #recover}
+     */
+    public RunRecord read(long offset) throws IOException {
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(recordHeader, offset);
+        recordHeader.flip();
+        int length = recordHeader.getInt();
+        int checksum = recordHeader.getInt();
+        if (length <= 0 || length > MAX_PAYLOAD_SIZE) {
+            throw new IOException("No run record at offset " + offset);
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, offset + RECORD_HEADER_SIZE);
+        payload.flip();
+        CRC32C check = new CRC32C();
+        check.update(payload.duplicate());
+        RunRecord record = (int) check.getValue() == checksum ? RunRecord.readFrom(payload) : null;
+        if (record == null) {
+            throw new IOException("Corrupt run record at offset " + offset);
+        }
+        return record;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of run log");
+            }
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.stickhero.persistence;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * One finished run: when it ended, the seed its course was generated from,
+ * the final score, how long it lasted and the length of every stick dropped.
+ * The seed and stick lengths are enough to replay the run.
+ */
+public final class RunRecord {
+
+    private final long timestamp;
+    private final long seed;
+    private final int score;
+    private final int durationMillis;
+    private final float[] stickLengths;
+
+    public RunRecord(long timestamp, long seed, int score, int durationMillis, float[] stickLengths) {
+        this.timestamp = timestamp;
+        this.seed = seed;
+        this.score = score;
+        this.durationMillis = durationMillis;
+        this.stickLengths = stickLengths.clone();
+    }
+
+    /**
+     * Get the encoded size in bytes
+     */
+    int encodedSize() {
+        return 8 + 8 + 4 + 4 + 4 + stickLengths.length * 4;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putLong(timestamp);
+        buffer.putLong(seed);
+        buffer.putInt(score);
+        buffer.putInt(durationMillis);
+        buffer.putInt(stickLengths.length);
+        for (float length : stickLengths) {
+            buffer.putFloat(length);
+        }
+    }
+
+    /**
+     * Decode a record, or return null if the buffer doesn't hold exactly one record
+     */
+    static RunRecord readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < 28) return null;
+        long timestamp = buffer.getLong();
+        long seed = buffer.getLong();
+        int score = buffer.getInt();
+        int durationMillis = buffer.getInt();
+        int rounds = buffer.getInt();
+        if (rounds < 0 || buffer.remaining() != rounds * 4L) return null;
+        float[] stickLengths = new float[rounds];
+        for (int i = 0; i < rounds; i++) {
+            stickLengths[i] = buffer.getFloat();
+        }
+        return new RunRecord(timestamp, seed, score, durationMillis, stickLengths);
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public long getSeed() { return seed; }
+    public int getScore() { return score; }
+    public int getDurationMillis() { return durationMillis; }
+    public int getRoundCount() { return stickLengths.length; }
+
+    public float[] getStickLengths() {
+        return stickLengths.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "RunRecord{score=" + score + ", seed=" + seed + ", durationMillis=" + durationMillis +
+               ", timestamp=" + timestamp + ", stickLengths=" + Arrays.toString(stickLengths) + "}";
+    }
+}
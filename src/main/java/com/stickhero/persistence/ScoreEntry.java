@@ -0,0 +1,31 @@
+package com.stickhero.persistence;
+
+/**
+ * A run as kept in the score index: enough to list it in a top-K table,
+ * plus its offset in the run log to read the full record.
+ */
+public final class ScoreEntry {
+
+    private final int score;
+    private final int durationMillis;
+    private final long timestamp;
+    private final long logOffset;
+
+    public ScoreEntry(int score, int durationMillis, long timestamp, long logOffset) {
+        this.score = score;
+        this.durationMillis = durationMillis;
+        this.timestamp = timestamp;
+        this.logOffset = logOffset;
+    }
+
+    public int getScore() { return score; }
+    public int getDurationMillis() { return durationMillis; }
+    public long getTimestamp() { return timestamp; }
+    public long getLogOffset() { return logOffset; }
+
+    @Override
+    public String toString() {
+        return "ScoreEntry{score=" + score + ", durationMillis=" + durationMillis +
+               ", timestamp=" + timestamp + ", logOffset=" + logOffset + "}";
+    }
+}
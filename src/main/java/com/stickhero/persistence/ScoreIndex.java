@@ -0,0 +1,214 @@
+package com.stickhero.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory-mapped index over the run log: totals across all runs and the
+ * top runs sorted by score, so personal bests and top-K queries are a few
+ * reads from memory however long the log grows.
+ *
+ * The index records how much of the log it covers. It is only updated after
+ * the log has been synced, so after a crash it is never ahead of the log;
+ * anything it is behind by is replayed from the log on open. Updates are
+ * bracketed by {@link #beginUpdate} and {@link #endUpdate}, which set and
+ * clear a dirty flag in the header. Writes to the mapping outlive a killed
+ * process, so an index left dirty may hold runs past its recorded log
+ * length and comes back empty on open, to be rebuilt from the log. If the
+ * index is missing, damaged or ahead of the log, it is rebuilt the same way.
+ *
+ * Layout: a 64 byte header (magic, version, capacity, entry count, log
+ * length covered, run count, total score, total duration, dirty flag) followed by
+ * {@code capacity} entries of score, duration, timestamp and log offset,
+ * best first. Ties go to the earlier run.
+ */
+public class ScoreIndex implements Closeable {
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final int MAGIC = 0x53485249; // "SHRI"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int ENTRY_SIZE = 24;
+
+    // Header fields
+    private static final int CAPACITY = 8;
+    private static final int COUNT = 12;
+    private static final int LOG_LENGTH = 16;
+    private static final int RUN_COUNT = 24;
+    private static final int TOTAL_SCORE = 32;
+    private static final int TOTAL_DURATION = 40;
+    private static final int DIRTY = 48;
+
+    // Entry fields
+    private static final int SCORE = 0;
+    private static final int DURATION = 4;
+    private static final int TIMESTAMP = 8;
+    private static final int OFFSET = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private ScoreIndex(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Open or create an index holding up to {@code capacity} top runs. An
+     * index that is unreadable, was created with another capacity or was
+     * left mid-update comes back empty, covering none of the log.
+     */
+    public static ScoreIndex open(Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            long fileSize = HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+            boolean valid = channel.size() == fileSize;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            ScoreIndex index = new ScoreIndex(channel, buffer, capacity);
+            if (!valid || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION ||
+                buffer.getInt(CAPACITY) != capacity || buffer.getInt(COUNT) < 0 || buffer.getInt(COUNT) > capacity ||
+                buffer.getInt(DIRTY) != 0) {
+                index.clear(0);
+            }
+            return index;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Forget every run; the index then covers the log up to {@code logLength}
+     */
+    public synchronized void clear(long logLength) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(CAPACITY, capacity);
+        buffer.putInt(COUNT, 0);
+        buffer.putLong(LOG_LENGTH, logLength);
+        buffer.putLong(RUN_COUNT, 0);
+        buffer.putLong(TOTAL_SCORE, 0);
+        buffer.putLong(TOTAL_DURATION, 0);
+        buffer.putInt(DIRTY, 0);
+    }
+
+    /**
+     * Mark the index as being updated, before the first {@link #add}
+     */
+    public synchronized void beginUpdate() {
+        buffer.putInt(DIRTY, 1);
+    }
+
+    /**
+     * Record that the index now covers the log up to {@code logLength} and
+     * clear the dirty flag
+     */
+    public synchronized void endUpdate(long logLength) {
+        buffer.putLong(LOG_LENGTH, logLength);
+        buffer.putInt(DIRTY, 0);
+    }
+
+    /**
+     * Add a run stored at {@code offset} in the log, between
+     * {@link #beginUpdate} and {@link #endUpdate}
+     */
+    public synchronized void add(RunRecord record, long offset) {
+        buffer.putLong(RUN_COUNT, buffer.getLong(RUN_COUNT) + 1);
+        buffer.putLong(TOTAL_SCORE, buffer.getLong(TOTAL_SCORE) + record.getScore());
+        buffer.putLong(TOTAL_DURATION, buffer.getLong(TOTAL_DURATION) + record.getDurationMillis());
+
+        // Binary search for the first entry this run beats
+        int count = buffer.getInt(COUNT);
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (record.getScore() > scoreAt(mid)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        if (low >= capacity) return;
+
+        // Shift lower entries down one place, dropping the last one when full
+        int last = Math.min(count, capacity - 1);
+        for (int i = last; i > low; i--) {
+            int to = entryPosition(i);
+            int from = entryPosition(i - 1);
+            buffer.putLong(to, buffer.getLong(from));
+            buffer.putLong(to + 8, buffer.getLong(from + 8));
+            buffer.putLong(to + 16, buffer.getLong(from + 16));
+        }
+
+        int position = entryPosition(low);
+        buffer.putInt(position + SCORE, record.getScore());
+        buffer.putInt(position + DURATION, record.getDurationMillis());
+        buffer.putLong(position + TIMESTAMP, record.getTimestamp());
+        buffer.putLong(position + OFFSET, offset);
+        buffer.putInt(COUNT, Math.min(count + 1, capacity));
+    }
+
+    private int entryPosition(int i) {
+        return HEADER_SIZE + i * ENTRY_SIZE;
+    }
+
+    private int scoreAt(int i) {
+        return buffer.getInt(entryPosition(i) + SCORE);
+    }
+
+    private ScoreEntry entryAt(int i) {
+        int position = entryPosition(i);
+        return new ScoreEntry(buffer.getInt(position + SCORE), buffer.getInt(position + DURATION),
+                              buffer.getLong(position + TIMESTAMP), buffer.getLong(position + OFFSET));
+    }
+
+    /**
+     * Get the best {@code k} runs, best first (at most the index capacity)
+     */
+    public synchronized List<ScoreEntry> top(int k) {
+        int n = Math.min(k, buffer.getInt(COUNT));
+        List<ScoreEntry> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            entries.add(entryAt(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Get the best run, or null if there are no runs yet
+     */
+    public synchronized ScoreEntry best() {
+        return buffer.getInt(COUNT) > 0 ? entryAt(0) : null;
+    }
+
+    public synchronized long getLogLength() { return buffer.getLong(LOG_LENGTH); }
+    public synchronized long getRunCount() { return buffer.getLong(RUN_COUNT); }
+    public synchronized long getTotalScore() { return buffer.getLong(TOTAL_SCORE); }
+    public synchronized long getTotalDurationMillis() { return buffer.getLong(TOTAL_DURATION); }
+    public synchronized boolean isDirty() { return buffer.getInt(DIRTY) != 0; }
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Write the mapped pages back to disk
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,215 @@
+package com.stickhero.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * High scores and run statistics, kept in a {@link RunLog} with a
+ * {@link ScoreIndex} over it.
+ *
+ * {@link #submit} only queues the run, so it is safe to call from the FX
+ * thread. A single writer thread drains the queue in batches: it appends the
+ * whole batch, syncs the log once, then updates and syncs the index. An
+ * index update that is cut short leaves the index marked dirty, and the
+ * next open rebuilds it from the log rather than counting runs twice. Queries
+ * read the mapped index and don't touch the disk.
+ *
+ * Files live in {@code ~/.stickhero} unless -Dstickhero.dataDir is set.
+ */
+public class ScoreStore implements Closeable {
+
+    public static final String DATA_DIR_PROPERTY = "stickhero.dataDir";
+    public static final String LOG_FILE = "runs.log";
+    public static final String INDEX_FILE = "runs.idx";
+
+    private static final int MAX_PENDING = 1024;
+    private static final int MAX_BATCH = 64;
+    private static final long POLL_MILLIS = 200;
+
+    private final RunLog log;
+    private final ScoreIndex index;
+    private final BlockingQueue<RunRecord> pending;
+    private final Thread writer;
+    private final Object progress = new Object();
+    private volatile boolean running;
+    private long submittedCount;
+    private long writtenCount;
+    private long droppedCount;
+
+    private ScoreStore(RunLog log, ScoreIndex index) {
+        this.log = log;
+        this.index = index;
+        this.pending = new LinkedBlockingQueue<>(MAX_PENDING);
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "score-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Get the directory scores are stored in
+     */
+    public static Path defaultDirectory() {
+        String dir = System.getProperty(DATA_DIR_PROPERTY);
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".stickhero");
+    }
+
+    /**
+     * Open the store in a directory, recovering from a crash if needed.
+     * Blocks on file I/O, so call it off the FX thread.
+     */
+    public static ScoreStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        RunLog log = RunLog.open(directory.resolve(LOG_FILE));
+        ScoreIndex index;
+        try {
+            index = ScoreIndex.open(directory.resolve(INDEX_FILE), ScoreIndex.DEFAULT_CAPACITY);
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+
+        try {
+            // Catch the index up with runs it missed, or rebuild it if it can't be trusted
+            long from = index.getLogLength();
+            if (from < RunLog.HEADER_SIZE || from > log.size()) {
+                index.clear(RunLog.HEADER_SIZE);
+                from = RunLog.HEADER_SIZE;
+            }
+            index.beginUpdate();
+            long end = log.recover(from, (offset, record, endOffset) -> index.add(record, offset));
+            index.endUpdate(end);
+            index.force();
+        } catch (IOException e) {
+            log.close();
+            index.close();
+            throw e;
+        }
+        return new ScoreStore(log, index);
+    }
+
+    /**
+     * Queue a finished run to be written. Never blocks; returns false if the
+     * store is closed or too far behind.
+     */
+    public boolean submit(RunRecord record) {
+        synchronized (progress) {
+            if (!running || !pending.offer(record)) {
+                droppedCount++;
+                return false;
+            }
+            submittedCount++;
+            return true;
+        }
+    }
+
+    private void writeLoop() {
+        List<RunRecord> batch = new ArrayList<>(MAX_BATCH);
+        long[] offsets = new long[MAX_BATCH];
+        while (running || !pending.isEmpty()) {
+            try {
+                RunRecord first = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch, MAX_BATCH - 1);
+
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    offsets[i] = log.append(batch.get(i));
+                }
+                log.force();
+                index.beginUpdate();
+                for (int i = 0; i < batch.size(); i++) {
+                    index.add(batch.get(i), offsets[i]);
+                }
+                index.endUpdate(log.size());
+                index.force();
+            } catch (IOException e) {
+                System.err.println("Failed to save " + batch.size() + " runs: " + e.getMessage());
+            }
+
+            synchronized (progress) {
+                writtenCount += batch.size();
+                progress.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Wait until every run submitted so far has been written and synced
+     */
+    public void flush() throws InterruptedException {
+        synchronized (progress) {
+            long target = submittedCount;
+            while (writtenCount < target && writer.isAlive()) {
+                progress.wait(POLL_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Get the best run, or null if there are no runs yet
+     */
+    public ScoreEntry getPersonalBest() {
+        return index.best();
+    }
+
+    /**
+     * Get the best {@code k} runs, best first
+     */
+    public List<ScoreEntry> getTopRuns(int k) {
+        return index.top(k);
+    }
+
+    /**
+     * Read a run's full record from the log
+     */
+    public RunRecord readRun(ScoreEntry entry) throws IOException {
+        return log.read(entry.getLogOffset());
+    }
+
+    public long getRunCount() { return index.getRunCount(); }
+    public long getTotalScore() { return index.getTotalScore(); }
+    public long getTotalDurationMillis() { return index.getTotalDurationMillis(); }
+
+    public double getAverageScore() {
+        long runs = index.getRunCount();
+        return runs > 0 ? (double) index.getTotalScore() / runs : 0;
+    }
+
+    public long getDroppedCount() {
+        synchronized (progress) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * Write any queued runs, then close the files
+     */
+    @Override
+    public void close() throws IOException {
+        // Not interrupted: an interrupt during I/O would close the file channels
+        synchronized (progress) {
+            running = false;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        index.close();
+        log.close();
+    }
+}
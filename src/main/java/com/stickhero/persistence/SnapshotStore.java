@@ -0,0 +1,225 @@
+package com.stickhero.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the latest game snapshot in a file, for resuming after the window
+ * is closed or the process is recycled.
+ *
+ * {@link #save} copies the snapshot and hands it to a writer thread, so the
+ * caller only pays for the copy. If snapshots come in faster than they can
+ * be written, only the newest is written. Each write goes to a temporary
+ * file that is synced and then renamed over the old one, so a crash leaves
+ * either the old snapshot or the new one.
+ *
+ * File layout: magic, format version, payload length, CRC32C of the payload, payload.
+ */
+public class SnapshotStore {
+
+    public static final String RESUME_PROPERTY = "stickhero.resume";
+    public static final String FILE_NAME = "snapshot.bin";
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x5348534E; // "SHSN"
+    private static final int HEADER_SIZE = 16;
+    private static final int MAX_PAYLOAD_SIZE = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final Path tempFile;
+    private final Object lock = new Object();
+    private final Thread writer;
+    private final CRC32C crc = new CRC32C();
+
+    // Guarded by lock
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private boolean running;
+    private boolean writing;
+    private long writtenCount;
+
+    /**
+     * Whether the game should checkpoint and resume; -Dstickhero.resume=false disables both
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(RESUME_PROPERTY, "true"));
+    }
+
+    public SnapshotStore(Path file) {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "snapshot-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a snapshot (the buffer's remaining bytes) to be written,
+     * replacing any queued snapshot that hasn't been written yet
+     */
+    public void save(ByteBuffer payload) {
+        synchronized (lock) {
+            if (!running) return;
+            ByteBuffer copy = spare != null && spare.capacity() >= HEADER_SIZE + payload.remaining()
+                ? spare : ByteBuffer.allocate(HEADER_SIZE + payload.remaining() * 2);
+            spare = pending;
+            copy.clear().position(HEADER_SIZE);
+            copy.put(payload.duplicate()).flip();
+            pending = copy;
+            lock.notifyAll();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer snapshot;
+            synchronized (lock) {
+                while (pending == null && running) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending == null) return;
+                snapshot = pending;
+                pending = null;
+                writing = true;
+            }
+
+            try {
+                write(snapshot);
+            } catch (IOException e) {
+                System.err.println("Failed to write snapshot: " + e.getMessage());
+            }
+
+            synchronized (lock) {
+                writing = false;
+                writtenCount++;
+                if (spare == null) {
+                    spare = snapshot;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void write(ByteBuffer snapshot) throws IOException {
+        int length = snapshot.limit() - HEADER_SIZE;
+        crc.reset();
+        crc.update(snapshot.duplicate().position(HEADER_SIZE));
+        snapshot.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, length).putInt(12, (int) crc.getValue());
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = snapshot.duplicate().position(0);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Read the saved snapshot's payload, or return null if there is none or
+     * it is damaged or from another format version
+     */
+    public ByteBuffer load() {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to read snapshot: " + e.getMessage());
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            System.err.println("Ignoring snapshot: not a snapshot file");
+            return null;
+        }
+        if (buffer.getInt(4) != VERSION) {
+            System.err.println("Ignoring snapshot: format version " + buffer.getInt(4) + ", expected " + VERSION);
+            return null;
+        }
+        int length = buffer.getInt(8);
+        if (length < 0 || length > MAX_PAYLOAD_SIZE || HEADER_SIZE + length != bytes.length) {
+            System.err.println("Ignoring snapshot: truncated");
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(HEADER_SIZE, length);
+        CRC32C check = new CRC32C();
+        check.update(payload.duplicate());
+        if ((int) check.getValue() != buffer.getInt(12)) {
+            System.err.println("Ignoring snapshot: checksum mismatch");
+            return null;
+        }
+        return payload;
+    }
+
+    /**
+     * Delete the saved snapshot, waiting for any write in progress
+     */
+    public void delete() throws IOException {
+        synchronized (lock) {
+            pending = null;
+            while (writing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Wait until the latest queued snapshot has been written
+     */
+    public void flush() throws InterruptedException {
+        synchronized (lock) {
+            while ((pending != null || writing) && writer.isAlive()) {
+                lock.wait(100);
+            }
+        }
+    }
+
+    public long getWrittenCount() {
+        synchronized (lock) {
+            return writtenCount;
+        }
+    }
+
+    /**
+     * Write the queued snapshot, if any, and stop the writer thread
+     */
+    public void close() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
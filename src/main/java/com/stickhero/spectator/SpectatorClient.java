@@ -0,0 +1,186 @@
+package com.stickhero.spectator;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Receives a game streamed by a {@link SpectatorServer}.
+ *
+ * After connecting, the socket is non-blocking and {@link #poll} is called
+ * from the render loop: it decodes whatever frames have arrived, keeps the
+ * newest and acknowledges it so the server can encode the next one against
+ * it. Recent frames are kept, as many as the server keeps, since the server
+ * may still use any of them as a base.
+ */
+public class SpectatorClient implements Closeable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer in;
+    private final ByteBuffer ack;
+    private final int[][] history;
+    private final int[] historyFrame;
+    private final int[] decoded;
+    private final SpectatorFrame latest;
+    private int lastAcked;
+    private boolean hasFrame;
+
+    private long framesReceived;
+    private long wholeFramesReceived;
+    private long framesDropped;
+    private long bytesReceived;
+
+    private SpectatorClient(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        this.in = ByteBuffer.allocate(64 * 1024);
+        this.ack = ByteBuffer.allocate(4);
+        this.history = new int[SpectatorServer.HISTORY][SpectatorFrame.FIELD_COUNT];
+        this.historyFrame = new int[SpectatorServer.HISTORY];
+        this.decoded = new int[SpectatorFrame.FIELD_COUNT];
+        this.latest = new SpectatorFrame();
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Connect to a spectator server, waiting for its greeting
+     */
+    public static SpectatorClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        try {
+            ByteBuffer hello = ByteBuffer.allocate(SpectatorServer.HELLO_SIZE);
+            while (hello.hasRemaining()) {
+                if (channel.read(hello) < 0) {
+                    throw new EOFException("Connection closed during handshake");
+                }
+            }
+            hello.flip();
+            if (hello.getInt() != SpectatorServer.MAGIC) {
+                throw new IOException("Not a Stick Hero spectator server");
+            }
+            byte version = hello.get();
+            int fieldCount = hello.get();
+            if (version != SpectatorServer.VERSION || fieldCount != SpectatorFrame.FIELD_COUNT) {
+                throw new IOException("Unsupported spectator protocol version " + version);
+            }
+            return new SpectatorClient(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Decode the frames that have arrived and acknowledge the newest.
+     * Returns true if there is a new frame. Throws EOFException once the
+     * server has closed the connection.
+     */
+    public boolean poll() throws IOException {
+        int read;
+        boolean updated = false;
+        while ((read = channel.read(in)) > 0) {
+            bytesReceived += read;
+            in.flip();
+            updated |= decodeFrames();
+            in.compact();
+        }
+        if (read < 0) {
+            throw new EOFException("Spectator server closed the connection");
+        }
+
+        if (hasFrame && latest.getFrameNumber() != lastAcked) {
+            // If the socket is full the next poll acknowledges a newer frame instead
+            ack.clear();
+            ack.putInt(latest.getFrameNumber()).flip();
+            if (channel.write(ack) == 4) {
+                lastAcked = latest.getFrameNumber();
+            } else if (ack.position() > 0) {
+                throw new IOException("Partial acknowledgement");
+            }
+        }
+        return updated;
+    }
+
+    private boolean decodeFrames() throws IOException {
+        boolean updated = false;
+        while (in.remaining() >= 2) {
+            int length = Short.toUnsignedInt(in.getShort(in.position()));
+            if (length > SpectatorServer.MAX_MESSAGE_SIZE) {
+                throw new IOException("Spectator frame too long: " + length);
+            }
+            if (in.remaining() < 2 + length) break;
+
+            in.position(in.position() + 2);
+            int end = in.position() + length;
+            ByteBuffer message = in.slice(in.position(), length);
+            in.position(end);
+
+            if (length < 5) {
+                throw new IOException("Spectator frame too short: " + length);
+            }
+            int frame = message.getInt();
+            int baseDelta = readVarInt(message);
+            int[] base = null;
+            if (baseDelta != 0) {
+                int slot = (frame - baseDelta) & (SpectatorServer.HISTORY - 1);
+                if (historyFrame[slot] != frame - baseDelta) {
+                    framesDropped++; // Base no longer kept; the server will send a whole frame
+                    continue;
+                }
+                base = history[slot];
+            }
+            try {
+                SpectatorFrame.decode(message, base, decoded);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Bad spectator frame " + frame, e);
+            }
+
+            int slot = frame & (SpectatorServer.HISTORY - 1);
+            System.arraycopy(decoded, 0, history[slot], 0, decoded.length);
+            historyFrame[slot] = frame;
+            framesReceived++;
+            if (base == null) wholeFramesReceived++;
+            if (!hasFrame || frame > latest.getFrameNumber()) {
+                latest.set(frame, decoded);
+                hasFrame = true;
+                updated = true;
+            }
+        }
+        return updated;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!buffer.hasRemaining()) break;
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Bad varint in spectator frame");
+    }
+
+    /**
+     * Get the newest frame, or null before the first one arrives. The frame
+     * is updated in place by {@link #poll}.
+     */
+    public SpectatorFrame getFrame() {
+        return hasFrame ? latest : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public long getFramesReceived() { return framesReceived; }
+    public long getWholeFramesReceived() { return wholeFramesReceived; }
+    public long getFramesDropped() { return framesDropped; }
+    public long getBytesReceived() { return bytesReceived; }
+}
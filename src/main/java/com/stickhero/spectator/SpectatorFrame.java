@@ -0,0 +1,208 @@
+package com.stickhero.spectator;
+
+import com.stickhero.entities.Hero;
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameEngine;
+import com.stickhero.game.GameWorld;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What a spectator sees of one frame, as a fixed array of integer fields,
+ * and the delta encoding used to send it.
+ *
+ * Positions are stored in 1/16 pixel, the stick's rotation in 1/100 degree
+ * and the walk animation in milliseconds. Only the newest
+ * {@link #MAX_PLATFORMS} platforms are included, which covers everything
+ * on screen. A frame is encoded against a base frame the receiver already
+ * has: a varint bitmask of the fields that differ, then the zigzag varint
+ * difference of each. Between two consecutive frames usually only the hero
+ * or the stick moves, so a frame takes a few bytes.
+ */
+public final class SpectatorFrame {
+
+    public static final int MAX_PLATFORMS = 8;
+
+    static final int STATE = 0;
+    static final int SCORE = 1;
+    static final int HERO_X = 2;
+    static final int HERO_Y = 3;
+    static final int HERO_WALKING = 4;
+    static final int HERO_ANIMATION = 5;
+    static final int STICK = 6;
+    static final int STICK_X = 7;
+    static final int STICK_Y = 8;
+    static final int STICK_LENGTH = 9;
+    static final int STICK_ROTATION = 10;
+    static final int PLATFORM_COUNT = 11;
+    static final int PLATFORMS = 12; // x, y, width, height for each
+    static final int FIELD_COUNT = PLATFORMS + 4 * MAX_PLATFORMS;
+
+    /**
+     * Largest encoded frame: a 10 byte mask and 5 bytes per field
+     */
+    static final int MAX_ENCODED_SIZE = 10 + 5 * FIELD_COUNT;
+
+    private static final double POSITION_SCALE = 16;
+    private static final double ROTATION_SCALE = 100;
+    private static final double ANIMATION_SCALE = 1000;
+    private static final GameEngine.GameState[] STATES = GameEngine.GameState.values();
+
+    private final int[] fields;
+    private int frameNumber;
+
+    SpectatorFrame() {
+        fields = new int[FIELD_COUNT];
+    }
+
+    /**
+     * Capture what a spectator would see of a world now
+     */
+    public static SpectatorFrame capture(GameWorld world) {
+        SpectatorFrame frame = new SpectatorFrame();
+        capture(world, frame.fields);
+        return frame;
+    }
+
+    /**
+     * Capture a world into an array of {@link #FIELD_COUNT} fields
+     */
+    static void capture(GameWorld world, int[] fields) {
+        fields[STATE] = world.getCurrentState().ordinal();
+        fields[SCORE] = world.getScore();
+
+        Hero hero = world.getHero();
+        fields[HERO_X] = position(hero.getX());
+        fields[HERO_Y] = position(hero.getY());
+        fields[HERO_WALKING] = hero.isWalking() ? 1 : 0;
+        fields[HERO_ANIMATION] = (int) Math.round(hero.getAnimationTime() * ANIMATION_SCALE);
+
+        Stick stick = world.getCurrentStick();
+        fields[STICK] = stick != null ? 1 : 0;
+        fields[STICK_X] = stick != null ? position(stick.getBaseX()) : 0;
+        fields[STICK_Y] = stick != null ? position(stick.getBaseY()) : 0;
+        fields[STICK_LENGTH] = stick != null ? position(stick.getLength()) : 0;
+        fields[STICK_ROTATION] = stick != null ? (int) Math.round(stick.getRotation() * ROTATION_SCALE) : 0;
+
+        List<Platform> platforms = world.getPlatforms();
+        int count = Math.min(MAX_PLATFORMS, platforms.size());
+        int first = platforms.size() - count;
+        fields[PLATFORM_COUNT] = count;
+        for (int i = 0; i < MAX_PLATFORMS; i++) {
+            int field = PLATFORMS + 4 * i;
+            if (i < count) {
+                Platform platform = platforms.get(first + i);
+                fields[field] = position(platform.getX());
+                fields[field + 1] = position(platform.getY());
+                fields[field + 2] = position(platform.getWidth());
+                fields[field + 3] = position(platform.getHeight());
+            } else {
+                fields[field] = fields[field + 1] = fields[field + 2] = fields[field + 3] = 0;
+            }
+        }
+    }
+
+    private static int position(double value) {
+        return (int) Math.round(value * POSITION_SCALE);
+    }
+
+    /**
+     * Encode fields against a base, or against all zeros if the base is null
+     */
+    static void encode(int[] fields, int[] base, ByteBuffer out) {
+        long mask = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (fields[i] != (base != null ? base[i] : 0)) {
+                mask |= 1L << i;
+            }
+        }
+        putVarLong(out, mask);
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if ((mask & (1L << i)) != 0) {
+                int delta = fields[i] - (base != null ? base[i] : 0);
+                putVarLong(out, ((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL);
+            }
+        }
+    }
+
+    /**
+     * Decode fields encoded against a base (null for all zeros). Throws
+     * IllegalArgumentException if the data is malformed.
+     */
+    static void decode(ByteBuffer in, int[] base, int[] fields) {
+        try {
+            long mask = getVarLong(in);
+            if (mask >>> FIELD_COUNT != 0) {
+                throw new IllegalArgumentException("Bad spectator field mask");
+            }
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                int value = base != null ? base[i] : 0;
+                if ((mask & (1L << i)) != 0) {
+                    int zigzag = (int) getVarLong(in);
+                    value += (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+                fields[i] = value;
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated spectator frame", e);
+        }
+        if (fields[STATE] < 0 || fields[STATE] >= STATES.length ||
+            fields[PLATFORM_COUNT] < 0 || fields[PLATFORM_COUNT] > MAX_PLATFORMS) {
+            throw new IllegalArgumentException("Bad spectator frame");
+        }
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    void set(int frameNumber, int[] source) {
+        this.frameNumber = frameNumber;
+        System.arraycopy(source, 0, fields, 0, FIELD_COUNT);
+    }
+
+    public int getFrameNumber() { return frameNumber; }
+    public GameEngine.GameState getState() { return STATES[fields[STATE]]; }
+    public int getScore() { return fields[SCORE]; }
+    public double getHeroX() { return fields[HERO_X] / POSITION_SCALE; }
+    public double getHeroY() { return fields[HERO_Y] / POSITION_SCALE; }
+    public boolean isHeroWalking() { return fields[HERO_WALKING] != 0; }
+    public double getHeroAnimationTime() { return fields[HERO_ANIMATION] / ANIMATION_SCALE; }
+    public boolean hasStick() { return fields[STICK] != 0; }
+    public double getStickX() { return fields[STICK_X] / POSITION_SCALE; }
+    public double getStickY() { return fields[STICK_Y] / POSITION_SCALE; }
+    public double getStickLength() { return fields[STICK_LENGTH] / POSITION_SCALE; }
+    public double getStickRotation() { return fields[STICK_ROTATION] / ROTATION_SCALE; }
+    public int getPlatformCount() { return fields[PLATFORM_COUNT]; }
+    public double getPlatformX(int i) { return fields[PLATFORMS + 4 * i] / POSITION_SCALE; }
+    public double getPlatformY(int i) { return fields[PLATFORMS + 4 * i + 1] / POSITION_SCALE; }
+    public double getPlatformWidth(int i) { return fields[PLATFORMS + 4 * i + 2] / POSITION_SCALE; }
+    public double getPlatformHeight(int i) { return fields[PLATFORMS + 4 * i + 3] / POSITION_SCALE; }
+
+    /**
+     * Check whether two frames show the same thing, whatever their frame numbers
+     */
+    public boolean showsSameAs(SpectatorFrame other) {
+        return Arrays.equals(fields, other.fields);
+    }
+}
@@ -0,0 +1,228 @@
+package com.stickhero.spectator;
+
+import com.stickhero.entities.Hero;
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameWorld;
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Mirrors a streamed game, drawn with the same entity renderers as the game.
+ *
+ * Started with -Dstickhero.spectate=host[:port]. Connecting happens on a
+ * background thread and reconnects after a second if the game goes away;
+ * frames are polled and drawn on the FX thread.
+ */
+public class SpectatorScreen {
+
+    public static final String PROPERTY = "stickhero.spectate";
+
+    private static final long RECONNECT_MILLIS = 1000;
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final LinearGradient skyGradient;
+    private final Font scoreFont;
+    private final Font statusFont;
+    private final Hero hero;
+    private final Platform[] platforms;
+    private final InetSocketAddress address;
+
+    private volatile SpectatorClient client;
+    private volatile boolean running;
+    private Thread connector;
+    private AnimationTimer loop;
+    private Stick stick;
+    private int platformCount;
+    private double cameraX;
+    private String status;
+
+    public SpectatorScreen(double width, double height) {
+        canvas = new Canvas(width, height);
+        gc = canvas.getGraphicsContext2D();
+        skyGradient = new LinearGradient(0, 0, 0, height * 0.7, false, CycleMethod.NO_CYCLE,
+                                         new Stop(0, Color.LIGHTBLUE), new Stop(1, Color.LIGHTYELLOW));
+        scoreFont = Font.font("Arial", FontWeight.BOLD, 24);
+        statusFont = Font.font("Arial", FontWeight.NORMAL, 16);
+        hero = new Hero(0, 0);
+        platforms = new Platform[SpectatorFrame.MAX_PLATFORMS];
+        for (int i = 0; i < platforms.length; i++) {
+            platforms[i] = new Platform(0, 0, 0, 0);
+        }
+        address = parseAddress(System.getProperty(PROPERTY, "localhost"));
+        status = "Connecting to " + address.getHostString() + ":" + address.getPort() + "...";
+    }
+
+    /**
+     * Check whether the game was started as a spectator
+     */
+    public static boolean isEnabled() {
+        return System.getProperty(PROPERTY) != null;
+    }
+
+    private static InetSocketAddress parseAddress(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            return new InetSocketAddress(address, SpectatorServer.DEFAULT_PORT);
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * Start connecting and drawing
+     */
+    public void start() {
+        running = true;
+        connector = new Thread(this::connectLoop, "spectator-connect");
+        connector.setDaemon(true);
+        connector.start();
+
+        loop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                update();
+                render();
+            }
+        };
+        loop.start();
+    }
+
+    private void connectLoop() {
+        try {
+            while (running) {
+                if (client == null) {
+                    try {
+                        client = SpectatorClient.connect(address);
+                    } catch (IOException e) {
+                        // The game may not be up yet
+                    }
+                }
+                Thread.sleep(RECONNECT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void update() {
+        SpectatorClient current = client;
+        if (current == null) return;
+        try {
+            if (current.poll()) {
+                apply(current.getFrame());
+                status = null;
+            }
+        } catch (IOException e) {
+            status = "Game disconnected, waiting for it to come back...";
+            client = null;
+            try {
+                current.close();
+            } catch (IOException closeError) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Update the entities from a frame
+     */
+    private void apply(SpectatorFrame frame) {
+        hero.setPosition(frame.getHeroX(), frame.getHeroY());
+        hero.setAnimation(frame.isHeroWalking(), frame.getHeroAnimationTime());
+
+        if (frame.hasStick()) {
+            if (stick == null || stick.getBaseX() != frame.getStickX() || stick.getBaseY() != frame.getStickY()) {
+                stick = new Stick(frame.getStickX(), frame.getStickY());
+            }
+            stick.setLength(frame.getStickLength());
+            stick.setRotation(frame.getStickRotation());
+        } else {
+            stick = null;
+        }
+
+        platformCount = frame.getPlatformCount();
+        for (int i = 0; i < platformCount; i++) {
+            Platform platform = platforms[i];
+            platform.setX(frame.getPlatformX(i));
+            platform.setY(frame.getPlatformY(i));
+            platform.setWidth(frame.getPlatformWidth(i));
+            platform.setHeight(frame.getPlatformHeight(i));
+        }
+    }
+
+    private void render() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        SpectatorClient current = client;
+        SpectatorFrame frame = current != null ? current.getFrame() : null;
+
+        cameraX += (hero.getX() - width / 3 - cameraX) * 0.05;
+
+        gc.save();
+        gc.translate(-cameraX, 0);
+        gc.setFill(skyGradient);
+        gc.fillRect(cameraX, 0, width, height * 0.7);
+        gc.setFill(Color.DARKGREEN);
+        gc.fillRect(cameraX, height - GameWorld.GROUND_HEIGHT, width, GameWorld.GROUND_HEIGHT);
+        if (frame != null) {
+            for (int i = 0; i < platformCount; i++) {
+                platforms[i].render(gc);
+            }
+            if (stick != null) {
+                stick.render(gc);
+            }
+            hero.render(gc);
+        }
+        gc.restore();
+
+        gc.setFill(Color.WHITE);
+        if (frame != null) {
+            gc.setFont(scoreFont);
+            gc.fillText("Score: " + frame.getScore(), 20, 40);
+            gc.setFont(statusFont);
+            gc.setFill(Color.RED);
+            gc.fillText("LIVE", width - 60, 36);
+        }
+        if (status != null) {
+            gc.setFont(statusFont);
+            gc.setFill(Color.WHITE);
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.fillText(status, width / 2, height / 2);
+            gc.setTextAlign(TextAlignment.LEFT);
+        }
+    }
+
+    public void stop() {
+        running = false;
+        if (loop != null) {
+            loop.stop();
+        }
+        if (connector != null) {
+            connector.interrupt();
+        }
+        SpectatorClient current = client;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close spectator connection: " + e.getMessage());
+            }
+        }
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+}
@@ -0,0 +1,338 @@
+package com.stickhero.spectator;
+
+import com.stickhero.game.GameWorld;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams the live game to spectators.
+ *
+ * The game thread hands each frame to {@link #publish}, which only copies a
+ * few dozen integers and wakes the server thread. That thread runs a
+ * single selector for every spectator. Each spectator acknowledges the
+ * frames it receives, and each frame is delta-encoded against the last one
+ * it acknowledged, or sent whole if that frame is more than
+ * {@link #HISTORY} frames old. Spectators that acknowledged the same frame
+ * share one encoding, so the work per frame grows with the number of
+ * sockets, not with encoding.
+ *
+ * Backpressure is per spectator. A spectator still receiving an earlier
+ * frame skips the new one and later gets a delta from what it has, so a
+ * slow spectator costs at most one pending frame of memory and never holds
+ * up the others. Frames are sent as [length u16][frame int][frame - base
+ * varint, 0 for a whole frame][encoded fields]; acknowledgements are a
+ * frame number int.
+ */
+public class SpectatorServer implements Closeable {
+
+    public static final String PORT_PROPERTY = "stickhero.spectatorPort";
+    public static final int DEFAULT_PORT = 7780;
+
+    static final int MAGIC = 0x53485350; // "SHSP"
+    static final byte VERSION = 1;
+    static final int HELLO_SIZE = 6;
+    static final int HISTORY = 64; // power of two
+    static final int MAX_MESSAGE_SIZE = 2 + 4 + 5 + SpectatorFrame.MAX_ENCODED_SIZE;
+
+    private static final int SUBSCRIBER_BUFFER_SIZE = 2 * MAX_MESSAGE_SIZE;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private volatile boolean running;
+
+    // Handoff from the game thread
+    private final int[] captured;
+    private final int[] staged;
+    private int stagedFrame;
+
+    // Server thread only
+    private final int[][] history;
+    private int latestFrame;
+    private final List<Subscriber> subscribers;
+    private final ByteBuffer[] encoded;   // by base frame slot, plus one for whole frames
+    private final int[] encodedFrame;
+    private final int[] encodedBase;
+
+    private volatile int subscriberCount;
+    private volatile long framesSent;
+    private volatile long framesSkipped;
+    private volatile long wholeFramesSent;
+    private volatile long bytesSent;
+
+    private SpectatorServer(ServerSocketChannel server) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.captured = new int[SpectatorFrame.FIELD_COUNT];
+        this.staged = new int[SpectatorFrame.FIELD_COUNT];
+        this.history = new int[HISTORY][SpectatorFrame.FIELD_COUNT];
+        this.subscribers = new ArrayList<>();
+        this.encoded = new ByteBuffer[HISTORY + 1];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = ByteBuffer.allocate(MAX_MESSAGE_SIZE);
+        }
+        this.encodedFrame = new int[HISTORY + 1];
+        this.encodedBase = new int[HISTORY + 1];
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.running = true;
+        this.thread = new Thread(this::run, "spectator-server");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Start serving spectators on a port (0 picks a free one)
+     */
+    public static SpectatorServer start(int port) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.bind(new InetSocketAddress(port));
+            SpectatorServer server = new SpectatorServer(channel);
+            server.thread.start();
+            return server;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Start serving on the port set by -Dstickhero.spectatorPort, or return
+     * null if it isn't set. An empty value uses {@link #DEFAULT_PORT}.
+     */
+    public static SpectatorServer fromSystemProperties() throws IOException {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null) return null;
+        return start(port.isEmpty() ? DEFAULT_PORT : Integer.parseInt(port));
+    }
+
+    /**
+     * Publish the world as it is now. Called from the game thread once per frame.
+     */
+    public void publish(GameWorld world) {
+        SpectatorFrame.capture(world, captured);
+        synchronized (staged) {
+            System.arraycopy(captured, 0, staged, 0, captured.length);
+            stagedFrame++;
+        }
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Subscriber subscriber = (Subscriber) key.attachment();
+                        try {
+                            if (key.isReadable()) subscriber.readAcks();
+                            if (key.isValid() && key.isWritable()) subscriber.flush();
+                        } catch (IOException e) {
+                            drop(subscriber);
+                        }
+                    }
+                }
+
+                boolean newFrame;
+                synchronized (staged) {
+                    newFrame = stagedFrame != latestFrame;
+                    if (newFrame) {
+                        latestFrame = stagedFrame;
+                        System.arraycopy(staged, 0, history[latestFrame & (HISTORY - 1)], 0, staged.length);
+                    }
+                }
+                if (newFrame) {
+                    fanOut();
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Spectator server stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Subscriber subscriber = new Subscriber(channel);
+            subscriber.key = channel.register(selector, SelectionKey.OP_READ, subscriber);
+            subscriber.out.putInt(MAGIC).put(VERSION).put((byte) SpectatorFrame.FIELD_COUNT);
+            subscribers.add(subscriber);
+            subscriberCount = subscribers.size();
+            try {
+                subscriber.flush();
+            } catch (IOException e) {
+                drop(subscriber);
+            }
+        }
+    }
+
+    private void fanOut() {
+        int frame = latestFrame;
+        long sent = 0;
+        long skipped = 0;
+        long whole = 0;
+        long bytes = 0;
+        // Iterate backwards so dropping a subscriber doesn't skip the next one
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            Subscriber subscriber = subscribers.get(i);
+            if (subscriber.out.position() > 0) {
+                skipped++; // Still sending an earlier frame
+                continue;
+            }
+            int acked = subscriber.acked;
+            int base = acked > 0 && acked < frame && frame - acked < HISTORY ? acked : 0;
+            ByteBuffer message = encodedFor(frame, base).duplicate();
+            bytes += message.remaining();
+            subscriber.out.put(message);
+            sent++;
+            if (base == 0) whole++;
+            try {
+                subscriber.flush();
+            } catch (IOException e) {
+                drop(subscriber);
+            }
+        }
+        framesSent += sent;
+        framesSkipped += skipped;
+        wholeFramesSent += whole;
+        bytesSent += bytes;
+    }
+
+    /**
+     * Get the message for a frame encoded against a base, encoding it on first use
+     */
+    private ByteBuffer encodedFor(int frame, int base) {
+        int slot = base == 0 ? HISTORY : base & (HISTORY - 1);
+        ByteBuffer message = encoded[slot];
+        if (encodedFrame[slot] != frame || encodedBase[slot] != base) {
+            message.clear();
+            message.position(2);
+            message.putInt(frame);
+            int delta = base == 0 ? 0 : frame - base;
+            while ((delta & ~0x7F) != 0) {
+                message.put((byte) ((delta & 0x7F) | 0x80));
+                delta >>>= 7;
+            }
+            message.put((byte) delta);
+            SpectatorFrame.encode(history[frame & (HISTORY - 1)],
+                                  base == 0 ? null : history[base & (HISTORY - 1)], message);
+            message.putShort(0, (short) (message.position() - 2));
+            message.flip();
+            encodedFrame[slot] = frame;
+            encodedBase[slot] = base;
+        }
+        return message;
+    }
+
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriberCount = subscribers.size();
+        subscriber.key.cancel();
+        try {
+            subscriber.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            subscriber.channel.close();
+        }
+        selector.close();
+        server.close();
+    }
+
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    public int getSubscriberCount() { return subscriberCount; }
+    public long getFramesSent() { return framesSent; }
+    public long getFramesSkipped() { return framesSkipped; }
+    public long getWholeFramesSent() { return wholeFramesSent; }
+    public long getBytesSent() { return bytesSent; }
+
+    /**
+     * Get the server thread, e.g. to measure its CPU time
+     */
+    public Thread getThread() { return thread; }
+
+    private final class Subscriber {
+        private final SocketChannel channel;
+        private final ByteBuffer out;
+        private final ByteBuffer in;
+        private SelectionKey key;
+        private int acked;
+
+        Subscriber(SocketChannel channel) {
+            this.channel = channel;
+            this.out = ByteBuffer.allocate(SUBSCRIBER_BUFFER_SIZE);
+            this.in = ByteBuffer.allocate(64);
+        }
+
+        void readAcks() throws IOException {
+            int read;
+            while ((read = channel.read(in)) > 0) {
+                in.flip();
+                while (in.remaining() >= 4) {
+                    int frame = in.getInt();
+                    if (frame > acked && frame <= latestFrame) {
+                        acked = frame;
+                    }
+                }
+                in.compact();
+            }
+            if (read < 0) {
+                throw new IOException("Spectator disconnected");
+            }
+        }
+
+        /**
+         * Write what the socket takes; wait for it to be writable if anything is left
+         */
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+    }
+}
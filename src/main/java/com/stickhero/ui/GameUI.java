@@ -1,6 +1,9 @@
 package com.stickhero.ui;
 
 import com.stickhero.game.GameEngine;
+import com.stickhero.utils.AllocationTracker;
+import com.stickhero.utils.AssetCache;
+import com.stickhero.utils.FrameProfiler;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
@@ -15,11 +18,56 @@ public class GameUI {
     private Font scoreFont;
     private Font titleFont;
     private Font instructionFont;
+    private Font debugFont;
+    private volatile boolean fontsLoaded;
+    private volatile int bestScore;
+    private final CacheLine imageCacheLine = new CacheLine("Images");
+    private final CacheLine audioCacheLine = new CacheLine("Audio");
+    private final PhaseLine[] phaseLines = PhaseLine.forPhases();
+    private int shownParticleCount = -1;
+    private String particlesText;
+    private long shownBudgetBytes = -1;
+    private long shownViolationCount = -1;
+    private String budgetText;
     
+    private static final String PROFILER_HEADER =
+        String.format("%-10s %7s %7s %7s", "phase", "p50 ms", "p99 ms", "max ms");
+    private static final String PROFILER_ALLOCATION_HEADER =
+        PROFILER_HEADER + String.format(" %8s %8s", "avg KB", "max KB");
+    
+    /**
+     * Fonts are not loaded here; call {@link #loadFonts} (from any thread)
+     * before rendering anything but the loading screen.
+     */
     public GameUI() {
+    }
+    
+    /**
+     * Look up the fonts and warm up text measurement
+     */
+    public void loadFonts() {
         scoreFont = Font.font("Arial", FontWeight.BOLD, 24);
         titleFont = Font.font("Arial", FontWeight.BOLD, 48);
         instructionFont = Font.font("Arial", FontWeight.NORMAL, 16);
+        debugFont = Font.font("Monospaced", FontWeight.NORMAL, 11);
+        getTextWidth("Hold mouse button, space or touch to grow stick, release to drop it", instructionFont);
+        getTextWidth("GAME OVER", titleFont);
+        fontsLoaded = true;
+    }
+    
+    public boolean isFontsLoaded() {
+        return fontsLoaded;
+    }
+    
+    /**
+     * Set the personal best shown on the game over screen. Safe to call from any thread.
+     */
+    public void setBestScore(int bestScore) {
+        this.bestScore = bestScore;
+    }
+    
+    public int getBestScore() {
+        return bestScore;
     }
     
     public void render(GraphicsContext gc, int score, GameEngine.GameState gameState) {
@@ -60,6 +108,10 @@ public class GameUI {
         double canvasHeight = gc.getCanvas().getHeight();
         
         switch (gameState) {
+            case LOADING:
+                // Loading screen is drawn by renderLoadingScreen
+                break;
+                
             case READY:
                 renderInstructions(gc, canvasWidth, canvasHeight);
                 break;
@@ -90,7 +142,7 @@ public class GameUI {
         gc.setStroke(Color.BLACK);
         gc.setLineWidth(1);
         
-        String instruction = "Hold mouse button to grow stick, release to drop it";
+        String instruction = "Hold mouse button, space or touch to grow stick, release to drop it";
         double textWidth = getTextWidth(instruction, instructionFont);
         double x = (canvasWidth - textWidth) / 2;
         double y = canvasHeight - 50;
@@ -175,6 +227,14 @@ public class GameUI {
         gc.setStroke(Color.BLACK);
         gc.setLineWidth(1);
         
+        // Personal best
+        if (bestScore > 0) {
+            String bestText = "Best: " + bestScore;
+            double bestX = (canvasWidth - getTextWidth(bestText, instructionFont)) / 2;
+            gc.strokeText(bestText, bestX, canvasHeight / 2 - 10);
+            gc.fillText(bestText, bestX, canvasHeight / 2 - 10);
+        }
+        
         String restartText = "Press R to restart or close window to quit";
         double restartWidth = getTextWidth(restartText, instructionFont);
         double restartX = (canvasWidth - restartWidth) / 2;
@@ -186,6 +246,38 @@ public class GameUI {
         gc.fillText(restartText, restartX, restartY);
     }
     
+    /**
+     * Render the loading screen shown while assets are preloaded
+     */
+    public void renderLoadingScreen(GraphicsContext gc, double progress) {
+        gc.save();
+        
+        // Reset any transforms to draw UI in screen space
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        
+        double canvasWidth = gc.getCanvas().getWidth();
+        double canvasHeight = gc.getCanvas().getHeight();
+        
+        gc.setFill(Color.rgb(30, 30, 40));
+        gc.fillRect(0, 0, canvasWidth, canvasHeight);
+        
+        // Fonts may still be loading, in which case only the bar is shown
+        if (fontsLoaded) {
+            gc.setFont(instructionFont);
+            gc.setFill(Color.WHITE);
+            
+            String loadingText = String.format("Loading... %d%%", (int) (progress * 100));
+            double textWidth = getTextWidth(loadingText, instructionFont);
+            gc.fillText(loadingText, (canvasWidth - textWidth) / 2, canvasHeight / 2 - 20);
+        }
+        
+        double barWidth = canvasWidth / 2;
+        renderProgressBar(gc, (canvasWidth - barWidth) / 2, canvasHeight / 2, barWidth, 16,
+                          progress, Color.LIGHTGREEN, Color.WHITE);
+        
+        gc.restore();
+    }
+    
     /**
      * Helper method to calculate text width (approximation)
      */
@@ -221,6 +313,64 @@ public class GameUI {
         gc.restore();
     }
     
+    /**
+     * Render the frame profiler overlay (toggled with F3)
+     */
+    public void renderProfiler(GraphicsContext gc, FrameProfiler profiler, int particleCount,
+                               AssetCache<?> imageCache, AssetCache<?> audioCache) {
+        renderFPS(gc, profiler.getFps());
+        
+        gc.save();
+        
+        // Reset any transforms to draw UI in screen space
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        
+        FrameProfiler.Phase[] phases = FrameProfiler.Phase.values();
+        AllocationTracker allocations = profiler.getAllocationTracker();
+        double lineHeight = 13;
+        double x = 10;
+        double y = 60;
+        double width = allocations != null ? 390 : 300;
+        double height = lineHeight * (phases.length + 5) + 8;
+        
+        gc.setFill(Color.rgb(0, 0, 0, 0.6));
+        gc.fillRect(x - 4, y - lineHeight, width, height);
+        
+        gc.setFont(debugFont);
+        gc.setFill(Color.WHITE);
+        gc.fillText(allocations != null ? PROFILER_ALLOCATION_HEADER : PROFILER_HEADER, x, y);
+        for (FrameProfiler.Phase phase : phases) {
+            y += lineHeight;
+            gc.setFill(phase == FrameProfiler.Phase.FRAME ? Color.YELLOW : Color.WHITE);
+            gc.fillText(phaseLines[phase.ordinal()].text(profiler, allocations), x, y);
+        }
+        
+        gc.setFill(Color.WHITE);
+        y += lineHeight * 1.5;
+        if (particlesText == null || particleCount != shownParticleCount) {
+            shownParticleCount = particleCount;
+            particlesText = "Particles: " + particleCount;
+        }
+        gc.fillText(particlesText, x, y);
+        if (allocations != null && allocations.getBudgetBytes() >= 0) {
+            y += lineHeight;
+            if (budgetText == null || allocations.getBudgetBytes() != shownBudgetBytes ||
+                allocations.getViolationCount() != shownViolationCount) {
+                shownBudgetBytes = allocations.getBudgetBytes();
+                shownViolationCount = allocations.getViolationCount();
+                budgetText = "Alloc budget: " + shownBudgetBytes + " B/frame, violations: " + shownViolationCount;
+            }
+            gc.fillText(budgetText, x, y);
+        }
+        
+        y += lineHeight;
+        gc.fillText(imageCacheLine.text(imageCache), x, y, width - 8);
+        y += lineHeight;
+        gc.fillText(audioCacheLine.text(audioCache), x, y, width - 8);
+        
+        gc.restore();
+    }
+    
     /**
      * Render a progress bar
      */
@@ -243,4 +393,90 @@ public class GameUI {
         
         gc.restore();
     }
+    
+    /**
+     * One cache's line in the profiler overlay, formatted again only when a
+     * number it shows has changed
+     */
+    private static final class CacheLine {
+        private final String label;
+        private int size = -1;
+        private long tenthsOfMegabytes = -1;
+        private long budgetTenthsOfMegabytes = -1;
+        private int hitRatePerMille = -1;
+        private String text;
+        
+        CacheLine(String label) {
+            this.label = label;
+        }
+        
+        String text(AssetCache<?> cache) {
+            int newSize = cache.size();
+            long newTenths = cache.getTotalBytes() * 10 / 1048576;
+            long newBudgetTenths = cache.getMaxBytes() * 10 / 1048576;
+            int newHitRate = (int) Math.round(cache.getHitRate() * 1000);
+            if (text == null || newSize != size || newTenths != tenthsOfMegabytes ||
+                newBudgetTenths != budgetTenthsOfMegabytes || newHitRate != hitRatePerMille) {
+                size = newSize;
+                tenthsOfMegabytes = newTenths;
+                budgetTenthsOfMegabytes = newBudgetTenths;
+                hitRatePerMille = newHitRate;
+                text = String.format("%s: %d cached, %.1f/%.1f MB, hit rate %.1f%%", label, size,
+                                     tenthsOfMegabytes / 10.0, budgetTenthsOfMegabytes / 10.0, hitRatePerMille / 10.0);
+            }
+            return text;
+        }
+    }
+    
+    /**
+     * One phase's line in the profiler overlay, formatted again only when a
+     * number it shows has changed
+     */
+    private static final class PhaseLine {
+        private final FrameProfiler.Phase phase;
+        private final String name;
+        private long p50Micros = -1;
+        private long p99Micros = -1;
+        private long maxMicros = -1;
+        private long averageTenthsOfKilobytes = -1;
+        private long maxTenthsOfKilobytes = -1;
+        private String text;
+        
+        private PhaseLine(FrameProfiler.Phase phase) {
+            this.phase = phase;
+            this.name = phase.name().toLowerCase();
+        }
+        
+        static PhaseLine[] forPhases() {
+            FrameProfiler.Phase[] phases = FrameProfiler.Phase.values();
+            PhaseLine[] lines = new PhaseLine[phases.length];
+            for (FrameProfiler.Phase phase : phases) {
+                lines[phase.ordinal()] = new PhaseLine(phase);
+            }
+            return lines;
+        }
+        
+        String text(FrameProfiler profiler, AllocationTracker allocations) {
+            long newP50 = Math.round(profiler.getP50Millis(phase) * 1000);
+            long newP99 = Math.round(profiler.getP99Millis(phase) * 1000);
+            long newMax = Math.round(profiler.getMaxMillis(phase) * 1000);
+            // -1 leaves the allocation columns off when allocations are not tracked
+            long newAverageTenths = allocations != null ? Math.round(allocations.getAverageBytes(phase) * 10 / 1024) : -1;
+            long newMaxTenths = allocations != null ? Math.round(allocations.getMaxBytes(phase) * 10 / 1024.0) : -1;
+            if (text == null || newP50 != p50Micros || newP99 != p99Micros || newMax != maxMicros ||
+                newAverageTenths != averageTenthsOfKilobytes || newMaxTenths != maxTenthsOfKilobytes) {
+                p50Micros = newP50;
+                p99Micros = newP99;
+                maxMicros = newMax;
+                averageTenthsOfKilobytes = newAverageTenths;
+                maxTenthsOfKilobytes = newMaxTenths;
+                text = String.format("%-10s %7.3f %7.3f %7.3f", name,
+                                     p50Micros / 1000.0, p99Micros / 1000.0, maxMicros / 1000.0);
+                if (allocations != null) {
+                    text += String.format(" %8.1f %8.1f", averageTenthsOfKilobytes / 10.0, maxTenthsOfKilobytes / 10.0);
+                }
+            }
+            return text;
+        }
+    }
 }
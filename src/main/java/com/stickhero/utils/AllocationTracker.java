@@ -0,0 +1,149 @@
+package com.stickhero.utils;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures how many bytes the game thread allocates in each phase of a frame.
+ *
+ * Uses the HotSpot per-thread allocation counter, which is cheap to read and
+ * does not allocate itself. Phases are the same as the FrameProfiler's and
+ * are driven by it. When a per-frame budget is set, frames that allocate
+ * more than the budget are counted and logged with a per-phase breakdown
+ * (at most once per second, since logging allocates too).
+ */
+public class AllocationTracker {
+
+    public static final String BUDGET_PROPERTY = "stickhero.allocBudget";
+
+    private static final FrameProfiler.Phase[] PHASES = FrameProfiler.Phase.values();
+    private static final long LOG_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final long[] lastBytes;
+    private final long[] windowBytes;
+    private final long[] windowMaxBytes;
+
+    // Snapshot of the last completed window
+    private final double[] averageBytes;
+    private final long[] maxBytes;
+
+    private long frameStartBytes;
+    private long lapStartBytes;
+    private int framesInWindow;
+    private long budgetBytes;
+    private long violations;
+    private long lastLogNanos;
+
+    private AllocationTracker(com.sun.management.ThreadMXBean threadBean) {
+        this.threadBean = threadBean;
+        this.lastBytes = new long[PHASES.length];
+        this.windowBytes = new long[PHASES.length];
+        this.windowMaxBytes = new long[PHASES.length];
+        this.averageBytes = new double[PHASES.length];
+        this.maxBytes = new long[PHASES.length];
+        this.budgetBytes = Long.getLong(BUDGET_PROPERTY, -1);
+    }
+
+    /**
+     * Create a tracker, or return null if the JVM can't measure thread allocations
+     */
+    public static AllocationTracker create() {
+        try {
+            if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (!threadBean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            if (!threadBean.isThreadAllocatedMemoryEnabled()) {
+                threadBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return new AllocationTracker(threadBean);
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+
+    void beginFrame() {
+        long now = threadBean.getCurrentThreadAllocatedBytes();
+        frameStartBytes = now;
+        lapStartBytes = now;
+        for (int i = 0; i < lastBytes.length; i++) {
+            lastBytes[i] = 0;
+        }
+    }
+
+    void lap(FrameProfiler.Phase phase) {
+        long now = threadBean.getCurrentThreadAllocatedBytes();
+        record(phase, now - lapStartBytes);
+        lapStartBytes = now;
+    }
+
+    void endFrame() {
+        long frameBytes = threadBean.getCurrentThreadAllocatedBytes() - frameStartBytes;
+        record(FrameProfiler.Phase.FRAME, frameBytes);
+
+        if (budgetBytes >= 0 && frameBytes > budgetBytes) {
+            violations++;
+            long now = System.nanoTime();
+            if (now - lastLogNanos >= LOG_INTERVAL_NANOS) {
+                lastLogNanos = now;
+                logViolation(frameBytes);
+            }
+        }
+
+        if (++framesInWindow >= FrameProfiler.WINDOW_FRAMES) {
+            for (int i = 0; i < PHASES.length; i++) {
+                averageBytes[i] = (double) windowBytes[i] / framesInWindow;
+                maxBytes[i] = windowMaxBytes[i];
+                windowBytes[i] = 0;
+                windowMaxBytes[i] = 0;
+            }
+            framesInWindow = 0;
+        }
+    }
+
+    private void record(FrameProfiler.Phase phase, long bytes) {
+        int i = phase.ordinal();
+        lastBytes[i] = bytes;
+        windowBytes[i] += bytes;
+        if (bytes > windowMaxBytes[i]) {
+            windowMaxBytes[i] = bytes;
+        }
+    }
+
+    private void logViolation(long frameBytes) {
+        StringBuilder message = new StringBuilder();
+        message.append("Frame allocated ").append(frameBytes).append(" bytes (budget ")
+               .append(budgetBytes).append(", ").append(violations).append(" violations):");
+        for (FrameProfiler.Phase phase : PHASES) {
+            if (phase != FrameProfiler.Phase.FRAME && lastBytes[phase.ordinal()] > 0) {
+                message.append(' ').append(phase.name().toLowerCase()).append('=').append(lastBytes[phase.ordinal()]);
+            }
+        }
+        System.err.println(message);
+    }
+
+    /**
+     * Set the per-frame allocation budget in bytes; negative disables the check
+     */
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public long getBudgetBytes() { return budgetBytes; }
+    public long getViolationCount() { return violations; }
+
+    // Snapshot of the last completed window
+    public double getAverageBytes(FrameProfiler.Phase phase) { return averageBytes[phase.ordinal()]; }
+    public long getMaxBytes(FrameProfiler.Phase phase) { return maxBytes[phase.ordinal()]; }
+
+    /**
+     * Get bytes allocated in a phase during the current (or just finished) frame
+     */
+    public long getLastBytes(FrameProfiler.Phase phase) {
+        return lastBytes[phase.ordinal()];
+    }
+}
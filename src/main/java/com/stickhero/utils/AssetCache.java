@@ -0,0 +1,321 @@
+package com.stickhero.utils;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe, memory-bounded asset cache with single-flight loading.
+ *
+ * However many threads ask for the same key at once, the loader runs exactly
+ * once and the other callers wait for its result. Keys whose loader returns
+ * null (missing or broken resources) are remembered for a limited time so
+ * repeated lookups don't hit the classpath again.
+ *
+ * Every loaded value is weighed in bytes. When the total goes over the
+ * memory budget the least recently used values are evicted. Evicted values
+ * can optionally be kept in a second tier of soft references, which the
+ * garbage collector clears only under memory pressure.
+ */
+public class AssetCache<T> {
+
+    private final Map<String, Entry<T>> entries;
+    private final Map<String, SoftReference<T>> softEntries;
+    private final long negativeTtlNanos;
+    private final ToLongFunction<T> weigher;
+    private final AtomicLong totalBytes;
+    private final AtomicLong accessClock;
+    private final Object evictionLock;
+    private volatile long maxBytes;
+
+    // Statistics
+    private final LongAdder hits;
+    private final LongAdder softHits;
+    private final LongAdder misses;
+    private final LongAdder loads;
+    private final LongAdder failedLoads;
+    private final LongAdder loadTimeNanos;
+    private final LongAdder evictions;
+
+    public AssetCache(long negativeTtlMillis) {
+        this(negativeTtlMillis, value -> 0, Long.MAX_VALUE, false);
+    }
+
+    public AssetCache(long negativeTtlMillis, ToLongFunction<T> weigher, long maxBytes, boolean softTier) {
+        this.entries = new ConcurrentHashMap<>();
+        this.softEntries = softTier ? new ConcurrentHashMap<>() : null;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000L;
+        this.weigher = weigher;
+        this.totalBytes = new AtomicLong();
+        this.accessClock = new AtomicLong();
+        this.evictionLock = new Object();
+        this.maxBytes = maxBytes;
+        this.hits = new LongAdder();
+        this.softHits = new LongAdder();
+        this.misses = new LongAdder();
+        this.loads = new LongAdder();
+        this.failedLoads = new LongAdder();
+        this.loadTimeNanos = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * Get a cached value, loading it with the given loader if absent.
+     * Returns null if the asset could not be loaded.
+     */
+    public T get(String key, Function<String, T> loader) {
+        Entry<T> entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.nanoTime())) {
+            if (entries.remove(key, entry)) {
+                release(entry);
+            }
+            entry = null;
+        }
+
+        if (entry == null) {
+            Entry<T> created = new Entry<>();
+            entry = entries.putIfAbsent(key, created);
+            if (entry == null) {
+                T softValue = takeFromSoftTier(key);
+                if (softValue != null) {
+                    softHits.increment();
+                    store(key, created, softValue);
+                    return softValue;
+                }
+                misses.increment();
+                load(key, created, loader);
+                return created.future.join();
+            }
+        }
+
+        hits.increment();
+        entry.lastAccess = accessClock.incrementAndGet();
+        return entry.future.join();
+    }
+
+    private void load(String key, Entry<T> entry, Function<String, T> loader) {
+        long start = System.nanoTime();
+        T value = null;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load asset: " + key + " (" + e + ")");
+        } finally {
+            long end = System.nanoTime();
+            loadTimeNanos.add(end - start);
+            if (value == null) {
+                failedLoads.increment();
+                entry.expiresAt = end + negativeTtlNanos;
+                entry.future.complete(null);
+            } else {
+                loads.increment();
+                store(key, entry, value);
+            }
+        }
+    }
+
+    private void store(String key, Entry<T> entry, T value) {
+        entry.bytes = Math.max(0, weigher.applyAsLong(value));
+        entry.lastAccess = accessClock.incrementAndGet();
+        if (entry.account()) {
+            totalBytes.addAndGet(entry.bytes);
+        }
+        entry.future.complete(value);
+        evictIfNeeded(entry);
+    }
+
+    /**
+     * Put a loaded value into the cache, replacing any existing entry
+     */
+    public void put(String key, T value) {
+        Entry<T> entry = new Entry<>();
+        Entry<T> previous = entries.put(key, entry);
+        if (previous != null) {
+            release(previous);
+        }
+        if (softEntries != null) {
+            softEntries.remove(key);
+        }
+        store(key, entry, value);
+    }
+
+    /**
+     * Get a cached value without loading it
+     */
+    public T getIfPresent(String key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null || !entry.future.isDone()) {
+            return null;
+        }
+        return entry.future.join();
+    }
+
+    /**
+     * Check if a loaded value is cached for the key
+     */
+    public boolean contains(String key) {
+        return getIfPresent(key) != null;
+    }
+
+    /**
+     * Remove a key, including any remembered load failure
+     */
+    public void remove(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry != null) {
+            release(entry);
+        }
+        if (softEntries != null) {
+            softEntries.remove(key);
+        }
+    }
+
+    /**
+     * Clear all cached values and remembered failures
+     */
+    public void clear() {
+        for (String key : entries.keySet()) {
+            Entry<T> entry = entries.remove(key);
+            if (entry != null) {
+                release(entry);
+            }
+        }
+        if (softEntries != null) {
+            softEntries.clear();
+        }
+    }
+
+    /**
+     * Change the memory budget, evicting immediately if the cache is over it
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictIfNeeded(null);
+    }
+
+    private void evictIfNeeded(Entry<T> keep) {
+        if (totalBytes.get() <= maxBytes) return;
+
+        synchronized (evictionLock) {
+            while (totalBytes.get() > maxBytes) {
+                String victimKey = null;
+                Entry<T> victim = null;
+                for (Map.Entry<String, Entry<T>> candidate : entries.entrySet()) {
+                    Entry<T> entry = candidate.getValue();
+                    if (entry == keep || entry.bytes == 0 || !entry.future.isDone()) continue;
+                    if (victim == null || entry.lastAccess < victim.lastAccess) {
+                        victimKey = candidate.getKey();
+                        victim = entry;
+                    }
+                }
+                if (victim == null) break;
+
+                if (entries.remove(victimKey, victim)) {
+                    release(victim);
+                    evictions.increment();
+                    T value = victim.future.join();
+                    if (softEntries != null && value != null) {
+                        softEntries.put(victimKey, new SoftReference<>(value));
+                    }
+                }
+            }
+        }
+    }
+
+    private T takeFromSoftTier(String key) {
+        if (softEntries == null) return null;
+        SoftReference<T> reference = softEntries.remove(key);
+        return reference != null ? reference.get() : null;
+    }
+
+    private void release(Entry<T> entry) {
+        if (entry.release()) {
+            totalBytes.addAndGet(-entry.bytes);
+        }
+    }
+
+    /**
+     * Get number of successfully loaded values in the cache
+     */
+    public int size() {
+        int count = 0;
+        for (Entry<T> entry : entries.values()) {
+            if (entry.future.isDone() && entry.future.join() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get number of evicted values still reachable through the soft tier
+     */
+    public int getSoftTierSize() {
+        if (softEntries == null) return 0;
+        int count = 0;
+        for (SoftReference<T> reference : softEntries.values()) {
+            if (reference.get() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long getTotalBytes() { return totalBytes.get(); }
+    public long getMaxBytes() { return maxBytes; }
+    public long getHitCount() { return hits.sum(); }
+    public long getSoftHitCount() { return softHits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getLoadCount() { return loads.sum(); }
+    public long getFailedLoadCount() { return failedLoads.sum(); }
+    public long getTotalLoadTimeNanos() { return loadTimeNanos.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    /**
+     * Get fraction of lookups served without running the loader
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum() + softHits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Cache slot. Failed loads complete with null and expire after the negative TTL.
+     */
+    private static class Entry<T> {
+        private static final int NEW = 0;
+        private static final int ACCOUNTED = 1;
+        private static final int RELEASED = 2;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private volatile long expiresAt = Long.MAX_VALUE;
+        private volatile long lastAccess;
+        private volatile long bytes;
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+
+        /**
+         * Mark the entry's bytes as counted, unless it was already removed
+         */
+        boolean account() {
+            return state.compareAndSet(NEW, ACCOUNTED);
+        }
+
+        /**
+         * Mark the entry as removed; true if its bytes need to be uncounted
+         */
+        boolean release() {
+            return state.getAndSet(RELEASED) == ACCOUNTED;
+        }
+    }
+}
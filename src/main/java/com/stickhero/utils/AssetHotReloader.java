@@ -0,0 +1,155 @@
+package com.stickhero.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Development helper that watches an asset directory and reloads changed
+ * files into the AssetManager while the game is running.
+ *
+ * Editors usually write a file in several steps, so change events are
+ * debounced: a file is reloaded once it has been quiet for the debounce
+ * interval. Decoding happens on the watcher thread and the result replaces
+ * the cached asset in one step, so rendering never waits on it.
+ */
+public class AssetHotReloader {
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 150;
+
+    private final AssetManager assetManager;
+    private final Path root;
+    private final long debounceNanos;
+    private final Map<WatchKey, Path> watchedDirs;
+    private final Map<Path, Long> pendingChanges;
+    private WatchService watchService;
+    private Thread watcherThread;
+    private volatile boolean running;
+
+    public AssetHotReloader(AssetManager assetManager, Path root) {
+        this(assetManager, root, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public AssetHotReloader(AssetManager assetManager, Path root, long debounceMillis) {
+        this.assetManager = assetManager;
+        this.root = root.toAbsolutePath().normalize();
+        this.debounceNanos = debounceMillis * 1_000_000L;
+        this.watchedDirs = new HashMap<>();
+        this.pendingChanges = new HashMap<>();
+    }
+
+    /**
+     * Start watching the asset directory and its subdirectories
+     */
+    public synchronized void start() throws IOException {
+        if (running) return;
+        watchService = FileSystems.getDefault().newWatchService();
+        registerTree(root);
+
+        running = true;
+        watcherThread = new Thread(this::runWatcher, "asset-hot-reload");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        System.err.println("Hot reloading assets from " + root);
+    }
+
+    /**
+     * Stop watching
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Closing only wakes the watcher thread up
+        }
+        watcherThread.interrupt();
+        watcherThread = null;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    private void registerTree(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path subdir : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                WatchKey key = subdir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirs.put(key, subdir);
+            }
+        }
+    }
+
+    private void runWatcher() {
+        while (running) {
+            try {
+                WatchKey key = pendingChanges.isEmpty()
+                    ? watchService.take()
+                    : watchService.poll(debounceNanos, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    collectEvents(key);
+                }
+                reloadSettledFiles();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (RuntimeException e) {
+                System.err.println("Asset hot reload failed: " + e);
+            }
+        }
+    }
+
+    private void collectEvents(WatchKey key) {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) continue;
+
+            Path changed = dir.resolve((Path) event.context());
+            if (Files.isDirectory(changed)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    try {
+                        registerTree(changed);
+                    } catch (IOException e) {
+                        System.err.println("Failed to watch asset directory: " + changed);
+                    }
+                }
+                continue;
+            }
+            pendingChanges.put(changed, System.nanoTime());
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void reloadSettledFiles() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> iterator = pendingChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> change = iterator.next();
+            if (now - change.getValue() < debounceNanos) continue;
+
+            iterator.remove();
+            Path file = change.getKey();
+            if (!Files.isRegularFile(file)) continue;
+
+            String resourcePath = "/" + root.relativize(file).toString().replace('\\', '/');
+            long start = System.nanoTime();
+            if (assetManager.reloadAsset(resourcePath)) {
+                System.err.printf("Reloaded %s (%.1f ms)%n", resourcePath, (System.nanoTime() - start) / 1_000_000.0);
+            }
+        }
+    }
+}
@@ -1,31 +1,223 @@
 package com.stickhero.utils;
 
+import com.stickhero.jfr.AssetLoadEvent;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.media.AudioClip;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
 
 /**
  * Manages loading and caching of game assets (images, sounds, etc.)
  */
 public class AssetManager {
     
-    private Map<String, Image> imageCache;
-    private Map<String, AudioClip> audioCache;
+    private AssetCache<Image> imageCache;
+    private AssetCache<AudioClip> audioCache;
+    private volatile AssetPack assetPack;
+    private volatile TextureAtlas textureAtlas;
+    private boolean initialized;
+    
+    // Development mode: assets are read from a directory and reloaded when they change
+    private volatile Path devAssetDir;
+    private AssetHotReloader hotReloader;
+    private final Map<String, String> preloadKeysByPath = new ConcurrentHashMap<>();
+    private final Set<String> reloadedImages = ConcurrentHashMap.newKeySet();
+    
+    // Source size of each loaded audio clip by URL, recorded at load time for the cache weigher
+    private final Map<String, Long> audioBytesBySource = new ConcurrentHashMap<>();
+    
+    // Packed audio written out for AudioClip, by extracted file name
+    private final Map<String, URL> extractedAudio = new ConcurrentHashMap<>();
+    private Path extractDirectory;
+    
+    // Background loading
+    private ExecutorService loaderExecutor;
+    private static final int LOADER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    
+    // How long a missing asset is remembered before the classpath is checked again
+    private static final long MISSING_ASSET_TTL_MILLIS = 30_000;
+    
+    // Packed asset archive, looked up next to the application jar unless overridden
+    public static final String ASSET_PACK_PROPERTY = "stickhero.assetPack";
+    private static final String ASSET_PACK_FILE = "assets.pack";
+    
+    // Asset directory for development mode hot reloading
+    public static final String ASSET_DIR_PROPERTY = "stickhero.assetDir";
+    
+    // Asset sources reported in JFR asset load events
+    private static final String SOURCE_DIRECTORY = "directory";
+    private static final String SOURCE_PACK = "pack";
+    private static final String SOURCE_CLASSPATH = "classpath";
+    private static final String SOURCE_MISSING = "missing";
+    
+    // Region index generated by the packAtlas Gradle task
+    private static final String ATLAS_INDEX = "/atlas/atlas.index";
+    
+    // Memory budgets for decoded assets
+    public static final long DEFAULT_IMAGE_BUDGET_BYTES = 96L * 1024 * 1024;
+    public static final long DEFAULT_AUDIO_BUDGET_BYTES = 32L * 1024 * 1024;
+    private static final long DEFAULT_AUDIO_CLIP_BYTES = 256 * 1024;
     
     public AssetManager() {
-        imageCache = new HashMap<>();
-        audioCache = new HashMap<>();
+        this(DEFAULT_IMAGE_BUDGET_BYTES, DEFAULT_AUDIO_BUDGET_BYTES, true);
+    }
+    
+    /**
+     * Create an asset manager with the given memory budgets. Least recently used
+     * assets are evicted when a budget is exceeded; with a soft tier, evicted
+     * assets stay reachable until the garbage collector needs the memory.
+     *
+     * No I/O happens here; call {@link #initialize} (from any thread) before loading assets.
+     */
+    public AssetManager(long imageBudgetBytes, long audioBudgetBytes, boolean softTier) {
+        imageCache = new AssetCache<>(MISSING_ASSET_TTL_MILLIS, AssetManager::estimateImageBytes,
+                                      imageBudgetBytes, softTier);
+        audioCache = new AssetCache<>(MISSING_ASSET_TTL_MILLIS, this::estimateAudioBytes,
+                                      audioBudgetBytes, softTier);
+        textureAtlas = new TextureAtlas();
+    }
+    
+    /**
+     * Open the asset pack, read the atlas index and start hot reloading if
+     * configured. Does nothing if already initialized.
+     */
+    public synchronized void initialize() {
+        if (initialized) return;
+        initialized = true;
         loadAssets();
     }
     
     private void loadAssets() {
+        // Serve assets from the packed archive when one ships with the game
+        openDefaultAssetPack();
+        
+        // Read the atlas region index; pages are decoded on first use or preload
+        textureAtlas = TextureAtlas.fromResource(ATLAS_INDEX);
+        
+        // Watch an asset directory for changes in development mode
+        String assetDir = System.getProperty(ASSET_DIR_PROPERTY);
+        if (assetDir != null && !assetDir.isEmpty()) {
+            enableHotReload(Paths.get(assetDir));
+        }
+        
         // Load default assets or create placeholder images
         createPlaceholderAssets();
     }
     
+    private void openDefaultAssetPack() {
+        Path packPath = findAssetPack();
+        if (packPath == null) return;
+        
+        try {
+            useAssetPack(packPath);
+        } catch (IOException e) {
+            System.err.println("Failed to open asset pack: " + packPath + " (" + e.getMessage() + ")");
+        }
+    }
+    
+    private Path findAssetPack() {
+        String configured = System.getProperty(ASSET_PACK_PROPERTY);
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        
+        try {
+            Path codeLocation = Paths.get(AssetManager.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            Path candidate = codeLocation.resolveSibling(ASSET_PACK_FILE);
+            return Files.isRegularFile(candidate) ? candidate : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Serve assets from a packed archive. Assets missing from the archive
+     * are still loaded from the classpath.
+     */
+    public void useAssetPack(Path packPath) throws IOException {
+        assetPack = AssetPack.open(packPath);
+    }
+    
+    /**
+     * Get the packed archive assets are served from, or null if none is open
+     */
+    public AssetPack getAssetPack() {
+        return assetPack;
+    }
+    
+    /**
+     * Development mode: read assets from a directory (laid out like
+     * src/main/resources) before the archive and classpath, and reload them
+     * into the cache whenever they change on disk.
+     */
+    public synchronized void enableHotReload(Path assetDir) {
+        if (hotReloader != null) return;
+        
+        AssetHotReloader reloader = new AssetHotReloader(this, assetDir);
+        try {
+            reloader.start();
+        } catch (IOException e) {
+            System.err.println("Failed to watch asset directory: " + assetDir + " (" + e.getMessage() + ")");
+            return;
+        }
+        devAssetDir = reloader.getRoot();
+        hotReloader = reloader;
+    }
+    
+    /**
+     * Re-decode a changed asset and swap it into the cache. The resource path
+     * is relative to the asset directory, e.g. "/images/hero.png".
+     * Returns false if the path is not a loadable asset.
+     */
+    public boolean reloadAsset(String resourcePath) {
+        String alias = preloadKeysByPath.get(resourcePath);
+        
+        if (resourcePath.startsWith("/images/") && resourcePath.endsWith(".png")) {
+            Image image = loadImageFromResources(resourcePath);
+            if (image == null) return false;
+            
+            String key = resourcePath.substring("/images/".length(), resourcePath.length() - ".png".length());
+            // Draw the new standalone image instead of the stale atlas region
+            reloadedImages.add(key);
+            imageCache.put(key, image);
+            if (alias != null && !alias.equals(key)) {
+                reloadedImages.add(alias);
+                imageCache.put(alias, image);
+            }
+            return true;
+        }
+        
+        if (resourcePath.startsWith("/sounds/") && resourcePath.endsWith(".wav")) {
+            AudioClip audio = loadAudioFromResources(resourcePath);
+            if (audio == null) return false;
+            
+            String key = resourcePath.substring("/sounds/".length(), resourcePath.length() - ".wav".length());
+            audioCache.put(key, audio);
+            if (alias != null && !alias.equals(key)) {
+                audioCache.put(alias, audio);
+            }
+            return true;
+        }
+        return false;
+    }
+    
     private void createPlaceholderAssets() {
         // For now, we'll create simple colored images programmatically
         // In a real game, you'd load these from files in src/main/resources
@@ -45,68 +237,196 @@ public class AssetManager {
      * Load an image from resources
      */
     public Image loadImageFromResources(String resourcePath) {
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        
+        Image image = null;
+        String source = SOURCE_DIRECTORY;
         try {
-            InputStream inputStream = getClass().getResourceAsStream(resourcePath);
+            InputStream inputStream = openFromDevDir(resourcePath);
+            if (inputStream == null) {
+                inputStream = openFromAssetPack(resourcePath);
+                source = SOURCE_PACK;
+            }
+            if (inputStream == null) {
+                inputStream = getClass().getResourceAsStream(resourcePath);
+                source = SOURCE_CLASSPATH;
+            }
             if (inputStream != null) {
-                return new Image(inputStream);
+                try (InputStream in = inputStream) {
+                    Image decoded = new Image(in);
+                    image = decoded.isError() ? null : decoded;
+                }
+            } else {
+                source = SOURCE_MISSING;
             }
         } catch (Exception e) {
             System.err.println("Failed to load image: " + resourcePath);
             e.printStackTrace();
         }
-        return null;
+        
+        if (event.shouldCommit()) {
+            event.resourcePath = resourcePath;
+            event.assetType = "image";
+            event.source = source;
+            event.bytes = image != null ? estimateImageBytes(image) : 0;
+            event.success = image != null;
+            event.commit();
+        }
+        return image;
     }
     
     /**
      * Get an image from cache or load it if not cached
      */
     public Image getImage(String key) {
-        Image image = imageCache.get(key);
-        if (image == null) {
-            // Try to load the image
-            String resourcePath = "/images/" + key + ".png";
-            image = loadImageFromResources(resourcePath);
-            if (image != null) {
-                imageCache.put(key, image);
-            }
-        }
-        return image;
+        return imageCache.get(key, k -> loadImageFromResources("/images/" + k + ".png"));
     }
     
     /**
      * Load an audio clip from resources
      */
     public AudioClip loadAudioFromResources(String resourcePath) {
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        
+        AudioClip audio = null;
+        long bytes = 0;
+        String source = SOURCE_DIRECTORY;
         try {
-            String url = getClass().getResource(resourcePath).toExternalForm();
-            return new AudioClip(url);
+            URL url = devFileUrl(resourcePath);
+            if (url == null) {
+                url = extractFromAssetPack(resourcePath);
+                source = SOURCE_PACK;
+            }
+            if (url == null) {
+                url = getClass().getResource(resourcePath);
+                source = SOURCE_CLASSPATH;
+                if (url != null) {
+                    recordClasspathAudioBytes(url);
+                }
+            }
+            if (url != null) {
+                audio = new AudioClip(url.toExternalForm());
+                bytes = estimateAudioBytes(audio);
+            } else {
+                source = SOURCE_MISSING;
+            }
         } catch (Exception e) {
             System.err.println("Failed to load audio: " + resourcePath);
             e.printStackTrace();
         }
-        return null;
+        
+        if (event.shouldCommit()) {
+            event.resourcePath = resourcePath;
+            event.assetType = "audio";
+            event.source = source;
+            event.bytes = bytes;
+            event.success = audio != null;
+            event.commit();
+        }
+        return audio;
+    }
+    
+    private Path devFile(String resourcePath) {
+        Path dir = devAssetDir;
+        if (dir == null) return null;
+        Path file = dir.resolve(toPackEntryName(resourcePath)).normalize();
+        return file.startsWith(dir) && Files.isRegularFile(file) ? file : null;
+    }
+    
+    private InputStream openFromDevDir(String resourcePath) throws IOException {
+        Path file = devFile(resourcePath);
+        return file != null ? Files.newInputStream(file) : null;
+    }
+    
+    private URL devFileUrl(String resourcePath) throws IOException {
+        Path file = devFile(resourcePath);
+        if (file == null) return null;
+        URL url = file.toUri().toURL();
+        audioBytesBySource.put(url.toExternalForm(), Files.size(file));
+        return url;
+    }
+    
+    private InputStream openFromAssetPack(String resourcePath) {
+        AssetPack pack = assetPack;
+        return pack != null ? pack.openStream(toPackEntryName(resourcePath)) : null;
     }
     
     /**
-     * Get an audio clip from cache or load it if not cached
+     * AudioClip can only be created from a URL, so a packed clip is written
+     * straight from the mapped archive to a file in a per-process temporary
+     * directory. Each entry is written at most once, to a name made of the
+     * entry name and a CRC32C of its contents, and reused by later loads,
+     * reloads and loads after eviction.
      */
-    public AudioClip getAudio(String key) {
-        AudioClip audio = audioCache.get(key);
-        if (audio == null) {
-            // Try to load the audio
-            String resourcePath = "/sounds/" + key + ".wav";
-            audio = loadAudioFromResources(resourcePath);
-            if (audio != null) {
-                audioCache.put(key, audio);
+    private URL extractFromAssetPack(String resourcePath) throws IOException {
+        AssetPack pack = assetPack;
+        if (pack == null) return null;
+        
+        String entryName = toPackEntryName(resourcePath);
+        ByteBuffer data = pack.find(entryName);
+        if (data == null) return null;
+        
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate());
+        String fileName = String.format("%08x-%s", (int) crc.getValue(), entryName.replace('/', '_'));
+        long size = data.remaining();
+        URL url;
+        try {
+            url = extractedAudio.computeIfAbsent(fileName, name -> {
+                try {
+                    return writeExtractedAudio(name, data);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        audioBytesBySource.put(url.toExternalForm(), size);
+        return url;
+    }
+    
+    private URL writeExtractedAudio(String fileName, ByteBuffer data) throws IOException {
+        Path file = getExtractDirectory().resolve(fileName);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = data.duplicate();
+            while (source.hasRemaining()) {
+                channel.write(source);
             }
         }
-        return audio;
+        file.toFile().deleteOnExit();
+        return file.toUri().toURL();
+    }
+    
+    private synchronized Path getExtractDirectory() throws IOException {
+        if (extractDirectory == null) {
+            // Registered before the files in it, so it is deleted after them
+            Path directory = Files.createTempDirectory("stickhero-audio-");
+            directory.toFile().deleteOnExit();
+            extractDirectory = directory;
+        }
+        return extractDirectory;
+    }
+    
+    private static String toPackEntryName(String resourcePath) {
+        return resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
+    }
+    
+    /**
+     * Get an audio clip from cache or load it if not cached
+     */
+    public AudioClip getAudio(String key) {
+        return audioCache.get(key, k -> loadAudioFromResources("/sounds/" + k + ".wav"));
     }
     
     /**
      * Preload an image into cache
      */
     public void preloadImage(String key, String resourcePath) {
+        preloadKeysByPath.put(resourcePath, key);
         Image image = loadImageFromResources(resourcePath);
         if (image != null) {
             imageCache.put(key, image);
@@ -117,24 +437,188 @@ public class AssetManager {
      * Preload an audio clip into cache
      */
     public void preloadAudio(String key, String resourcePath) {
+        preloadKeysByPath.put(resourcePath, key);
         AudioClip audio = loadAudioFromResources(resourcePath);
         if (audio != null) {
             audioCache.put(key, audio);
         }
     }
     
+    /**
+     * Preload all assets in a manifest in parallel on background threads.
+     * The returned future completes once every asset has been attempted;
+     * assets that fail to load are reported in its failed count.
+     */
+    public AssetPreload preloadAsync(AssetManifest manifest) {
+        int totalCount = manifest.size() + textureAtlas.getPageCount();
+        AssetPreload preload = new AssetPreload(totalCount);
+        if (totalCount == 0) {
+            preload.complete(null);
+            return preload;
+        }
+        
+        ExecutorService executor = getLoaderExecutor();
+        for (int page = 0; page < textureAtlas.getPageCount(); page++) {
+            int pageIndex = page;
+            executor.execute(() -> {
+                boolean success = false;
+                try {
+                    success = getAtlasPage(pageIndex) != null;
+                } finally {
+                    preload.assetFinished(success);
+                }
+            });
+        }
+        for (AssetManifest.Entry entry : manifest.getImages()) {
+            executor.execute(() -> {
+                boolean success = false;
+                try {
+                    preloadKeysByPath.put(entry.getResourcePath(), entry.getKey());
+                    success = imageCache.get(entry.getKey(), k -> loadImageFromResources(entry.getResourcePath())) != null;
+                } finally {
+                    preload.assetFinished(success);
+                }
+            });
+        }
+        for (AssetManifest.Entry entry : manifest.getAudio()) {
+            executor.execute(() -> {
+                boolean success = false;
+                try {
+                    preloadKeysByPath.put(entry.getResourcePath(), entry.getKey());
+                    success = audioCache.get(entry.getKey(), k -> loadAudioFromResources(entry.getResourcePath())) != null;
+                } finally {
+                    preload.assetFinished(success);
+                }
+            });
+        }
+        return preload;
+    }
+    
+    private synchronized ExecutorService getLoaderExecutor() {
+        if (loaderExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            loaderExecutor = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "asset-loader-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return loaderExecutor;
+    }
+    
+    /**
+     * Stop background loader and hot reload threads
+     */
+    public synchronized void shutdown() {
+        if (hotReloader != null) {
+            hotReloader.stop();
+            hotReloader = null;
+        }
+        if (loaderExecutor != null) {
+            loaderExecutor.shutdownNow();
+            loaderExecutor = null;
+        }
+    }
+    
+    /**
+     * Get the atlas region for an image key, or null if the image was not packed
+     */
+    public AtlasRegion getRegion(String key) {
+        return textureAtlas.getRegion(key);
+    }
+    
+    /**
+     * Get a decoded atlas page, loading it if needed
+     */
+    public Image getAtlasPage(int page) {
+        String pagePath = textureAtlas.getPagePath(page);
+        return pagePath != null ? imageCache.get(pagePath, this::loadImageFromResources) : null;
+    }
+    
+    /**
+     * Draw an atlas region scaled into the destination rectangle
+     */
+    public void drawRegion(GraphicsContext gc, AtlasRegion region, double x, double y, double width, double height) {
+        Image page = getAtlasPage(region.getPage());
+        if (page != null) {
+            gc.drawImage(page, region.getX(), region.getY(), region.getWidth(), region.getHeight(),
+                         x, y, width, height);
+        }
+    }
+    
+    /**
+     * Draw an image by key, from the atlas when it was packed there and from
+     * its standalone image otherwise. Returns false if the image is missing.
+     */
+    public boolean drawImage(GraphicsContext gc, String key, double x, double y, double width, double height) {
+        AtlasRegion region = textureAtlas.getRegion(key);
+        if (region != null && !reloadedImages.contains(key)) {
+            drawRegion(gc, region, x, y, width, height);
+            return true;
+        }
+        
+        Image image = getImage(key);
+        if (image != null) {
+            gc.drawImage(image, x, y, width, height);
+            return true;
+        }
+        return false;
+    }
+    
+    public TextureAtlas getTextureAtlas() {
+        return textureAtlas;
+    }
+    
+    /**
+     * Estimate the memory used by a decoded image (32-bit ARGB pixels)
+     */
+    public static long estimateImageBytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+    
+    /**
+     * Estimate the memory used by an audio clip. Clips are fully decoded to PCM,
+     * which for the game's WAV files is about the size of the source file. The
+     * size is recorded when the clip is loaded, so this never touches the disk.
+     */
+    public long estimateAudioBytes(AudioClip audio) {
+        Long bytes = audioBytesBySource.get(audio.getSource());
+        return bytes != null && bytes > 0 ? bytes : DEFAULT_AUDIO_CLIP_BYTES;
+    }
+    
+    /**
+     * Record the size of a classpath clip when it is a plain file; clips
+     * inside a jar are weighed with the default estimate
+     */
+    private void recordClasspathAudioBytes(URL url) {
+        if (!"file".equals(url.getProtocol())) return;
+        try {
+            audioBytesBySource.put(url.toExternalForm(), Files.size(Paths.get(url.toURI())));
+        } catch (Exception e) {
+            // Weighed with the default estimate
+        }
+    }
+    
+    /**
+     * Change the memory budgets, evicting assets immediately if over budget
+     */
+    public void setMemoryBudget(long imageBudgetBytes, long audioBudgetBytes) {
+        imageCache.setMaxBytes(imageBudgetBytes);
+        audioCache.setMaxBytes(audioBudgetBytes);
+    }
+    
     /**
      * Check if an image is loaded
      */
     public boolean hasImage(String key) {
-        return imageCache.containsKey(key);
+        return imageCache.contains(key);
     }
     
     /**
      * Check if an audio clip is loaded
      */
     public boolean hasAudio(String key) {
-        return audioCache.containsKey(key);
+        return audioCache.contains(key);
     }
     
     /**
@@ -149,7 +633,27 @@ public class AssetManager {
      * Get cache statistics
      */
     public String getCacheStats() {
-        return String.format("Images cached: %d, Audio clips cached: %d", 
-                           imageCache.size(), audioCache.size());
+        return String.format("Images cached: %d (%s), Audio clips cached: %d (%s)", 
+                           imageCache.size(), formatStats(imageCache),
+                           audioCache.size(), formatStats(audioCache));
+    }
+    
+    private static String formatStats(AssetCache<?> cache) {
+        long loadCount = cache.getLoadCount() + cache.getFailedLoadCount();
+        double averageLoadMillis = loadCount == 0 ? 0 : cache.getTotalLoadTimeNanos() / 1_000_000.0 / loadCount;
+        return String.format("%.1f/%.1f MB, hits: %d, soft hits: %d, misses: %d, hit rate: %.1f%%, " +
+                           "evictions: %d, failed: %d, avg load: %.2f ms",
+                           cache.getTotalBytes() / 1048576.0, cache.getMaxBytes() / 1048576.0,
+                           cache.getHitCount(), cache.getSoftHitCount(), cache.getMissCount(),
+                           cache.getHitRate() * 100, cache.getEvictionCount(),
+                           cache.getFailedLoadCount(), averageLoadMillis);
+    }
+    
+    public AssetCache<Image> getImageCache() {
+        return imageCache;
+    }
+    
+    public AssetCache<AudioClip> getAudioCache() {
+        return audioCache;
     }
 }
@@ -0,0 +1,120 @@
+package com.stickhero.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * List of assets to preload, keyed the same way as the AssetManager caches.
+ *
+ * Manifest files are plain text with one asset per line:
+ * <pre>
+ * # type  key         resource path
+ * image   hero        /images/hero.png
+ * audio   success     /sounds/success.wav
+ * </pre>
+ */
+public class AssetManifest {
+    
+    private final List<Entry> images;
+    private final List<Entry> audio;
+    
+    public AssetManifest() {
+        images = new ArrayList<>();
+        audio = new ArrayList<>();
+    }
+    
+    /**
+     * Add an image to the manifest
+     */
+    public AssetManifest addImage(String key, String resourcePath) {
+        images.add(new Entry(key, resourcePath));
+        return this;
+    }
+    
+    /**
+     * Add an audio clip to the manifest
+     */
+    public AssetManifest addAudio(String key, String resourcePath) {
+        audio.add(new Entry(key, resourcePath));
+        return this;
+    }
+    
+    public List<Entry> getImages() {
+        return Collections.unmodifiableList(images);
+    }
+    
+    public List<Entry> getAudio() {
+        return Collections.unmodifiableList(audio);
+    }
+    
+    /**
+     * Get total number of assets in the manifest
+     */
+    public int size() {
+        return images.size() + audio.size();
+    }
+    
+    /**
+     * Load a manifest from resources. A missing manifest yields an empty one.
+     */
+    public static AssetManifest fromResource(String resourcePath) {
+        AssetManifest manifest = new AssetManifest();
+        InputStream inputStream = AssetManifest.class.getResourceAsStream(resourcePath);
+        if (inputStream == null) {
+            return manifest;
+        }
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                
+                String[] parts = line.split("\\s+");
+                if (parts.length != 3) {
+                    System.err.println("Invalid manifest line " + lineNumber + " in " + resourcePath + ": " + line);
+                    continue;
+                }
+                
+                switch (parts[0]) {
+                    case "image":
+                        manifest.addImage(parts[1], parts[2]);
+                        break;
+                    case "audio":
+                        manifest.addAudio(parts[1], parts[2]);
+                        break;
+                    default:
+                        System.err.println("Unknown asset type on manifest line " + lineNumber + " in " + resourcePath + ": " + parts[0]);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read asset manifest: " + resourcePath);
+            e.printStackTrace();
+        }
+        return manifest;
+    }
+    
+    /**
+     * A single manifest entry
+     */
+    public static class Entry {
+        private final String key;
+        private final String resourcePath;
+        
+        public Entry(String key, String resourcePath) {
+            this.key = key;
+            this.resourcePath = resourcePath;
+        }
+        
+        public String getKey() { return key; }
+        public String getResourcePath() { return resourcePath; }
+    }
+}
@@ -0,0 +1,178 @@
+package com.stickhero.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only view of a packed asset archive.
+ *
+ * The whole archive is memory-mapped once and assets are served as slices
+ * of the mapped buffer, so reading an asset never copies it into a heap
+ * array. Archives are produced at build time by {@link AssetPackWriter}.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header   magic "SHPK" (4), version (4), entry count (4), reserved (4)
+ * index    entry count records, sorted by name:
+ *          name length (2), name UTF-8 bytes, data offset (8), data length (8)
+ * data     asset bytes, in index order
+ * </pre>
+ */
+public class AssetPack {
+
+    public static final int MAGIC = 0x5348504B; // "SHPK"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final String[] names;
+    private final long[] offsets;
+    private final long[] lengths;
+
+    private AssetPack(Path path, MappedByteBuffer buffer, String[] names, long[] offsets, long[] lengths) {
+        this.path = path;
+        this.buffer = buffer;
+        this.names = names;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Map an asset archive into memory and read its index. Throws
+     * IOException if the archive is truncated or its index is damaged.
+     */
+    public static AssetPack open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an asset pack: " + path);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported asset pack version " + version + ": " + path);
+        }
+        int count = buffer.getInt(8);
+        int limit = buffer.limit();
+        // Each index record takes at least 18 bytes: a name length and the offset and length
+        if (count < 0 || count > (limit - HEADER_SIZE) / 18) {
+            throw new IOException("Corrupt asset pack entry count " + count + ": " + path);
+        }
+
+        String[] names = new String[count];
+        long[] offsets = new long[count];
+        long[] lengths = new long[count];
+        int position = HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            if (position + 2 > limit) {
+                throw new IOException("Truncated asset pack index: " + path);
+            }
+            int nameLength = buffer.getShort(position) & 0xFFFF;
+            if ((long) position + 2 + nameLength + 16 > limit) {
+                throw new IOException("Truncated asset pack index: " + path);
+            }
+            byte[] nameBytes = new byte[nameLength];
+            buffer.get(position + 2, nameBytes);
+            position += 2 + nameLength;
+            names[i] = new String(nameBytes, StandardCharsets.UTF_8);
+            offsets[i] = buffer.getLong(position);
+            lengths[i] = buffer.getLong(position + 8);
+            position += 16;
+
+            if (offsets[i] < 0 || lengths[i] < 0 || offsets[i] > limit || lengths[i] > limit - offsets[i]) {
+                throw new IOException("Corrupt asset pack entry " + names[i] + ": " + path);
+            }
+            // Lookups binary search the names
+            if (i > 0 && names[i].compareTo(names[i - 1]) <= 0) {
+                throw new IOException("Asset pack index out of order at " + names[i] + ": " + path);
+            }
+        }
+        return new AssetPack(path, buffer, names, offsets, lengths);
+    }
+
+    /**
+     * Check if the archive contains an asset, e.g. "images/hero.png"
+     */
+    public boolean contains(String name) {
+        return Arrays.binarySearch(names, name) >= 0;
+    }
+
+    /**
+     * Get an asset's bytes as a read-only slice of the mapped archive, or null if absent
+     */
+    public ByteBuffer find(String name) {
+        int index = Arrays.binarySearch(names, name);
+        if (index < 0) {
+            return null;
+        }
+        return buffer.slice((int) offsets[index], (int) lengths[index]).asReadOnlyBuffer();
+    }
+
+    /**
+     * Open an asset as a stream over the mapped archive, or null if absent
+     */
+    public InputStream openStream(String name) {
+        ByteBuffer data = find(name);
+        return data != null ? new ByteBufferInputStream(data) : null;
+    }
+
+    /**
+     * Get number of assets in the archive
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Input stream reading directly from a byte buffer
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer data;
+
+        ByteBufferInputStream(ByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return data.hasRemaining() ? data.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!data.hasRemaining()) return -1;
+            int count = Math.min(length, data.remaining());
+            data.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, data.remaining()));
+            data.position(data.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return data.remaining();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.stickhero.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Build-time tool that packs asset directories into a single {@link AssetPack} archive.
+ *
+ * Usage: AssetPackWriter &lt;output file&gt; &lt;resource root&gt; [asset dir...]
+ * Asset dirs default to "images" and "sounds" and are resolved against the resource root.
+ */
+public class AssetPackWriter {
+
+    private static final String[] DEFAULT_ASSET_DIRS = {"images", "sounds"};
+
+    /**
+     * Write an archive containing every file under the given directories.
+     * Entry names are paths relative to the resource root, using '/' separators.
+     */
+    public static int write(Path output, Path resourceRoot, String... assetDirs) throws IOException {
+        // Sorted by name so the reader can binary search the index
+        TreeMap<String, Path> files = new TreeMap<>();
+        for (String assetDir : assetDirs) {
+            Path dir = resourceRoot.resolve(assetDir);
+            if (!Files.isDirectory(dir)) continue;
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.filter(Files::isRegularFile).forEach(file ->
+                    files.put(resourceRoot.relativize(file).toString().replace('\\', '/'), file));
+            }
+        }
+
+        List<byte[]> names = new ArrayList<>();
+        long indexSize = 0;
+        for (String name : files.keySet()) {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            if (nameBytes.length > 0xFFFF) {
+                throw new IOException("Asset name too long: " + name);
+            }
+            names.add(nameBytes);
+            indexSize += 2 + nameBytes.length + 16;
+        }
+
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        try (OutputStream fileOut = Files.newOutputStream(output);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024))) {
+            out.writeInt(AssetPack.MAGIC);
+            out.writeInt(AssetPack.VERSION);
+            out.writeInt(files.size());
+            out.writeInt(0);
+
+            long offset = AssetPack.HEADER_SIZE + indexSize;
+            int i = 0;
+            for (Path file : files.values()) {
+                long length = Files.size(file);
+                byte[] nameBytes = names.get(i++);
+                out.writeShort(nameBytes.length);
+                out.write(nameBytes);
+                out.writeLong(offset);
+                out.writeLong(length);
+                offset += length;
+            }
+
+            for (Path file : files.values()) {
+                Files.copy(file, out);
+            }
+        }
+        return files.size();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AssetPackWriter <output file> <resource root> [asset dir...]");
+            System.exit(1);
+        }
+        String[] assetDirs = args.length > 2
+            ? Arrays.copyOfRange(args, 2, args.length)
+            : DEFAULT_ASSET_DIRS;
+
+        Path output = Paths.get(args[0]);
+        int count = write(output, Paths.get(args[1]), assetDirs);
+        System.out.println("Packed " + count + " assets into " + output);
+    }
+}
@@ -0,0 +1,41 @@
+package com.stickhero.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Future for an asynchronous asset preload that also reports progress.
+ * Progress can be polled from any thread, e.g. once per frame by a loading screen.
+ */
+public class AssetPreload extends CompletableFuture<Void> {
+    
+    private final int totalCount;
+    private final AtomicInteger loadedCount;
+    private final AtomicInteger failedCount;
+    
+    AssetPreload(int totalCount) {
+        this.totalCount = totalCount;
+        this.loadedCount = new AtomicInteger();
+        this.failedCount = new AtomicInteger();
+    }
+    
+    void assetFinished(boolean success) {
+        if (!success) {
+            failedCount.incrementAndGet();
+        }
+        if (loadedCount.incrementAndGet() == totalCount) {
+            complete(null);
+        }
+    }
+    
+    /**
+     * Get fraction of assets processed, from 0.0 to 1.0
+     */
+    public double getProgress() {
+        return totalCount == 0 ? 1.0 : (double) loadedCount.get() / totalCount;
+    }
+    
+    public int getLoadedCount() { return loadedCount.get(); }
+    public int getFailedCount() { return failedCount.get(); }
+    public int getTotalCount() { return totalCount; }
+}
@@ -0,0 +1,28 @@
+package com.stickhero.utils;
+
+/**
+ * A sub-rectangle of a texture atlas page
+ */
+public class AtlasRegion {
+    
+    private final String key;
+    private final int page;
+    private final double x, y, width, height;
+    
+    public AtlasRegion(String key, int page, double x, double y, double width, double height) {
+        this.key = key;
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+    
+    // Getters
+    public String getKey() { return key; }
+    public int getPage() { return page; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getWidth() { return width; }
+    public double getHeight() { return height; }
+}
@@ -0,0 +1,301 @@
+package com.stickhero.utils;
+
+import javafx.scene.media.AudioClip;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays sound effects through a bounded pool of voices.
+ *
+ * Game code calls {@link #play} from any thread; the request goes onto a
+ * lock-free queue and returns immediately. A dedicated audio thread drains
+ * the queue, looks the clip up in the AssetManager and starts it. When every
+ * voice is busy, the lowest-priority (then oldest) voice is stolen if the new
+ * sound is at least as important, otherwise the new sound is dropped.
+ *
+ * AudioClip has no per-instance handle, so stealing a voice stops every
+ * playing instance of that clip, and a voice is considered finished once its
+ * clip reports it is no longer playing.
+ */
+public class AudioMixer {
+
+    public enum Priority {
+        LOW, NORMAL, HIGH
+    }
+
+    private final AssetManager assetManager;
+    private final Queue<PlayRequest> requests;
+    private final Voice[] voices;
+    private Thread audioThread;
+    private volatile boolean running;
+
+    // Statistics
+    private final LongAdder played;
+    private final LongAdder dropped;
+    private final LongAdder stolen;
+    private final LongAdder missing;
+    private final LongAdder totalLatencyNanos;
+    private final AtomicLong maxLatencyNanos;
+
+    // Constants
+    public static final int DEFAULT_MAX_VOICES = 8;
+    private static final long VOICE_START_GRACE_NANOS = 50_000_000L; // clips report playing shortly after play()
+
+    public AudioMixer(AssetManager assetManager) {
+        this(assetManager, DEFAULT_MAX_VOICES);
+    }
+
+    public AudioMixer(AssetManager assetManager, int maxVoices) {
+        this.assetManager = assetManager;
+        this.requests = new ConcurrentLinkedQueue<>();
+        this.voices = new Voice[maxVoices];
+        for (int i = 0; i < maxVoices; i++) {
+            voices[i] = new Voice();
+        }
+        this.played = new LongAdder();
+        this.dropped = new LongAdder();
+        this.stolen = new LongAdder();
+        this.missing = new LongAdder();
+        this.totalLatencyNanos = new LongAdder();
+        this.maxLatencyNanos = new AtomicLong();
+    }
+
+    /**
+     * Start the audio thread
+     */
+    public synchronized void start() {
+        if (running) return;
+        // A previous audio thread still stopping its voices owns them until it exits
+        if (audioThread != null) {
+            try {
+                audioThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        running = true;
+        audioThread = new Thread(this::runDispatcher, "audio-mixer");
+        audioThread.setDaemon(true);
+        audioThread.setPriority(Thread.MAX_PRIORITY);
+        audioThread.start();
+    }
+
+    /**
+     * Stop the audio thread, which stops all playing sounds as it exits.
+     * Waits briefly for it; voices are only ever touched by that thread.
+     */
+    public synchronized void shutdown() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(audioThread);
+        try {
+            audioThread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        requests.clear();
+    }
+
+    /**
+     * Load clips and warm up their playback path on the audio thread, so the
+     * first real play doesn't pay for it
+     */
+    public void preload(String... keys) {
+        for (String key : keys) {
+            enqueue(new PlayRequest(key, Priority.LOW, 0.0, true));
+        }
+    }
+
+    /**
+     * Queue a sound to be played at full volume. Never blocks.
+     */
+    public void play(String key, Priority priority) {
+        play(key, priority, 1.0);
+    }
+
+    /**
+     * Queue a sound to be played. Never blocks. Sounds are dropped while the
+     * audio thread is not running.
+     */
+    public void play(String key, Priority priority, double volume) {
+        enqueue(new PlayRequest(key, priority, volume, false));
+    }
+
+    private void enqueue(PlayRequest request) {
+        // Nothing would drain the queue
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        requests.offer(request);
+        Thread thread = audioThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void runDispatcher() {
+        try {
+            while (running) {
+                PlayRequest request = requests.poll();
+                if (request == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                try {
+                    dispatch(request);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to play sound: " + request.key + " (" + e + ")");
+                }
+            }
+        } finally {
+            stopVoices();
+        }
+    }
+
+    private void stopVoices() {
+        for (Voice voice : voices) {
+            AudioClip clip = voice.clip;
+            if (clip != null) {
+                clip.stop();
+                voice.clip = null;
+            }
+        }
+    }
+
+    private void dispatch(PlayRequest request) {
+        AudioClip clip = assetManager.getAudio(request.key);
+        if (clip == null) {
+            if (!request.warmUp) {
+                missing.increment();
+            }
+            return;
+        }
+
+        if (request.warmUp) {
+            clip.play(0.0);
+            return;
+        }
+
+        long now = System.nanoTime();
+        Voice voice = acquireVoice(request.priority, now);
+        if (voice == null) {
+            dropped.increment();
+            return;
+        }
+
+        clip.play(request.volume);
+        voice.clip = clip;
+        voice.priority = request.priority;
+        voice.startNanos = now;
+
+        long latency = System.nanoTime() - request.triggerNanos;
+        played.increment();
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    private Voice acquireVoice(Priority priority, long now) {
+        Voice victim = null;
+        for (Voice voice : voices) {
+            if (voice.isFree(now)) {
+                voice.clip = null;
+                return voice;
+            }
+            if (victim == null || voice.priority.compareTo(victim.priority) < 0 ||
+                (voice.priority == victim.priority && voice.startNanos < victim.startNanos)) {
+                victim = voice;
+            }
+        }
+
+        if (victim == null || victim.priority.compareTo(priority) > 0) {
+            return null;
+        }
+        victim.clip.stop();
+        victim.clip = null;
+        stolen.increment();
+        return victim;
+    }
+
+    /**
+     * Get number of voices currently playing
+     */
+    public int getActiveVoiceCount() {
+        long now = System.nanoTime();
+        int count = 0;
+        for (Voice voice : voices) {
+            if (!voice.isFree(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getMaxVoices() { return voices.length; }
+    public long getPlayedCount() { return played.sum(); }
+    public long getDroppedCount() { return dropped.sum(); }
+    public long getStolenCount() { return stolen.sum(); }
+    public long getMissingCount() { return missing.sum(); }
+
+    /**
+     * Get average time from play() to the clip starting, in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        long count = played.sum();
+        return count == 0 ? 0 : totalLatencyNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Get worst time from play() to the clip starting, in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Get playback statistics
+     */
+    public String getStats() {
+        return String.format("Voices: %d/%d, played: %d, stolen: %d, dropped: %d, latency avg: %.2f ms, max: %.2f ms",
+                           getActiveVoiceCount(), voices.length, getPlayedCount(), getStolenCount(),
+                           getDroppedCount(), getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+
+    /**
+     * A queued play request
+     */
+    private static class PlayRequest {
+        private final String key;
+        private final Priority priority;
+        private final double volume;
+        private final boolean warmUp;
+        private final long triggerNanos;
+
+        PlayRequest(String key, Priority priority, double volume, boolean warmUp) {
+            this.key = key;
+            this.priority = priority;
+            this.volume = volume;
+            this.warmUp = warmUp;
+            this.triggerNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * A voice slot, only written by the audio thread
+     */
+    private static class Voice {
+        private volatile AudioClip clip;
+        private volatile Priority priority = Priority.LOW;
+        private volatile long startNanos;
+
+        boolean isFree(long now) {
+            AudioClip current = clip;
+            return current == null || (now - startNanos > VOICE_START_GRACE_NANOS && !current.isPlaying());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.stickhero.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs startup tasks in dependency order once {@link #start} is called.
+ *
+ * Each task runs on the executor it was added with as soon as the tasks it
+ * depends on have finished, so independent tasks run in parallel. A task
+ * can only depend on tasks added before it, which rules out cycles. If a
+ * task fails, the tasks depending on it fail too without running.
+ */
+public class Bootstrapper {
+
+    private final Map<String, CompletableFuture<Void>> tasks;
+    private final CompletableFuture<Void> started;
+    private final ExecutorService backgroundExecutor;
+
+    public Bootstrapper() {
+        this.tasks = new LinkedHashMap<>();
+        this.started = new CompletableFuture<>();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.backgroundExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "bootstrap-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the executor for tasks that should run off the FX thread
+     */
+    public Executor background() {
+        return backgroundExecutor;
+    }
+
+    /**
+     * Add a task that is finished when its action returns
+     */
+    public synchronized CompletableFuture<Void> add(String name, Executor executor, Runnable action,
+                                                    String... dependencies) {
+        return addAsync(name, executor, () -> {
+            action.run();
+            return CompletableFuture.completedFuture(null);
+        }, dependencies);
+    }
+
+    /**
+     * Add a task that is finished when the stage returned by its action completes
+     */
+    public synchronized CompletableFuture<Void> addAsync(String name, Executor executor,
+                                                         Supplier<? extends CompletionStage<?>> action,
+                                                         String... dependencies) {
+        if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup task: " + name);
+        }
+
+        CompletableFuture<Void> task = whenReady(dependencies)
+            .thenComposeAsync(ignored -> action.get().thenApply(result -> (Object) result), executor)
+            .handle((result, error) -> {
+                if (error != null) {
+                    System.err.println("Startup task failed: " + name + " (" + error + ")");
+                    throw new IllegalStateException("Startup task failed: " + name, error);
+                }
+                StartupTimeline.mark("boot: " + name);
+                return null;
+            });
+        tasks.put(name, task);
+        return task;
+    }
+
+    /**
+     * Get a future that completes when all the named tasks have finished, or
+     * once the bootstrapper has started if no tasks are named
+     */
+    public synchronized CompletableFuture<Void> whenReady(String... names) {
+        if (names.length == 0) {
+            return started;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            futures[i] = tasks.get(names[i]);
+            if (futures[i] == null) {
+                throw new IllegalArgumentException("Unknown startup task: " + names[i]);
+            }
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    public synchronized boolean hasTask(String name) {
+        return tasks.containsKey(name);
+    }
+
+    /**
+     * Start running tasks. Tasks added afterwards start as soon as their dependencies allow.
+     */
+    public void start() {
+        started.complete(null);
+    }
+
+    /**
+     * Stop the background threads; unfinished tasks are abandoned
+     */
+    public void shutdown() {
+        backgroundExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,140 @@
+package com.stickhero.utils;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long each phase of a frame takes.
+ *
+ * The game loop calls {@link #beginFrame} once per frame and then
+ * {@link #lap} after each phase; a lap records the time since the previous
+ * lap. Timings go into one fixed-size histogram per phase. Every
+ * {@link #WINDOW_FRAMES} frames the percentiles are copied into a snapshot
+ * for display and the histograms start over, so the overlay always shows
+ * recent behaviour. Nothing here allocates after construction.
+ *
+ * When the JVM supports it, the same laps also measure bytes allocated per
+ * phase through an {@link AllocationTracker}.
+ */
+public class FrameProfiler {
+
+    public enum Phase {
+        UPDATE, CAMERA, BACKGROUND, PLATFORMS, STICK, HERO, PARTICLES, HUD, FRAME
+    }
+
+    public static final int WINDOW_FRAMES = 120;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final Histogram[] histograms;
+    private final Histogram frameInterval;
+    private final long[] lastNanos;
+    private final AllocationTracker allocationTracker;
+
+    // Snapshot of the last completed window, in nanoseconds
+    private final long[] p50;
+    private final long[] p99;
+    private final long[] max;
+    private double fps;
+
+    private long frameStart;
+    private long lapStart;
+    private long lastFrameStart;
+    private int framesInWindow;
+
+    public FrameProfiler() {
+        histograms = new Histogram[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) {
+            histograms[i] = new Histogram();
+        }
+        frameInterval = new Histogram();
+        lastNanos = new long[PHASES.length];
+        p50 = new long[PHASES.length];
+        p99 = new long[PHASES.length];
+        max = new long[PHASES.length];
+        allocationTracker = AllocationTracker.create();
+    }
+
+    /**
+     * Start timing a new frame
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+        if (lastFrameStart != 0) {
+            frameInterval.record(now - lastFrameStart);
+        }
+        lastFrameStart = now;
+        frameStart = now;
+        lapStart = now;
+        Arrays.fill(lastNanos, 0);
+        if (allocationTracker != null) {
+            allocationTracker.beginFrame();
+        }
+    }
+
+    /**
+     * Record the time since the previous lap as the given phase
+     */
+    public void lap(Phase phase) {
+        long now = System.nanoTime();
+        long elapsed = now - lapStart;
+        histograms[phase.ordinal()].record(elapsed);
+        lastNanos[phase.ordinal()] = elapsed;
+        lapStart = now;
+        if (allocationTracker != null) {
+            allocationTracker.lap(phase);
+        }
+    }
+
+    /**
+     * Finish timing the current frame
+     */
+    public void endFrame() {
+        long elapsed = System.nanoTime() - frameStart;
+        histograms[Phase.FRAME.ordinal()].record(elapsed);
+        lastNanos[Phase.FRAME.ordinal()] = elapsed;
+        if (allocationTracker != null) {
+            allocationTracker.endFrame();
+        }
+
+        if (++framesInWindow >= WINDOW_FRAMES) {
+            for (int i = 0; i < PHASES.length; i++) {
+                Histogram histogram = histograms[i];
+                p50[i] = histogram.getPercentile(50);
+                p99[i] = histogram.getPercentile(99);
+                max[i] = histogram.getMaxNanos();
+                histogram.reset();
+            }
+            double meanInterval = frameInterval.getMeanNanos();
+            fps = meanInterval > 0 ? 1_000_000_000.0 / meanInterval : 0;
+            frameInterval.reset();
+            framesInWindow = 0;
+        }
+    }
+
+    // Snapshot of the last completed window
+    public double getP50Millis(Phase phase) { return p50[phase.ordinal()] / 1_000_000.0; }
+    public double getP99Millis(Phase phase) { return p99[phase.ordinal()] / 1_000_000.0; }
+    public double getMaxMillis(Phase phase) { return max[phase.ordinal()] / 1_000_000.0; }
+    public double getFps() { return fps; }
+
+    /**
+     * Get the time spent in a phase during the current (or just finished) frame, in nanoseconds
+     */
+    public long getLastNanos(Phase phase) {
+        return lastNanos[phase.ordinal()];
+    }
+
+    /**
+     * Get the allocation tracker, or null if allocations can't be measured on this JVM
+     */
+    public AllocationTracker getAllocationTracker() {
+        return allocationTracker;
+    }
+
+    /**
+     * Get the live histogram for a phase in the current window
+     */
+    public Histogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+}
@@ -0,0 +1,110 @@
+package com.stickhero.utils;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of durations in nanoseconds.
+ *
+ * Values are bucketed with 16 sub-buckets per power of two of microseconds,
+ * which keeps the relative error of any percentile under about 6% from 1 µs
+ * up to about an hour. All storage is allocated up front, so recording never
+ * allocates and is cheap enough to do several times per frame.
+ */
+public class Histogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS / 2 * 34;
+    
+    private final long[] counts;
+    private long totalCount;
+    private long maxNanos;
+    private long sumNanos;
+    
+    public Histogram() {
+        counts = new long[BUCKET_COUNT];
+    }
+    
+    /**
+     * Record a duration
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucketIndex(nanos / 1000)]++;
+        totalCount++;
+        sumNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+    
+    /**
+     * Get the duration at a percentile (0-100), in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketUpperMicros(i) * 1000, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+    
+    /**
+     * Add all values recorded in another histogram
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sumNanos += other.sumNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+    
+    /**
+     * Clear all recorded values
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxNanos = 0;
+        sumNanos = 0;
+    }
+    
+    public long getCount() { return totalCount; }
+    public long getMaxNanos() { return maxNanos; }
+    
+    public double getMeanNanos() {
+        return totalCount == 0 ? 0 : (double) sumNanos / totalCount;
+    }
+    
+    // Raw buckets for exporting, in increasing order of duration
+    public int getBucketCount() { return BUCKET_COUNT; }
+    public long getBucketValue(int bucket) { return counts[bucket]; }
+    public long getBucketUpperMicros(int bucket) { return bucketUpperMicros(bucket); }
+    
+    private static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (micros >>> exponent) - SUB_BUCKETS / 2;
+        int index = exponent * SUB_BUCKETS / 2 + SUB_BUCKETS / 2 + subBucket;
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+    
+    private static long bucketUpperMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS / 2) / (SUB_BUCKETS / 2);
+        int subBucket = (index - SUB_BUCKETS / 2) % (SUB_BUCKETS / 2);
+        return (((long) (subBucket + SUB_BUCKETS / 2 + 1)) << exponent) - 1;
+    }
+}
@@ -0,0 +1,290 @@
+package com.stickhero.utils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures input-to-screen latency: how long it takes from an input event
+ * until the frame showing its effect is on screen.
+ *
+ * Each input that changes what is drawn is followed from its timestamp
+ * through the frame that applies it, and the time since the event is
+ * recorded at each stage (see {@link Stage}). JavaFX doesn't report when a
+ * frame is actually presented, so the start of the next pulse is used as
+ * the presentation time: the renderer has to finish the previous frame
+ * before a new one is handed over. With vsync on, that is close to the
+ * moment it reached the screen; the display's own latency isn't included.
+ *
+ * Real input is measured from when its handler ran, because JavaFX doesn't
+ * expose the OS event time. Synthetic input, injected with
+ * -Dstickhero.latencyProbe=synthetic, is measured from when it was posted to
+ * the FX thread, so the wait for the FX thread is included too. Samples are
+ * kept in separate histograms by kind and written as CSV when the game
+ * stops (-Dstickhero.latencyReport, default stickhero-latency.csv).
+ *
+ * Apart from the synthetic input thread everything runs on the FX thread,
+ * and recording doesn't allocate.
+ */
+public class LatencyProbe {
+
+    public static final String PROPERTY = "stickhero.latencyProbe";
+    public static final String REPORT_PROPERTY = "stickhero.latencyReport";
+    public static final String DEFAULT_REPORT = "stickhero-latency.csv";
+
+    /**
+     * Stages of a frame, each measured from the input event
+     */
+    public enum Stage {
+        /** The pulse that applies the input started */
+        PULSE,
+        /** The game world was updated with the input */
+        UPDATED,
+        /** The frame was drawn to the canvas */
+        RENDERED,
+        /** The scene was handed to the render thread */
+        SYNCED,
+        /** The next pulse started, so the frame had been presented */
+        PRESENTED
+    }
+
+    /**
+     * Drives the game from the synthetic input thread; both methods are called on the FX thread
+     */
+    public interface SyntheticInput {
+        /**
+         * Press at the given time, returning how long to hold in seconds, or -1 if the game can't take a press now
+         */
+        double press(long timestampNanos);
+
+        void release(long timestampNanos);
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final int MAX_PENDING = 16;
+    private static final long MIN_INTERVAL_MILLIS = 150;
+    private static final long MAX_INTERVAL_MILLIS = 400;
+
+    private final Histogram[][] histograms; // [synthetic ? 1 : 0][stage]
+    private final Path reportPath;
+
+    // Inputs shown by the current frame, then waiting for the next pulse
+    private final long[] frameNanos;
+    private final boolean[] frameSynthetic;
+    private int frameCount;
+    private final long[] presentingNanos;
+    private final boolean[] presentingSynthetic;
+    private int presentingCount;
+    private long pulseStart;
+    private long dropped;
+
+    private Thread syntheticThread;
+    private volatile boolean running;
+
+    public LatencyProbe(Path reportPath) {
+        this.histograms = new Histogram[2][STAGES.length];
+        for (Histogram[] kind : histograms) {
+            for (int i = 0; i < kind.length; i++) {
+                kind[i] = new Histogram();
+            }
+        }
+        this.reportPath = reportPath;
+        this.frameNanos = new long[MAX_PENDING];
+        this.frameSynthetic = new boolean[MAX_PENDING];
+        this.presentingNanos = new long[MAX_PENDING];
+        this.presentingSynthetic = new boolean[MAX_PENDING];
+    }
+
+    /**
+     * Create a probe from system properties, or return null if probing is off
+     */
+    public static LatencyProbe fromSystemProperties() {
+        String mode = System.getProperty(PROPERTY, "off");
+        if (mode.equals("off") || mode.equals("false")) {
+            return null;
+        }
+        return new LatencyProbe(Paths.get(System.getProperty(REPORT_PROPERTY, DEFAULT_REPORT)));
+    }
+
+    /**
+     * Check whether synthetic input should be injected
+     */
+    public static boolean isSyntheticEnabled() {
+        return System.getProperty(PROPERTY, "off").equals("synthetic");
+    }
+
+    /**
+     * Call at the start of every pulse, before the game is updated
+     */
+    public void beginPulse() {
+        pulseStart = System.nanoTime();
+        for (int i = 0; i < presentingCount; i++) {
+            record(presentingSynthetic[i], Stage.PRESENTED, pulseStart - presentingNanos[i]);
+        }
+        presentingCount = 0;
+    }
+
+    /**
+     * Call when the world has been updated with an input whose effect will be visible in this frame
+     */
+    public void inputApplied(long timestampNanos, boolean synthetic) {
+        if (frameCount == MAX_PENDING) {
+            dropped++;
+            return;
+        }
+        frameNanos[frameCount] = timestampNanos;
+        frameSynthetic[frameCount] = synthetic;
+        frameCount++;
+        record(synthetic, Stage.PULSE, pulseStart - timestampNanos);
+        record(synthetic, Stage.UPDATED, System.nanoTime() - timestampNanos);
+    }
+
+    /**
+     * Call once the frame has been drawn
+     */
+    public void frameRendered() {
+        if (frameCount == 0) return;
+        long now = System.nanoTime();
+        for (int i = 0; i < frameCount; i++) {
+            record(frameSynthetic[i], Stage.RENDERED, now - frameNanos[i]);
+        }
+    }
+
+    /**
+     * Call after the pulse's layout pass, just before the scene goes to the render thread
+     */
+    public void frameSynced() {
+        if (frameCount == 0) return;
+        long now = System.nanoTime();
+        for (int i = 0; i < frameCount; i++) {
+            record(frameSynthetic[i], Stage.SYNCED, now - frameNanos[i]);
+            if (presentingCount < MAX_PENDING) {
+                presentingNanos[presentingCount] = frameNanos[i];
+                presentingSynthetic[presentingCount] = frameSynthetic[i];
+                presentingCount++;
+            }
+        }
+        frameCount = 0;
+    }
+
+    private void record(boolean synthetic, Stage stage, long nanos) {
+        histograms[synthetic ? 1 : 0][stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * Start injecting synthetic presses and releases at random intervals
+     */
+    public void startSyntheticInput(SyntheticInput input) {
+        running = true;
+        syntheticThread = new Thread(() -> runSyntheticInput(input), "latency-probe");
+        syntheticThread.setDaemon(true);
+        syntheticThread.start();
+    }
+
+    private void runSyntheticInput(SyntheticInput input) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            while (running) {
+                // Random intervals so the events don't lock onto the pulse timing
+                Thread.sleep(random.nextLong(MIN_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS));
+                CompletableFuture<Double> hold = new CompletableFuture<>();
+                long pressed = System.nanoTime();
+                javafx.application.Platform.runLater(() -> hold.complete(input.press(pressed)));
+                double seconds = hold.get();
+                if (seconds < 0) continue;
+
+                Thread.sleep((long) (seconds * 1000));
+                long released = System.nanoTime();
+                javafx.application.Platform.runLater(() -> input.release(released));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Synthetic input failed: " + e.getCause());
+        }
+    }
+
+    /**
+     * Stop synthetic input and write the report
+     */
+    public void close() {
+        running = false;
+        if (syntheticThread != null) {
+            syntheticThread.interrupt();
+        }
+        try {
+            writeReport(reportPath);
+            System.err.print(formatSummary());
+            System.err.println("Latency report written to " + reportPath.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to write latency report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the histograms as CSV, one row per non-empty bucket, after a
+     * commented header describing the rendering setup
+     */
+    public void writeReport(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.println("# javafx.runtime.version=" + System.getProperty("javafx.runtime.version", ""));
+            out.println("# prism.order=" + System.getProperty("prism.order", ""));
+            out.println("# prism.vsync=" + System.getProperty("prism.vsync", "true"));
+            out.println("# os=" + System.getProperty("os.name") + " " + System.getProperty("os.version"));
+            out.println("# dropped=" + dropped);
+            out.println("kind,stage,count,p50_us,p90_us,p99_us,max_us,bucket_upper_us,bucket_count");
+            for (int kind = 0; kind < histograms.length; kind++) {
+                for (Stage stage : STAGES) {
+                    Histogram histogram = histograms[kind][stage.ordinal()];
+                    if (histogram.getCount() == 0) continue;
+                    String prefix = (kind == 1 ? "synthetic" : "input") + "," + stage.name().toLowerCase() + "," +
+                                    histogram.getCount() + "," + histogram.getPercentile(50) / 1000 + "," +
+                                    histogram.getPercentile(90) / 1000 + "," + histogram.getPercentile(99) / 1000 +
+                                    "," + histogram.getMaxNanos() / 1000 + ",";
+                    for (int bucket = 0; bucket < histogram.getBucketCount(); bucket++) {
+                        long count = histogram.getBucketValue(bucket);
+                        if (count > 0) {
+                            out.println(prefix + histogram.getBucketUpperMicros(bucket) + "," + count);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Format the percentiles of each stage as a table
+     */
+    public String formatSummary() {
+        StringBuilder summary = new StringBuilder("Input latency (ms from event):\n");
+        for (int kind = 0; kind < histograms.length; kind++) {
+            for (Stage stage : STAGES) {
+                Histogram histogram = histograms[kind][stage.ordinal()];
+                if (histogram.getCount() == 0) continue;
+                summary.append(String.format("  %-9s %-9s n=%-6d p50 %6.2f  p90 %6.2f  p99 %6.2f  max %6.2f%n",
+                                             kind == 1 ? "synthetic" : "input", stage.name().toLowerCase(),
+                                             histogram.getCount(), histogram.getPercentile(50) / 1e6,
+                                             histogram.getPercentile(90) / 1e6, histogram.getPercentile(99) / 1e6,
+                                             histogram.getMaxNanos() / 1e6));
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Get the histogram for a kind of input and stage
+     */
+    public Histogram getHistogram(boolean synthetic, Stage stage) {
+        return histograms[synthetic ? 1 : 0][stage.ordinal()];
+    }
+}
@@ -1,5 +1,7 @@
 package com.stickhero.utils;
 
+import com.stickhero.entities.Platform;
+import com.stickhero.jfr.ParticleBurstEvent;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
@@ -16,25 +18,109 @@ public class ParticleSystem {
     private List<Particle> particles;
     private Random random;
     
+    // Collision world
+    private SpatialHashGrid collisionGrid;
+    private double groundY;
+    
+    // Quality settings, adjustable at runtime from any thread
+    private volatile int particleBudget;
+    private volatile boolean glowEnabled;
+    
+    // Constants
+    private static final double RESTITUTION = 0.35; // fraction of speed kept on bounce
+    private static final double SETTLE_SPEED = 25.0; // pixels/second below which particles come to rest
+    private static final double SURFACE_FRICTION = 0.85; // horizontal damping while resting
+    public static final int DEFAULT_PARTICLE_BUDGET = 2000;
+    
     public ParticleSystem() {
         particles = new ArrayList<>();
         random = new Random();
+        groundY = Double.POSITIVE_INFINITY;
+        particleBudget = DEFAULT_PARTICLE_BUDGET;
+        glowEnabled = true;
     }
     
     public void update(double deltaTime) {
         Iterator<Particle> iterator = particles.iterator();
         while (iterator.hasNext()) {
             Particle particle = iterator.next();
+            double previousBottom = particle.y + particle.size / 2;
             particle.update(deltaTime);
+            resolveCollisions(particle, previousBottom);
             if (particle.isDead()) {
                 iterator.remove();
             }
         }
     }
     
+    /**
+     * Set the platforms particles collide with. Pass null to disable platform collisions.
+     */
+    public void setCollisionGrid(SpatialHashGrid collisionGrid) {
+        this.collisionGrid = collisionGrid;
+    }
+    
+    /**
+     * Set the ground surface Y coordinate particles settle on
+     */
+    public void setGroundY(double groundY) {
+        this.groundY = groundY;
+    }
+    
+    private void resolveCollisions(Particle particle, double previousBottom) {
+        if (particle.resting) {
+            // Slide off the edge of the supporting platform
+            Platform support = particle.support;
+            if (support != null && (particle.x < support.getX() || particle.x > support.getRightX())) {
+                particle.resting = false;
+                particle.support = null;
+            } else {
+                particle.y = particle.surfaceY - particle.size / 2;
+            }
+            return;
+        }
+        
+        if (particle.velocityY <= 0) return;
+        
+        double bottom = particle.y + particle.size / 2;
+        
+        if (collisionGrid != null) {
+            List<Platform> candidates = collisionGrid.query(particle.x, bottom);
+            for (int i = 0; i < candidates.size(); i++) {
+                Platform platform = candidates.get(i);
+                double top = platform.getTopY();
+                if (particle.x >= platform.getX() && particle.x <= platform.getRightX() &&
+                    previousBottom <= top && bottom >= top) {
+                    landOn(particle, top, platform);
+                    return;
+                }
+            }
+        }
+        
+        if (previousBottom <= groundY && bottom >= groundY) {
+            landOn(particle, groundY, null);
+        }
+    }
+    
+    private void landOn(Particle particle, double surfaceY, Platform support) {
+        particle.y = surfaceY - particle.size / 2;
+        
+        if (particle.velocityY > SETTLE_SPEED) {
+            // Bounce
+            particle.velocityY = -particle.velocityY * RESTITUTION;
+        } else {
+            // Settle on the surface
+            particle.velocityY = 0;
+            particle.resting = true;
+            particle.surfaceY = surfaceY;
+            particle.support = support;
+        }
+    }
+    
     public void render(GraphicsContext gc) {
+        boolean glow = glowEnabled;
         for (Particle particle : particles) {
-            particle.render(gc);
+            particle.render(gc, glow);
         }
     }
     
@@ -42,7 +128,11 @@ public class ParticleSystem {
      * Create particles for success effect
      */
     public void createSuccessParticles(double x, double y) {
-        for (int i = 0; i < 15; i++) {
+        ParticleBurstEvent event = new ParticleBurstEvent();
+        event.begin();
+        int liveBefore = particles.size();
+        
+        for (int i = 0; i < 15 && particles.size() < particleBudget; i++) {
             double velocityX = (random.nextDouble() - 0.5) * 100;
             double velocityY = -random.nextDouble() * 80 - 20; // Upward
             Color color = Color.hsb(60 + random.nextDouble() * 60, 0.8, 0.9); // Yellow to green
@@ -51,13 +141,19 @@ public class ParticleSystem {
             
             particles.add(new Particle(x, y, velocityX, velocityY, color, size, lifetime, ParticleType.SPARK));
         }
+        
+        recordBurst(event, "success", particles.size() - liveBefore, x, y);
     }
     
     /**
      * Create particles for failure effect
      */
     public void createFailParticles(double x, double y) {
-        for (int i = 0; i < 20; i++) {
+        ParticleBurstEvent event = new ParticleBurstEvent();
+        event.begin();
+        int liveBefore = particles.size();
+        
+        for (int i = 0; i < 20 && particles.size() < particleBudget; i++) {
             double velocityX = (random.nextDouble() - 0.5) * 120;
             double velocityY = -random.nextDouble() * 60 - 10;
             Color color = Color.hsb(0 + random.nextDouble() * 30, 0.8, 0.9); // Red to orange
@@ -66,13 +162,19 @@ public class ParticleSystem {
             
             particles.add(new Particle(x, y, velocityX, velocityY, color, size, lifetime, ParticleType.SPARK));
         }
+        
+        recordBurst(event, "fail", particles.size() - liveBefore, x, y);
     }
     
     /**
      * Create dust particles when hero lands
      */
     public void createDustParticles(double x, double y) {
-        for (int i = 0; i < 8; i++) {
+        ParticleBurstEvent event = new ParticleBurstEvent();
+        event.begin();
+        int liveBefore = particles.size();
+        
+        for (int i = 0; i < 8 && particles.size() < particleBudget; i++) {
             double velocityX = (random.nextDouble() - 0.5) * 40;
             double velocityY = -random.nextDouble() * 30;
             Color color = Color.rgb(139, 119, 101, 0.7); // Dusty brown
@@ -81,13 +183,19 @@ public class ParticleSystem {
             
             particles.add(new Particle(x, y, velocityX, velocityY, color, size, lifetime, ParticleType.DUST));
         }
+        
+        recordBurst(event, "dust", particles.size() - liveBefore, x, y);
     }
     
     /**
      * Create particles for stick impact
      */
     public void createStickImpactParticles(double x, double y) {
-        for (int i = 0; i < 5; i++) {
+        ParticleBurstEvent event = new ParticleBurstEvent();
+        event.begin();
+        int liveBefore = particles.size();
+        
+        for (int i = 0; i < 5 && particles.size() < particleBudget; i++) {
             double velocityX = (random.nextDouble() - 0.5) * 30;
             double velocityY = -random.nextDouble() * 20;
             Color color = Color.BROWN;
@@ -96,6 +204,37 @@ public class ParticleSystem {
             
             particles.add(new Particle(x, y, velocityX, velocityY, color, size, lifetime, ParticleType.DEBRIS));
         }
+        
+        recordBurst(event, "stick_impact", particles.size() - liveBefore, x, y);
+    }
+    
+    private void recordBurst(ParticleBurstEvent event, String effect, int spawned, double x, double y) {
+        if (event.shouldCommit()) {
+            event.effect = effect;
+            event.spawned = spawned;
+            event.liveParticles = particles.size();
+            event.x = x;
+            event.y = y;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Set the maximum number of live particles; bursts are cut short at the limit
+     */
+    public void setParticleBudget(int particleBudget) {
+        this.particleBudget = Math.max(0, particleBudget);
+    }
+    
+    public int getParticleBudget() {
+        return particleBudget;
+    }
+    
+    /**
+     * Enable or disable the glow halo drawn around sparks
+     */
+    public void setGlowEnabled(boolean glowEnabled) {
+        this.glowEnabled = glowEnabled;
     }
     
     /**
@@ -126,6 +265,11 @@ public class ParticleSystem {
         private ParticleType type;
         private double initialSize;
         
+        // Surface contact
+        private boolean resting;
+        private double surfaceY;
+        private Platform support;
+        
         public Particle(double x, double y, double velocityX, double velocityY, 
                        Color color, double size, double lifetime, ParticleType type) {
             this.x = x;
@@ -147,13 +291,13 @@ public class ParticleSystem {
             x += velocityX * deltaTime;
             y += velocityY * deltaTime;
             
-            // Apply gravity (except for certain particle types)
-            if (type != ParticleType.FLOAT) {
+            // Apply gravity (except for certain particle types and resting particles)
+            if (type != ParticleType.FLOAT && !resting) {
                 velocityY += gravity * deltaTime;
             }
             
-            // Apply air resistance
-            velocityX *= 0.98;
+            // Apply air resistance, or surface friction while resting
+            velocityX *= resting ? SURFACE_FRICTION : 0.98;
             velocityY *= 0.98;
             
             // Update visual properties based on age
@@ -182,7 +326,7 @@ public class ParticleSystem {
             }
         }
         
-        public void render(GraphicsContext gc) {
+        public void render(GraphicsContext gc, boolean glow) {
             if (size <= 0) return;
             
             gc.setFill(color);
@@ -191,6 +335,7 @@ public class ParticleSystem {
                 case SPARK:
                     // Draw as bright circle with glow effect
                     gc.fillOval(x - size/2, y - size/2, size, size);
+                    if (!glow) break;
                     // Add glow
                     Color glowColor = Color.color(color.getRed(), color.getGreen(), color.getBlue(), 0.3);
                     gc.setFill(glowColor);
@@ -0,0 +1,129 @@
+package com.stickhero.utils;
+
+import com.stickhero.entities.Platform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uniform spatial hash over platform rectangles.
+ *
+ * The world is divided into square cells of a fixed size and every cell is
+ * hashed into a fixed table of buckets, so the grid covers an unbounded
+ * scrolling world without growing. A platform is stored in the bucket of
+ * every cell it overlaps; a point query only has to look at one bucket.
+ * Buckets can be shared by unrelated cells, so callers must still test the
+ * returned platforms against the point.
+ *
+ * Platforms must be removed before their bounds are changed and added again
+ * afterwards.
+ */
+public class SpatialHashGrid {
+
+    private static final int DEFAULT_BUCKET_COUNT = 256;
+
+    private final double cellSize;
+    private final List<Platform>[] buckets;
+    private final int mask;
+    private int size;
+
+    public SpatialHashGrid(double cellSize) {
+        this(cellSize, DEFAULT_BUCKET_COUNT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SpatialHashGrid(double cellSize, int bucketCount) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        if (bucketCount <= 0 || Integer.bitCount(bucketCount) != 1) {
+            throw new IllegalArgumentException("Bucket count must be a power of two: " + bucketCount);
+        }
+        this.cellSize = cellSize;
+        this.mask = bucketCount - 1;
+        this.buckets = new List[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new ArrayList<>(4);
+        }
+    }
+
+    /**
+     * Add a platform to every cell it overlaps
+     */
+    public void insert(Platform platform) {
+        int minCellX = cell(platform.getX());
+        int maxCellX = cell(platform.getRightX());
+        int minCellY = cell(platform.getY());
+        int maxCellY = cell(platform.getY() + platform.getHeight());
+
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                List<Platform> bucket = buckets[bucketIndex(cx, cy)];
+                if (!bucket.contains(platform)) {
+                    bucket.add(platform);
+                }
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Remove a platform from every cell it overlaps
+     */
+    public void remove(Platform platform) {
+        int minCellX = cell(platform.getX());
+        int maxCellX = cell(platform.getRightX());
+        int minCellY = cell(platform.getY());
+        int maxCellY = cell(platform.getY() + platform.getHeight());
+
+        boolean removed = false;
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                removed |= buckets[bucketIndex(cx, cy)].remove(platform);
+            }
+        }
+        if (removed) {
+            size--;
+        }
+    }
+
+    /**
+     * Get the candidate platforms near a point. The returned list is owned by
+     * the grid and must not be modified.
+     */
+    public List<Platform> query(double x, double y) {
+        List<Platform> bucket = buckets[bucketIndex(cell(x), cell(y))];
+        return bucket.isEmpty() ? Collections.emptyList() : bucket;
+    }
+
+    /**
+     * Remove all platforms
+     */
+    public void clear() {
+        for (List<Platform> bucket : buckets) {
+            bucket.clear();
+        }
+        size = 0;
+    }
+
+    /**
+     * Get number of platforms in the grid
+     */
+    public int size() {
+        return size;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int bucketIndex(int cellX, int cellY) {
+        int hash = cellX * 73856093 ^ cellY * 19349663;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,124 @@
+package com.stickhero.utils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records named checkpoints from process start to the first rendered frame
+ * and on until gameplay is ready, logging them when each of those is reached.
+ *
+ * Times are measured with System.nanoTime from the first use of this class
+ * and offset by how long the process had been running at that point
+ * (from the OS process start time, which has roughly 10 ms resolution).
+ * Set -Dstickhero.startupLog=false to silence the log, and
+ * -Dstickhero.exitAfterFirstFrame=true to quit right after the first frame
+ * (used as the training run for the AppCDS archive).
+ */
+public final class StartupTimeline {
+
+    public static final String LOG_PROPERTY = "stickhero.startupLog";
+    public static final String EXIT_PROPERTY = "stickhero.exitAfterFirstFrame";
+
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final double ORIGIN_MILLIS = processAgeMillis();
+    private static final List<Checkpoint> checkpoints = new ArrayList<>();
+    private static double firstFrameMillis = -1;
+    private static int reportedCount;
+    private static boolean finished;
+
+    private StartupTimeline() {
+    }
+
+    private static double processAgeMillis() {
+        try {
+            return ProcessHandle.current().info().startInstant()
+                .map(start -> (double) (Instant.now().toEpochMilli() - start.toEpochMilli()))
+                .orElse(0.0);
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Get milliseconds since the process started
+     */
+    public static double millisSinceStart() {
+        return ORIGIN_MILLIS + (System.nanoTime() - ORIGIN_NANOS) / 1_000_000.0;
+    }
+
+    /**
+     * Record a checkpoint. Ignored once gameplay is ready.
+     */
+    public static synchronized void mark(String name) {
+        if (finished) return;
+        checkpoints.add(new Checkpoint(name, Thread.currentThread().getName(), millisSinceStart()));
+    }
+
+    /**
+     * Record the first rendered frame and log the timeline so far. Only the first call counts.
+     */
+    public static void markFirstFrame() {
+        String report;
+        synchronized (StartupTimeline.class) {
+            if (firstFrameMillis >= 0 || finished) return;
+            mark("first frame");
+            firstFrameMillis = checkpoints.get(checkpoints.size() - 1).millis;
+            report = formatUnreported("Startup (ms since process start):\n");
+        }
+        log(report);
+    }
+
+    /**
+     * Record that gameplay can start, log the checkpoints since the first frame
+     * and stop recording. Only the first call counts.
+     */
+    public static void markReady() {
+        String report;
+        synchronized (StartupTimeline.class) {
+            if (finished) return;
+            mark("gameplay ready");
+            finished = true;
+            report = formatUnreported("");
+        }
+        log(report);
+    }
+
+    private static void log(String report) {
+        if (Boolean.parseBoolean(System.getProperty(LOG_PROPERTY, "true"))) {
+            System.err.print(report);
+        }
+    }
+
+    /**
+     * Get the time of the first rendered frame, or -1 if there hasn't been one yet
+     */
+    public static synchronized double getFirstFrameMillis() {
+        return firstFrameMillis;
+    }
+
+    private static String formatUnreported(String header) {
+        StringBuilder report = new StringBuilder(header);
+        double previous = reportedCount > 0 ? checkpoints.get(reportedCount - 1).millis : 0;
+        for (int i = reportedCount; i < checkpoints.size(); i++) {
+            Checkpoint checkpoint = checkpoints.get(i);
+            report.append(String.format("  %-26s %8.1f  +%7.1f  [%s]%n", checkpoint.name, checkpoint.millis,
+                                        checkpoint.millis - previous, checkpoint.thread));
+            previous = checkpoint.millis;
+        }
+        reportedCount = checkpoints.size();
+        return report.toString();
+    }
+
+    private static class Checkpoint {
+        private final String name;
+        private final String thread;
+        private final double millis;
+
+        Checkpoint(String name, String thread, double millis) {
+            this.name = name;
+            this.thread = thread;
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.stickhero.utils;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} whose state can be read and restored, e.g. for snapshots.
+ *
+ * Uses the same 48-bit linear congruential generator that Random
+ * specifies, so a seed produces exactly the same sequence as a plain
+ * Random. The state doesn't include the cached second value of
+ * nextGaussian. Not thread safe.
+ */
+public class StatefulRandom extends Random {
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    public StatefulRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Get the generator state; only the low 48 bits are used
+     */
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
@@ -0,0 +1,108 @@
+package com.stickhero.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Region index for the texture atlas pages generated at build time by the
+ * packAtlas Gradle task. Each image under src/main/resources/images is
+ * packed into one of a few shared page images; this index maps an image key
+ * (its path under images/, without extension) to its page and rectangle.
+ *
+ * Index files are plain text:
+ * <pre>
+ * page   0 /atlas/atlas-0.png
+ * region hero 0 2 2 20 40
+ * </pre>
+ */
+public class TextureAtlas {
+    
+    private final List<String> pagePaths;
+    private final Map<String, AtlasRegion> regions;
+    
+    public TextureAtlas() {
+        pagePaths = new ArrayList<>();
+        regions = new HashMap<>();
+    }
+    
+    /**
+     * Load an atlas index from resources. A missing index yields an empty atlas.
+     */
+    public static TextureAtlas fromResource(String resourcePath) {
+        TextureAtlas atlas = new TextureAtlas();
+        InputStream inputStream = TextureAtlas.class.getResourceAsStream(resourcePath);
+        if (inputStream == null) {
+            return atlas;
+        }
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                
+                String[] parts = line.split("\\s+");
+                try {
+                    if (parts[0].equals("page") && parts.length == 3) {
+                        atlas.addPage(Integer.parseInt(parts[1]), parts[2]);
+                    } else if (parts[0].equals("region") && parts.length == 7) {
+                        atlas.regions.put(parts[1], new AtlasRegion(parts[1], Integer.parseInt(parts[2]),
+                            Double.parseDouble(parts[3]), Double.parseDouble(parts[4]),
+                            Double.parseDouble(parts[5]), Double.parseDouble(parts[6])));
+                    } else {
+                        System.err.println("Invalid atlas index line " + lineNumber + " in " + resourcePath + ": " + line);
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid atlas index line " + lineNumber + " in " + resourcePath + ": " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read atlas index: " + resourcePath);
+            e.printStackTrace();
+        }
+        return atlas;
+    }
+    
+    private void addPage(int index, String resourcePath) {
+        while (pagePaths.size() <= index) {
+            pagePaths.add(null);
+        }
+        pagePaths.set(index, resourcePath);
+    }
+    
+    /**
+     * Get the region for an image key, or null if the image is not in the atlas
+     */
+    public AtlasRegion getRegion(String key) {
+        return regions.get(key);
+    }
+    
+    /**
+     * Get the resource path of a page image
+     */
+    public String getPagePath(int page) {
+        return page >= 0 && page < pagePaths.size() ? pagePaths.get(page) : null;
+    }
+    
+    public List<String> getPagePaths() {
+        return Collections.unmodifiableList(pagePaths);
+    }
+    
+    public int getPageCount() {
+        return pagePaths.size();
+    }
+    
+    public int getRegionCount() {
+        return regions.size();
+    }
+}
@@ -0,0 +1,82 @@
+package com.stickhero.versus;
+
+/**
+ * One player's button over time, stored as the ticks at which it changed.
+ *
+ * The button starts up and every change flips it, so the state at a tick is
+ * the parity of the changes at or before it. Changes must be added in
+ * increasing tick order. Changes that nothing will look at again can be
+ * discarded, which keeps the storage fixed for a race of any length.
+ */
+class InputTimeline {
+
+    private static final int CAPACITY = 256;
+
+    private final int[] ticks;
+    private int size;
+    private boolean baseDown; // state before the first stored change
+
+    InputTimeline() {
+        ticks = new int[CAPACITY];
+    }
+
+    /**
+     * Record that the button changed at a tick. Returns false if the tick
+     * isn't after the last change or the timeline is full.
+     */
+    boolean add(int tick) {
+        if (size > 0 && tick <= ticks[size - 1]) return false;
+        if (size == CAPACITY) return false;
+        ticks[size++] = tick;
+        return true;
+    }
+
+    /**
+     * Get whether the button is down at a tick
+     */
+    boolean isDown(int tick) {
+        // Usually asked about recent ticks, so search from the end
+        int changes = size;
+        while (changes > 0 && ticks[changes - 1] > tick) {
+            changes--;
+        }
+        return baseDown ^ (changes & 1) == 1;
+    }
+
+    /**
+     * Get whether the button is down after the last change
+     */
+    boolean isDownNow() {
+        return baseDown ^ (size & 1) == 1;
+    }
+
+    /**
+     * Get the tick of the last change, or -1 if there are none
+     */
+    int lastChangeTick() {
+        return size > 0 ? ticks[size - 1] : -1;
+    }
+
+    /**
+     * Forget changes before a tick; the state at and after it is unaffected
+     */
+    void discardBefore(int tick) {
+        int discard = 0;
+        while (discard < size && ticks[discard] < tick) {
+            discard++;
+        }
+        if (discard == 0) return;
+        // The last discarded change still matters for lastChangeTick, so keep it if it was the last one
+        if (discard == size) {
+            discard--;
+            if (discard == 0) return;
+        }
+        baseDown ^= (discard & 1) == 1;
+        System.arraycopy(ticks, discard, ticks, 0, size - discard);
+        size -= discard;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,276 @@
+package com.stickhero.versus;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A two-player race on the same seeded course, kept in lockstep by
+ * exchanging only input.
+ *
+ * Both sides simulate both racers at a fixed tick. The local player's
+ * presses take effect {@link #getInputDelay} ticks after they happen and
+ * are sent right away, so they usually reach the other side before it
+ * needs them. When the opponent's input for a tick hasn't arrived, their
+ * button is predicted to stay as it last was. If a change then arrives for
+ * a tick that was already simulated, the opponent's racer is rolled back
+ * to the last tick whose input was fully known and simulated forward again.
+ * Only the opponent's racer ever rolls back: the two worlds don't interact,
+ * and the local input is always known.
+ *
+ * To keep rollbacks short, neither side runs more than
+ * {@link #MAX_PREDICTION_TICKS} ahead of the input it has from the other;
+ * it waits instead. Besides input changes each side sends a SYNC every
+ * {@link #SYNC_INTERVAL_TICKS} ticks saying how far its input is final,
+ * and a checksum of its own racer every {@link #CHECKSUM_INTERVAL_TICKS},
+ * which the other side compares with its copy to detect a desync. That is
+ * about 40 bytes per second when nobody is pressing anything.
+ *
+ * Not thread-safe; the game loop calls {@link #advance} and the input methods.
+ */
+public class LockstepRace {
+
+    public static final double TICK_SECONDS = 1.0 / 60;
+    public static final int DEFAULT_INPUT_DELAY = 2;
+    public static final int DEFAULT_TARGET_SCORE = 10;
+    public static final int MAX_PREDICTION_TICKS = 30;
+    public static final int SYNC_INTERVAL_TICKS = 10;
+    public static final int CHECKSUM_INTERVAL_TICKS = 120;
+
+    private static final int CHECKSUM_SLOTS = 8;
+
+    public enum Result {
+        RACING, WON, LOST, DRAW
+    }
+
+    private final VersusConnection connection;
+    private final int inputDelay;
+    private final Racer local;
+    private final Racer remote;          // simulated to the current tick, partly on predicted input
+    private final Racer confirmedRemote; // simulated only as far as the opponent's input is known
+    private final InputTimeline localInput;
+    private final InputTimeline remoteInput;
+    private final MessageHandler handler;
+
+    private int tick;               // next tick to simulate
+    private int confirmedTick;      // next tick of confirmedRemote
+    private int remoteKnownThrough; // opponent's input is final up to and including this tick
+    private int sentThrough;        // our input as announced to the opponent
+    private int rollbackFrom;       // earliest mispredicted tick, or Integer.MAX_VALUE
+    private boolean opponentLeft;
+    private boolean desynced;
+
+    // Checksums of the opponent's racer at the same ticks, ours and theirs
+    private final int[] localChecksumTicks;
+    private final int[] localChecksums;
+    private final int[] remoteChecksumTicks;
+    private final int[] remoteChecksums;
+
+    private long rollbacks;
+    private long resimulatedTicks;
+    private long stalledTicks;
+
+    public LockstepRace(VersusConnection connection, double worldHeight, int inputDelay, int targetScore) {
+        this.connection = connection;
+        this.inputDelay = inputDelay;
+        this.local = new Racer(worldHeight, connection.getSeed(), targetScore);
+        this.remote = new Racer(worldHeight, connection.getSeed(), targetScore);
+        this.confirmedRemote = new Racer(worldHeight, connection.getSeed(), targetScore);
+        this.localInput = new InputTimeline();
+        this.remoteInput = new InputTimeline();
+        this.handler = new MessageHandler();
+        this.remoteKnownThrough = -1;
+        this.sentThrough = -1;
+        this.rollbackFrom = Integer.MAX_VALUE;
+        this.localChecksumTicks = new int[CHECKSUM_SLOTS];
+        this.localChecksums = new int[CHECKSUM_SLOTS];
+        this.remoteChecksumTicks = new int[CHECKSUM_SLOTS];
+        this.remoteChecksums = new int[CHECKSUM_SLOTS];
+        Arrays.fill(localChecksumTicks, -1);
+        Arrays.fill(remoteChecksumTicks, -1);
+    }
+
+    /**
+     * The local player pressed the button
+     */
+    public void press() throws IOException {
+        setLocalInput(true);
+    }
+
+    /**
+     * The local player released the button
+     */
+    public void release() throws IOException {
+        setLocalInput(false);
+    }
+
+    private void setLocalInput(boolean down) throws IOException {
+        if (localInput.isDownNow() == down || opponentLeft) return;
+        // Changes must be in tick order, so a quick tap may land a tick later
+        int at = Math.max(tick + inputDelay, localInput.lastChangeTick() + 1);
+        if (!localInput.add(at)) return;
+        connection.sendInput(at, down);
+        sentThrough = Math.max(sentThrough, at);
+        connection.flush();
+    }
+
+    /**
+     * Receive the opponent's input and simulate the next tick. Returns false
+     * if the tick couldn't be simulated yet because too much of the
+     * opponent's input is missing; call again on the next frame.
+     */
+    public boolean advance() throws IOException {
+        if (!opponentLeft && !connection.poll(handler)) {
+            opponentLeft = true;
+        }
+        if (rollbackFrom < tick) {
+            rollBack();
+        }
+        if (!opponentLeft && tick - remoteKnownThrough > MAX_PREDICTION_TICKS) {
+            stalledTicks++;
+            return false;
+        }
+
+        if (tick % CHECKSUM_INTERVAL_TICKS == 0 && !opponentLeft) {
+            connection.sendChecksum(tick, local.checksum());
+        }
+        local.step(localInput.isDown(tick), tick);
+        remote.step(remoteInput.isDown(tick), tick);
+        tick++;
+        localInput.discardBefore(tick);
+        advanceConfirmed();
+
+        // Everything before tick + inputDelay is final now
+        int finalThrough = tick + inputDelay - 1;
+        if (!opponentLeft && finalThrough - sentThrough >= SYNC_INTERVAL_TICKS) {
+            connection.sendSync(finalThrough);
+            sentThrough = finalThrough;
+        }
+        if (!opponentLeft) {
+            connection.flush();
+        }
+        return true;
+    }
+
+    /**
+     * Restart the opponent's racer from the last fully known tick, now with
+     * the input that arrived late
+     */
+    private void rollBack() {
+        remote.copyFrom(confirmedRemote);
+        for (int t = confirmedTick; t < tick; t++) {
+            remote.step(remoteInput.isDown(t), t);
+        }
+        rollbacks++;
+        resimulatedTicks += tick - confirmedTick;
+        rollbackFrom = Integer.MAX_VALUE;
+    }
+
+    private void advanceConfirmed() {
+        while (confirmedTick < tick && confirmedTick <= remoteKnownThrough) {
+            if (confirmedTick % CHECKSUM_INTERVAL_TICKS == 0) {
+                int slot = (confirmedTick / CHECKSUM_INTERVAL_TICKS) % CHECKSUM_SLOTS;
+                localChecksumTicks[slot] = confirmedTick;
+                localChecksums[slot] = confirmedRemote.checksum();
+                compareChecksums(slot);
+            }
+            confirmedRemote.step(remoteInput.isDown(confirmedTick), confirmedTick);
+            confirmedTick++;
+        }
+        remoteInput.discardBefore(confirmedTick);
+    }
+
+    private void compareChecksums(int slot) {
+        if (localChecksumTicks[slot] < 0 || localChecksumTicks[slot] != remoteChecksumTicks[slot]) return;
+        if (localChecksums[slot] != remoteChecksums[slot] && !desynced) {
+            desynced = true;
+            System.err.println("Versus race desynced at tick " + localChecksumTicks[slot]);
+        }
+    }
+
+    /**
+     * Get the race result, which only counts what both sides agree on: it
+     * stays RACING until the opponent's input is known up to the deciding tick
+     */
+    public Result getResult() {
+        int localTick = local.getOutcomeTick();
+        int remoteTick = confirmedRemote.getOutcomeTick();
+        // The race is decided at the first tick either racer finished or fell
+        int decidedTick = localTick < 0 ? remoteTick : (remoteTick < 0 ? localTick : Math.min(localTick, remoteTick));
+        if (decidedTick < 0 || (remoteTick < 0 && confirmedTick <= decidedTick)) {
+            // Nothing yet, or not known yet whether the opponent got there first
+            return opponentLeft ? Result.WON : Result.RACING;
+        }
+
+        Racer.Outcome mine = localTick == decidedTick ? local.getOutcome() : Racer.Outcome.RACING;
+        Racer.Outcome theirs = remoteTick == decidedTick ? confirmedRemote.getOutcome() : Racer.Outcome.RACING;
+        if (mine == theirs) {
+            return Result.DRAW;
+        }
+        return mine == Racer.Outcome.FINISHED || theirs == Racer.Outcome.FELL ? Result.WON : Result.LOST;
+    }
+
+    /**
+     * Tell the opponent we're leaving
+     */
+    public void leave() {
+        if (opponentLeft) return;
+        opponentLeft = true;
+        try {
+            connection.sendBye();
+            connection.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to say goodbye to opponent: " + e.getMessage());
+        }
+    }
+
+    private class MessageHandler implements VersusConnection.Handler {
+        @Override
+        public void onInput(int at, boolean down) {
+            if (at <= remoteKnownThrough || remoteInput.isDownNow() == down || !remoteInput.add(at)) {
+                System.err.println("Ignoring out of order input from opponent for tick " + at);
+                return;
+            }
+            remoteKnownThrough = at;
+            if (at < tick) {
+                // Already simulated with the button the other way
+                rollbackFrom = Math.min(rollbackFrom, at);
+            }
+        }
+
+        @Override
+        public void onSync(int through) {
+            remoteKnownThrough = Math.max(remoteKnownThrough, through);
+        }
+
+        @Override
+        public void onChecksum(int at, int crc) {
+            int slot = (at / CHECKSUM_INTERVAL_TICKS) % CHECKSUM_SLOTS;
+            remoteChecksumTicks[slot] = at;
+            remoteChecksums[slot] = crc;
+            compareChecksums(slot);
+        }
+
+        @Override
+        public void onBye() {
+            opponentLeft = true;
+        }
+    }
+
+    public VersusConnection getConnection() { return connection; }
+    public Racer getLocal() { return local; }
+    public Racer getRemote() { return remote; }
+    public int getTick() { return tick; }
+    public int getInputDelay() { return inputDelay; }
+    public boolean isOpponentLeft() { return opponentLeft; }
+    public boolean isDesynced() { return desynced; }
+    public long getRollbacks() { return rollbacks; }
+    public long getResimulatedTicks() { return resimulatedTicks; }
+    public long getStalledTicks() { return stalledTicks; }
+
+    /**
+     * Get how many ticks the displayed opponent is ahead of their known input
+     */
+    public int getPredictedTicks() {
+        return Math.max(0, tick - 1 - remoteKnownThrough);
+    }
+}
@@ -0,0 +1,117 @@
+package com.stickhero.versus;
+
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameEngine;
+import com.stickhero.game.GameWorld;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * One player's side of a race: a GameWorld stepped at a fixed tick from
+ * the player's button state.
+ *
+ * Everything a step depends on is the world, the button state at each tick
+ * and the few fields here, so two racers given the same seed and inputs
+ * stay identical on any machine. The stick's length comes from how many
+ * ticks the button was held, not from frame times.
+ */
+public class Racer {
+
+    public enum Outcome {
+        RACING, FINISHED, FELL
+    }
+
+    private final GameWorld world;
+    private final int targetScore;
+    private boolean wasDown;
+    private boolean holding;
+    private int pressTick;
+    private Outcome outcome;
+    private int outcomeTick;
+    private ByteBuffer buffer;
+
+    public Racer(double worldHeight, long seed, int targetScore) {
+        this.world = new GameWorld(worldHeight, seed);
+        this.targetScore = targetScore;
+        this.outcome = Outcome.RACING;
+        this.outcomeTick = -1;
+    }
+
+    /**
+     * Advance one tick with the button in the given state
+     */
+    void step(boolean down, int tick) {
+        if (outcome != Outcome.RACING) return;
+
+        if (down && !wasDown) {
+            if (world.startStick()) {
+                holding = true;
+                pressTick = tick;
+            }
+        } else if (!down && wasDown && holding) {
+            holding = false;
+            world.dropStick(Stick.lengthForHoldTime((tick - pressTick) * LockstepRace.TICK_SECONDS));
+        }
+        wasDown = down;
+
+        world.update(LockstepRace.TICK_SECONDS);
+        if (holding && world.getCurrentState() == GameEngine.GameState.GROWING_STICK) {
+            world.growStickTo(Stick.lengthForHoldTime((tick + 1 - pressTick) * LockstepRace.TICK_SECONDS));
+        }
+
+        if (world.getCurrentState() == GameEngine.GameState.GAME_OVER) {
+            outcome = Outcome.FELL;
+            outcomeTick = tick;
+        } else if (world.getScore() >= targetScore) {
+            outcome = Outcome.FINISHED;
+            outcomeTick = tick;
+        }
+    }
+
+    /**
+     * Make this racer an exact copy of another
+     */
+    void copyFrom(Racer other) {
+        ByteBuffer state = other.save();
+        world.readSnapshot(state);
+        wasDown = state.get() != 0;
+        holding = state.get() != 0;
+        pressTick = state.getInt();
+        outcome = Outcome.values()[state.get()];
+        outcomeTick = state.getInt();
+    }
+
+    /**
+     * Get a checksum of the complete state, for detecting desyncs
+     */
+    int checksum() {
+        ByteBuffer state = save();
+        CRC32C crc = new CRC32C();
+        crc.update(state);
+        return (int) crc.getValue();
+    }
+
+    private ByteBuffer save() {
+        int size = world.getSnapshotSize() + 16;
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, 2 * (buffer != null ? buffer.capacity() : 0)));
+        }
+        buffer.clear();
+        world.writeSnapshot(buffer);
+        buffer.put((byte) (wasDown ? 1 : 0));
+        buffer.put((byte) (holding ? 1 : 0));
+        buffer.putInt(pressTick);
+        buffer.put((byte) outcome.ordinal());
+        buffer.putInt(outcomeTick);
+        return buffer.flip();
+    }
+
+    public GameWorld getWorld() { return world; }
+    public Outcome getOutcome() { return outcome; }
+
+    /**
+     * Get the tick at which the racer finished or fell, or -1 while racing
+     */
+    public int getOutcomeTick() { return outcomeTick; }
+}
@@ -0,0 +1,244 @@
+package com.stickhero.versus;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The socket between the two players of a race, and its binary protocol.
+ *
+ * After a blocking handshake, in which the host tells the joining player
+ * the course seed, the channel is non-blocking and polled from the game
+ * loop. Only input is exchanged, as fixed-size messages starting with a
+ * type byte:
+ * <ul>
+ *   <li>PRESS / RELEASE tick (5 bytes) - the sender's button changed at a tick</li>
+ *   <li>SYNC tick (5 bytes) - the sender's input is final up to and including a tick</li>
+ *   <li>CHECKSUM tick crc (9 bytes) - the sender's own state at the start of a tick</li>
+ *   <li>BYE (1 byte) - the sender left</li>
+ * </ul>
+ * Nagle's algorithm is off so each message leaves as soon as it's flushed.
+ */
+public class VersusConnection implements Closeable {
+
+    private static final int MAGIC = 0x53485653; // "SHVS"
+    private static final byte VERSION = 1;
+    private static final int HELLO_SIZE = 13;
+
+    private static final byte PRESS = 1;
+    private static final byte RELEASE = 2;
+    private static final byte SYNC = 3;
+    private static final byte CHECKSUM = 4;
+    private static final byte BYE = 5;
+
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * Receives messages from {@link #poll}
+     */
+    public interface Handler {
+        void onInput(int tick, boolean down);
+
+        void onSync(int tick);
+
+        void onChecksum(int tick, int crc);
+
+        void onBye();
+    }
+
+    private final SocketChannel channel;
+    private final long seed;
+    private final ByteBuffer readBuffer;
+    private final ByteBuffer writeBuffer;
+    private long bytesSent;
+    private long bytesReceived;
+    private long messagesSent;
+    private boolean closed;
+
+    private VersusConnection(SocketChannel channel, long seed) throws IOException {
+        this.channel = channel;
+        this.seed = seed;
+        this.readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Open a server socket for {@link #accept}; port 0 picks a free port
+     */
+    public static ServerSocketChannel listen(int port) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        return server;
+    }
+
+    /**
+     * Wait for a player to join and send them the course seed
+     */
+    public static VersusConnection accept(ServerSocketChannel server, long seed) throws IOException {
+        SocketChannel channel = server.accept();
+        try {
+            readHello(channel);
+            writeHello(channel, seed);
+            return new VersusConnection(channel, seed);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Join a hosted race, waiting for the course seed
+     */
+    public static VersusConnection join(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        try {
+            writeHello(channel, 0);
+            return new VersusConnection(channel, readHello(channel));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void writeHello(SocketChannel channel, long seed) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(HELLO_SIZE);
+        hello.putInt(MAGIC).put(VERSION).putLong(seed).flip();
+        while (hello.hasRemaining()) {
+            channel.write(hello);
+        }
+    }
+
+    private static long readHello(SocketChannel channel) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(HELLO_SIZE);
+        while (hello.hasRemaining()) {
+            if (channel.read(hello) < 0) {
+                throw new EOFException("Connection closed during handshake");
+            }
+        }
+        hello.flip();
+        if (hello.getInt() != MAGIC) {
+            throw new IOException("Not a Stick Hero versus connection");
+        }
+        byte version = hello.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported versus protocol version " + version);
+        }
+        return hello.getLong();
+    }
+
+    public void sendInput(int tick, boolean down) throws IOException {
+        reserve(5).put(down ? PRESS : RELEASE).putInt(tick);
+    }
+
+    public void sendSync(int tick) throws IOException {
+        reserve(5).put(SYNC).putInt(tick);
+    }
+
+    public void sendChecksum(int tick, int crc) throws IOException {
+        reserve(9).put(CHECKSUM).putInt(tick).putInt(crc);
+    }
+
+    public void sendBye() throws IOException {
+        reserve(1).put(BYE);
+    }
+
+    private ByteBuffer reserve(int size) throws IOException {
+        if (writeBuffer.remaining() < size) {
+            flush();
+            if (writeBuffer.remaining() < size) {
+                throw new IOException("Opponent isn't reading");
+            }
+        }
+        messagesSent++;
+        return writeBuffer;
+    }
+
+    /**
+     * Write as much of the queued messages as the socket takes without blocking
+     */
+    public void flush() throws IOException {
+        if (writeBuffer.position() == 0) return;
+        writeBuffer.flip();
+        bytesSent += channel.write(writeBuffer);
+        writeBuffer.compact();
+    }
+
+    /**
+     * Read whatever has arrived and pass each complete message to the
+     * handler. Returns false once the other side has closed the connection.
+     */
+    public boolean poll(Handler handler) throws IOException {
+        if (closed) return false;
+        int read;
+        while ((read = channel.read(readBuffer)) > 0) {
+            bytesReceived += read;
+            readBuffer.flip();
+            dispatch(handler);
+            readBuffer.compact();
+        }
+        if (read < 0) {
+            closed = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void dispatch(Handler handler) throws IOException {
+        while (readBuffer.hasRemaining()) {
+            byte type = readBuffer.get(readBuffer.position());
+            if (readBuffer.remaining() < messageSize(type)) return;
+
+            readBuffer.get();
+            switch (type) {
+                case PRESS:
+                    handler.onInput(readBuffer.getInt(), true);
+                    break;
+                case RELEASE:
+                    handler.onInput(readBuffer.getInt(), false);
+                    break;
+                case SYNC:
+                    handler.onSync(readBuffer.getInt());
+                    break;
+                case CHECKSUM:
+                    handler.onChecksum(readBuffer.getInt(), readBuffer.getInt());
+                    break;
+                default:
+                    handler.onBye();
+                    break;
+            }
+        }
+    }
+
+    private static int messageSize(byte type) throws IOException {
+        switch (type) {
+            case PRESS:
+            case RELEASE:
+            case SYNC:
+                return 5;
+            case CHECKSUM:
+                return 9;
+            case BYE:
+                return 1;
+            default:
+                throw new IOException("Bad versus message type " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    public long getSeed() { return seed; }
+    public long getBytesSent() { return bytesSent; }
+    public long getBytesReceived() { return bytesReceived; }
+    public long getMessagesSent() { return messagesSent; }
+}
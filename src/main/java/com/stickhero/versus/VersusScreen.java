@@ -0,0 +1,325 @@
+package com.stickhero.versus;
+
+import com.stickhero.entities.Hero;
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameWorld;
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * Split-screen versus mode: the local racer on top, the opponent below.
+ *
+ * Started with -Dstickhero.versus=host[:port] to wait for an opponent, or
+ * -Dstickhero.versus=join:host[:port] to join one. Connecting happens on a
+ * background thread; after that the race is driven from the FX thread,
+ * running as many fixed ticks per frame as real time calls for.
+ * -Dstickhero.versusDelay sets the input delay in ticks.
+ */
+public class VersusScreen {
+
+    public static final String PROPERTY = "stickhero.versus";
+    public static final String DELAY_PROPERTY = "stickhero.versusDelay";
+    public static final int DEFAULT_PORT = 7777;
+
+    private static final double WORLD_HEIGHT = 600;
+    private static final double VIEW_SCALE = 0.5; // each half shows the full world height
+    private static final int MAX_TICKS_PER_FRAME = 8;
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final LinearGradient skyGradient;
+    private final Font labelFont;
+    private final Font titleFont;
+    private final Font statsFont;
+    private final double[] cameraX;
+
+    private volatile LockstepRace race;
+    private volatile String status;
+    private AnimationTimer loop;
+    private long lastFrameTime;
+    private double accumulator;
+    private boolean spaceDown;
+
+    // Bandwidth over the last second
+    private long statsStart;
+    private long statsSent;
+    private long statsReceived;
+    private double sentPerSecond;
+    private double receivedPerSecond;
+
+    public VersusScreen(double width, double height) {
+        canvas = new Canvas(width, height);
+        gc = canvas.getGraphicsContext2D();
+        skyGradient = new LinearGradient(0, 0, 0, WORLD_HEIGHT * 0.7, false, CycleMethod.NO_CYCLE,
+                                         new Stop(0, Color.LIGHTBLUE), new Stop(1, Color.LIGHTYELLOW));
+        labelFont = Font.font("Arial", FontWeight.BOLD, 18);
+        titleFont = Font.font("Arial", FontWeight.BOLD, 40);
+        statsFont = Font.font("Monospaced", FontWeight.NORMAL, 11);
+        cameraX = new double[2];
+        status = "Connecting...";
+        setupInputHandlers();
+    }
+
+    /**
+     * Check whether the game was started in versus mode
+     */
+    public static boolean isEnabled() {
+        return System.getProperty(PROPERTY) != null;
+    }
+
+    private void setupInputHandlers() {
+        canvas.setOnMousePressed(e -> {
+            if (e.getButton() == MouseButton.PRIMARY) press(true);
+        });
+        canvas.setOnMouseReleased(e -> {
+            if (e.getButton() == MouseButton.PRIMARY) press(false);
+        });
+        canvas.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.SPACE && !spaceDown) {
+                spaceDown = true;
+                press(true);
+            }
+        });
+        canvas.setOnKeyReleased(e -> {
+            if (e.getCode() == KeyCode.SPACE) {
+                spaceDown = false;
+                press(false);
+            }
+        });
+        canvas.setFocusTraversable(true);
+    }
+
+    private void press(boolean down) {
+        LockstepRace current = race;
+        if (current == null) return;
+        try {
+            if (down) {
+                current.press();
+            } else {
+                current.release();
+            }
+        } catch (IOException e) {
+            connectionLost(e);
+        }
+    }
+
+    /**
+     * Connect in the background and start the frame loop
+     */
+    public void start() {
+        Thread connector = new Thread(this::connect, "versus-connect");
+        connector.setDaemon(true);
+        connector.start();
+
+        loop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                double deltaTime = lastFrameTime == 0 ? 0 : Math.min(0.25, (now - lastFrameTime) / 1_000_000_000.0);
+                lastFrameTime = now;
+                update(deltaTime, now);
+                render();
+            }
+        };
+        loop.start();
+    }
+
+    private void connect() {
+        String mode = System.getProperty(PROPERTY, "host");
+        int delay = Integer.getInteger(DELAY_PROPERTY, LockstepRace.DEFAULT_INPUT_DELAY);
+        try {
+            VersusConnection connection;
+            if (mode.startsWith("join:")) {
+                InetSocketAddress address = parseAddress(mode.substring("join:".length()));
+                status = "Joining " + address.getHostString() + ":" + address.getPort() + "...";
+                connection = VersusConnection.join(address);
+            } else {
+                int port = mode.startsWith("host:") ? Integer.parseInt(mode.substring("host:".length())) : DEFAULT_PORT;
+                try (ServerSocketChannel server = VersusConnection.listen(port)) {
+                    status = "Waiting for an opponent on port " + port + "...";
+                    connection = VersusConnection.accept(server, System.nanoTime());
+                }
+            }
+            race = new LockstepRace(connection, WORLD_HEIGHT, delay, LockstepRace.DEFAULT_TARGET_SCORE);
+            status = null;
+        } catch (IOException | IllegalArgumentException e) {
+            status = "Couldn't connect: " + e.getMessage();
+            System.err.println("Versus connection failed: " + e.getMessage());
+        }
+    }
+
+    private static InetSocketAddress parseAddress(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            return new InetSocketAddress(address, DEFAULT_PORT);
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    private void update(double deltaTime, long now) {
+        LockstepRace current = race;
+        if (current == null || status != null) return;
+
+        // Run the ticks real time calls for; if the opponent's input is too far behind, wait for it
+        accumulator += deltaTime;
+        int ticks = 0;
+        try {
+            while (accumulator >= LockstepRace.TICK_SECONDS && ticks < MAX_TICKS_PER_FRAME) {
+                if (!current.advance()) {
+                    accumulator = Math.min(accumulator, LockstepRace.TICK_SECONDS);
+                    break;
+                }
+                accumulator -= LockstepRace.TICK_SECONDS;
+                ticks++;
+            }
+        } catch (IOException e) {
+            connectionLost(e);
+            return;
+        }
+        if (ticks == MAX_TICKS_PER_FRAME) {
+            accumulator = 0; // Too far behind to catch up; let the opponent wait instead
+        }
+
+        if (statsStart == 0 || now - statsStart >= 1_000_000_000L) {
+            VersusConnection connection = current.getConnection();
+            if (statsStart != 0) {
+                double seconds = (now - statsStart) / 1_000_000_000.0;
+                sentPerSecond = (connection.getBytesSent() - statsSent) / seconds;
+                receivedPerSecond = (connection.getBytesReceived() - statsReceived) / seconds;
+            }
+            statsStart = now;
+            statsSent = connection.getBytesSent();
+            statsReceived = connection.getBytesReceived();
+        }
+    }
+
+    private void connectionLost(IOException e) {
+        status = "Connection lost: " + e.getMessage();
+        System.err.println("Versus connection lost: " + e.getMessage());
+    }
+
+    private void render() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, width, height);
+
+        LockstepRace current = race;
+        if (current != null) {
+            renderRacer(current.getLocal(), 0, "You", 0);
+            renderRacer(current.getRemote(), 1, "Opponent", height / 2);
+            gc.setStroke(Color.WHITE);
+            gc.setLineWidth(2);
+            gc.strokeLine(0, height / 2, width, height / 2);
+            renderStats(current);
+        }
+
+        String message = status;
+        if (message == null && current != null) {
+            switch (current.getResult()) {
+                case WON:
+                    message = current.isOpponentLeft() && current.getLocal().getOutcome() == Racer.Outcome.RACING
+                        ? "Opponent left - you win!" : "You win!";
+                    break;
+                case LOST:
+                    message = "You lose";
+                    break;
+                case DRAW:
+                    message = "Draw";
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (message != null) {
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setFont(message.length() > 20 ? labelFont : titleFont);
+            gc.setFill(Color.WHITE);
+            gc.fillText(message, width / 2, height / 2 - 12);
+            gc.setTextAlign(TextAlignment.LEFT);
+        }
+    }
+
+    private void renderRacer(Racer racer, int view, String label, double top) {
+        GameWorld world = racer.getWorld();
+        double viewWidth = canvas.getWidth() / VIEW_SCALE;
+        Hero hero = world.getHero();
+        cameraX[view] += (hero.getX() - viewWidth / 4 - cameraX[view]) * 0.1;
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(0, top, canvas.getWidth(), canvas.getHeight() / 2);
+        gc.clip();
+        gc.translate(0, top);
+        gc.scale(VIEW_SCALE, VIEW_SCALE);
+        gc.translate(-cameraX[view], 0);
+
+        gc.setFill(skyGradient);
+        gc.fillRect(cameraX[view], 0, viewWidth, WORLD_HEIGHT * 0.7);
+        gc.setFill(Color.DARKGREEN);
+        gc.fillRect(cameraX[view], WORLD_HEIGHT - GameWorld.GROUND_HEIGHT, viewWidth, GameWorld.GROUND_HEIGHT);
+        for (Platform platform : world.getPlatforms()) {
+            platform.render(gc);
+        }
+        Stick stick = world.getCurrentStick();
+        if (stick != null) {
+            stick.render(gc);
+        }
+        hero.render(gc);
+        gc.restore();
+
+        gc.setFont(labelFont);
+        gc.setFill(Color.WHITE);
+        String text = label + "  " + world.getScore() + " / " + LockstepRace.DEFAULT_TARGET_SCORE;
+        if (racer.getOutcome() == Racer.Outcome.FELL) {
+            text += "  (fell)";
+        }
+        gc.fillText(text, 12, top + 24);
+    }
+
+    private void renderStats(LockstepRace current) {
+        gc.setFont(statsFont);
+        gc.setFill(Color.WHITE);
+        gc.fillText(String.format("tick %d  delay %d  predicting %d  rollbacks %d (%d ticks)  stalls %d  up %.0f B/s  down %.0f B/s%s",
+                                  current.getTick(), current.getInputDelay(), current.getPredictedTicks(),
+                                  current.getRollbacks(), current.getResimulatedTicks(), current.getStalledTicks(),
+                                  sentPerSecond, receivedPerSecond, current.isDesynced() ? "  DESYNC" : ""),
+                    12, canvas.getHeight() - 8);
+    }
+
+    /**
+     * Stop the loop and tell the opponent we're leaving
+     */
+    public void stop() {
+        if (loop != null) {
+            loop.stop();
+        }
+        LockstepRace current = race;
+        if (current != null) {
+            current.leave();
+            try {
+                current.getConnection().close();
+            } catch (IOException e) {
+                System.err.println("Failed to close versus connection: " + e.getMessage());
+            }
+        }
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+}
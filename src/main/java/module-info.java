@@ -3,10 +3,22 @@ module stickhero {
     requires javafx.graphics;
     requires javafx.base;
     requires javafx.media;
+    requires jdk.jfr;
+    requires java.management;
+    requires java.desktop;
+    requires jdk.management;
+    requires java.net.http;
     
     exports com.stickhero;
+    exports com.stickhero.analytics;
     exports com.stickhero.entities;
     exports com.stickhero.game;
+    exports com.stickhero.jfr;
+    exports com.stickhero.management;
+    exports com.stickhero.net;
+    exports com.stickhero.persistence;
+    exports com.stickhero.spectator;
     exports com.stickhero.ui;
     exports com.stickhero.utils;
+    exports com.stickhero.versus;
 }
@@ -0,0 +1,75 @@
+package com.stickhero.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput, allocation and live-object budgets for the game rules
+ */
+class GameRulesPerformanceTest {
+    
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+    
+    @Test
+    void scriptedPlayerLandsEveryRound() {
+        HeadlessGame game = new HeadlessGame(1);
+        assertEquals(1_000, game.playRounds(1_000));
+        assertEquals(1_000, game.world.getScore());
+    }
+    
+    @Test
+    void roundThroughputStaysAboveFloor() {
+        HeadlessGame game = new HeadlessGame(2);
+        game.playRounds(WARMUP_ROUNDS);
+        
+        long start = System.nanoTime();
+        game.playRounds(MEASURED_ROUNDS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        
+        double roundsPerSecond = MEASURED_ROUNDS / seconds;
+        System.out.printf("Throughput: %.0f rounds/s (%.0f frames/round)%n",
+                          roundsPerSecond, (double) game.getFrames() / (WARMUP_ROUNDS + MEASURED_ROUNDS));
+        assertTrue(roundsPerSecond >= PerfBudget.MIN_ROUNDS_PER_SECOND,
+                   String.format("%.0f rounds/s is below the floor of %.0f", roundsPerSecond, PerfBudget.MIN_ROUNDS_PER_SECOND));
+    }
+    
+    @Test
+    void allocationPerRoundStaysUnderCeiling() {
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        HeadlessGame game = new HeadlessGame(3);
+        game.playRounds(WARMUP_ROUNDS);
+        
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        game.playRounds(MEASURED_ROUNDS);
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+        
+        double bytesPerRound = (double) allocated / MEASURED_ROUNDS;
+        System.out.printf("Allocation: %.0f bytes/round%n", bytesPerRound);
+        assertTrue(bytesPerRound <= PerfBudget.MAX_BYTES_PER_ROUND,
+                   String.format("%.0f bytes/round is above the ceiling of %.0f", bytesPerRound, PerfBudget.MAX_BYTES_PER_ROUND));
+    }
+    
+    @Test
+    void liveObjectsDoNotGrowWithScore() {
+        HeadlessGame game = new HeadlessGame(4);
+        game.playRounds(1_000);
+        int platforms = game.world.getPlatformCount();
+        int gridEntries = game.world.getPlatformGrid().size();
+        
+        game.playRounds(20_000);
+        assertEquals(21_000, game.world.getScore());
+        assertTrue(game.world.getPlatformCount() <= PerfBudget.MAX_LIVE_PLATFORMS,
+                   game.world.getPlatformCount() + " live platforms at score " + game.world.getScore());
+        assertTrue(game.world.getPlatformCount() <= platforms + 2,
+                   "Live platforms grew from " + platforms + " to " + game.world.getPlatformCount());
+        assertTrue(game.world.getPlatformGrid().size() <= gridEntries * 2,
+                   "Collision grid grew from " + gridEntries + " to " + game.world.getPlatformGrid().size() + " entries");
+        assertTrue(game.particleSystem.getParticleCount() <= game.particleSystem.getParticleBudget());
+    }
+}
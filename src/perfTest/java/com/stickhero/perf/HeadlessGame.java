@@ -0,0 +1,99 @@
+package com.stickhero.perf;
+
+import com.stickhero.entities.Hero;
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameEngine;
+import com.stickhero.game.GameWorld;
+import com.stickhero.utils.ParticleSystem;
+
+/**
+ * Runs the game rules and particle effects without a window, the way
+ * GameEngine does each frame minus rendering and audio, with a scripted
+ * player that aims for the middle of each platform.
+ */
+class HeadlessGame {
+    
+    static final double FRAME_TIME = 1.0 / 60;
+    private static final int MAX_FRAMES_PER_ROUND = 10_000;
+    
+    final GameWorld world;
+    final ParticleSystem particleSystem;
+    private long frames;
+    
+    HeadlessGame(long seed) {
+        world = new GameWorld(600, seed);
+        particleSystem = new ParticleSystem();
+        particleSystem.setCollisionGrid(world.getPlatformGrid());
+        particleSystem.setGroundY(600 - GameWorld.GROUND_HEIGHT);
+        world.setListener(new GameWorld.Listener() {
+            @Override
+            public void onLanded(double x, double y) {
+                particleSystem.createSuccessParticles(x, y);
+            }
+            
+            @Override
+            public void onFell(double x, double y) {
+                particleSystem.createFailParticles(x, y);
+            }
+        });
+    }
+    
+    /**
+     * Play one round: grow a stick to the middle of the next platform, drop it
+     * and walk. Restarts first if the last round ended the game. Returns true
+     * if the hero landed.
+     */
+    boolean playRound() {
+        if (world.getCurrentState() == GameEngine.GameState.GAME_OVER) {
+            world.reset();
+            particleSystem.clear();
+        }
+        
+        Hero hero = world.getHero();
+        Platform next = world.getNextPlatform();
+        double target = next.getX() + next.getWidth() / 2 - hero.getX();
+        
+        if (!world.startStick()) {
+            throw new IllegalStateException("Could not start a stick in state " + world.getCurrentState());
+        }
+        Stick stick = world.getCurrentStick();
+        int roundFrames = 0;
+        while (stick.getLength() < target && roundFrames++ < MAX_FRAMES_PER_ROUND) {
+            step();
+        }
+        world.dropStick();
+        while (world.getCurrentState() != GameEngine.GameState.READY &&
+               world.getCurrentState() != GameEngine.GameState.GAME_OVER &&
+               roundFrames++ < MAX_FRAMES_PER_ROUND) {
+            step();
+        }
+        if (roundFrames >= MAX_FRAMES_PER_ROUND) {
+            throw new IllegalStateException("Round did not finish in " + MAX_FRAMES_PER_ROUND + " frames");
+        }
+        return world.getCurrentState() == GameEngine.GameState.READY;
+    }
+    
+    /**
+     * Play rounds and return how many of them landed
+     */
+    int playRounds(int rounds) {
+        int landed = 0;
+        for (int i = 0; i < rounds; i++) {
+            if (playRound()) {
+                landed++;
+            }
+        }
+        return landed;
+    }
+    
+    private void step() {
+        world.update(FRAME_TIME);
+        particleSystem.update(FRAME_TIME);
+        frames++;
+    }
+    
+    long getFrames() {
+        return frames;
+    }
+}
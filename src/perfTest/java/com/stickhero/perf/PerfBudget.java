@@ -0,0 +1,26 @@
+package com.stickhero.perf;
+
+/**
+ * Performance budgets for the perf tests. Each budget has a default that
+ * passes comfortably on a developer laptop and can be overridden with the
+ * system property stickhero.perf.&lt;name&gt; (./gradlew perfTest -Pperf.&lt;name&gt;=...).
+ */
+final class PerfBudget {
+    
+    static final double MIN_ROUNDS_PER_SECOND = get("minRoundsPerSecond", 2_000);
+    static final double MAX_BYTES_PER_ROUND = get("maxBytesPerRound", 96 * 1024);
+    static final double MAX_LIVE_PLATFORMS = get("maxLivePlatforms", 16);
+    static final double MAX_SOAK_HEAP_GROWTH_BYTES = get("maxSoakHeapGrowthBytes", 2 * 1024 * 1024);
+    static final double SOAK_ROUNDS = get("soakRounds", 100_000);
+    static final double MAX_VERSUS_BYTES_PER_SECOND = get("maxVersusBytesPerSecond", 100);
+    static final double MAX_SPECTATOR_SERVER_CPU = get("maxSpectatorServerCpu", 0.5);
+    static final double MAX_SPECTATOR_BYTES_PER_FRAME = get("maxSpectatorBytesPerFrame", 32);
+    
+    private PerfBudget() {
+    }
+    
+    private static double get(String name, double defaultValue) {
+        String value = System.getProperty("stickhero.perf." + name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
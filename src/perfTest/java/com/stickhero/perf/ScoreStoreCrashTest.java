@@ -0,0 +1,91 @@
+package com.stickhero.perf;
+
+import com.stickhero.persistence.RunLog;
+import com.stickhero.persistence.RunRecord;
+import com.stickhero.persistence.ScoreEntry;
+import com.stickhero.persistence.ScoreIndex;
+import com.stickhero.persistence.ScoreStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kills a process after it has added a run to the mapped score index but
+ * before it has recorded the log length that covers it, then checks that
+ * reopening the store counts that run exactly once
+ */
+class ScoreStoreCrashTest {
+
+    private static final int CRASHED_SCORE = 50;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void indexKilledMidUpdateIsRebuiltWithoutDuplicates() throws Exception {
+        try (ScoreStore store = ScoreStore.open(directory)) {
+            for (int score = 10; score <= 30; score += 10) {
+                store.submit(run(score));
+            }
+            store.flush();
+        }
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                           Crasher.class.getName(), directory.toString())
+            .redirectErrorStream(true)
+            .start();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+            String line = output.readLine();
+            assertEquals(Crasher.READY, line, "Child did not reach the crash point");
+            child.destroyForcibly();
+            assertTrue(child.waitFor(10, TimeUnit.SECONDS), "Child was not killed");
+        }
+
+        try (ScoreStore store = ScoreStore.open(directory)) {
+            assertEquals(4, store.getRunCount());
+            assertEquals(10 + 20 + 30 + CRASHED_SCORE, store.getTotalScore());
+            List<ScoreEntry> top = store.getTopRuns(10);
+            assertEquals(4, top.size());
+            assertEquals(CRASHED_SCORE, top.get(0).getScore());
+            assertEquals(30, top.get(1).getScore());
+        }
+    }
+
+    private static RunRecord run(int score) {
+        return new RunRecord(1_000L * score, score, score, 1_000 * score, new float[] {100f});
+    }
+
+    /**
+     * Does what the score writer does for one run, stopping after the index
+     * has been changed and before {@link ScoreIndex#endUpdate}, then waits
+     * to be killed
+     */
+    public static final class Crasher {
+        static final String READY = "added";
+
+        public static void main(String[] args) throws Exception {
+            Path directory = Path.of(args[0]);
+            RunLog log = RunLog.open(directory.resolve(ScoreStore.LOG_FILE));
+            ScoreIndex index = ScoreIndex.open(directory.resolve(ScoreStore.INDEX_FILE), ScoreIndex.DEFAULT_CAPACITY);
+            RunRecord record = run(CRASHED_SCORE);
+            long offset = log.append(record);
+            log.force();
+            index.beginUpdate();
+            index.add(record, offset);
+            System.out.println(READY);
+            System.out.flush();
+            Thread.sleep(Long.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.stickhero.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plays a long run and checks the heap does not grow with it
+ */
+class SoakTest {
+    
+    private static final int WARMUP_ROUNDS = 5_000;
+    
+    @Test
+    void heapStaysFlatOverLongRun() {
+        HeadlessGame game = new HeadlessGame(5);
+        game.playRounds(WARMUP_ROUNDS);
+        long baseline = settledHeapUsed();
+        
+        int rounds = (int) PerfBudget.SOAK_ROUNDS;
+        long start = System.nanoTime();
+        int landed = game.playRounds(rounds);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long growth = settledHeapUsed() - baseline;
+        
+        System.out.printf("Soak: %d rounds (%d landed) in %.1f s, score %d, heap growth %d KB%n",
+                          rounds, landed, seconds, game.world.getScore(), growth / 1024);
+        assertTrue(growth <= PerfBudget.MAX_SOAK_HEAP_GROWTH_BYTES,
+                   String.format("Heap grew by %d bytes over %d rounds (limit %.0f)",
+                                 growth, rounds, PerfBudget.MAX_SOAK_HEAP_GROWTH_BYTES));
+    }
+    
+    /**
+     * Heap in use after collecting garbage, taking the lowest of a few attempts
+     */
+    private static long settledHeapUsed() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            lowest = Math.min(lowest, memory.getHeapMemoryUsage().getUsed());
+        }
+        return lowest;
+    }
+}
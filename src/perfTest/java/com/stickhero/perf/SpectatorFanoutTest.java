@@ -0,0 +1,135 @@
+package com.stickhero.perf;
+
+import com.stickhero.entities.Platform;
+import com.stickhero.game.GameEngine;
+import com.stickhero.game.GameWorld;
+import com.stickhero.spectator.SpectatorClient;
+import com.stickhero.spectator.SpectatorFrame;
+import com.stickhero.spectator.SpectatorServer;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streams a scripted game at 60 frames per second to a couple of hundred
+ * spectators over loopback, checking that every one of them ends up
+ * showing the final frame and that the server thread stays within its CPU
+ * and bandwidth budgets. One spectator never reads until the end, so it
+ * never acknowledges anything and is sent whole frames.
+ */
+class SpectatorFanoutTest {
+
+    private static final int SPECTATORS = 200;
+    private static final int FRAMES = 480;
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+    private static final long CATCH_UP_NANOS = 5_000_000_000L;
+
+    @Test
+    void spectatorsConvergeWithinBudget() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        List<SpectatorClient> clients = new ArrayList<>();
+        try (SpectatorServer server = SpectatorServer.start(0)) {
+            InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+            for (int i = 0; i < SPECTATORS; i++) {
+                clients.add(SpectatorClient.connect(address));
+            }
+            SpectatorClient idle = clients.get(0);
+
+            GameWorld world = new GameWorld(600, 42);
+            ScriptedPlayer player = new ScriptedPlayer(world);
+
+            long serverCpuStart = threads.getThreadCpuTime(server.getThread().threadId());
+            long start = System.nanoTime();
+            for (int frame = 0; frame < FRAMES; frame++) {
+                player.play();
+                world.update(HeadlessGame.FRAME_TIME);
+                server.publish(world);
+                for (SpectatorClient client : clients) {
+                    if (client != idle) client.poll();
+                }
+                LockSupport.parkNanos(start + (frame + 1) * FRAME_NANOS - System.nanoTime());
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            double serverCpu = (threads.getThreadCpuTime(server.getThread().threadId()) - serverCpuStart) /
+                               1_000_000_000.0 / seconds;
+
+            // Everyone, including the idle spectator, should catch up with the last frame
+            SpectatorFrame expected = SpectatorFrame.capture(world);
+            long deadline = System.nanoTime() + CATCH_UP_NANOS;
+            int behind;
+            do {
+                behind = 0;
+                for (SpectatorClient client : clients) {
+                    client.poll();
+                    SpectatorFrame frame = client.getFrame();
+                    if (frame == null || !frame.showsSameAs(expected)) behind++;
+                }
+                if (behind > 0) Thread.sleep(1);
+            } while (behind > 0 && System.nanoTime() < deadline);
+
+            double bytesPerFrame = (double) server.getBytesSent() / server.getFramesSent();
+            System.out.printf("Spectators: %d, %d frames in %.1f s, server thread %.1f%% of a core, " +
+                              "%d sent (%d whole, %d skipped), %.1f bytes per frame, %d rounds%n",
+                              server.getSubscriberCount(), FRAMES, seconds, serverCpu * 100,
+                              server.getFramesSent(), server.getWholeFramesSent(), server.getFramesSkipped(),
+                              bytesPerFrame, player.rounds);
+
+            assertTrue(behind == 0, behind + " spectators did not catch up with the last frame");
+            assertTrue(idle.getWholeFramesReceived() > 1, "The idle spectator was sent deltas it never acknowledged");
+            assertTrue(player.rounds >= 3, "The scripted game barely played");
+            assertTrue(serverCpu <= PerfBudget.MAX_SPECTATOR_SERVER_CPU,
+                       String.format("Server thread used %.1f%% of a core, above the budget of %.0f%%",
+                                     serverCpu * 100, PerfBudget.MAX_SPECTATOR_SERVER_CPU * 100));
+            assertTrue(bytesPerFrame <= PerfBudget.MAX_SPECTATOR_BYTES_PER_FRAME,
+                       String.format("%.1f bytes per frame is above the budget of %.0f", bytesPerFrame,
+                                     PerfBudget.MAX_SPECTATOR_BYTES_PER_FRAME));
+        } finally {
+            for (SpectatorClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * Plays one frame at a time, aiming for the middle of each platform
+     * except every second round, which overshoots it and starts over
+     */
+    private static class ScriptedPlayer {
+        private final GameWorld world;
+        private double target;
+        private int rounds;
+
+        ScriptedPlayer(GameWorld world) {
+            this.world = world;
+        }
+
+        void play() {
+            switch (world.getCurrentState()) {
+                case READY:
+                    Platform next = world.getNextPlatform();
+                    double aim = world.getRoundCount() % 2 == 1 ? next.getRightX() + 20 : next.getX() + next.getWidth() / 2;
+                    target = aim - world.getHero().getX();
+                    world.startStick();
+                    rounds++;
+                    break;
+                case GROWING_STICK:
+                    if (world.getCurrentStick().getLength() >= target) {
+                        world.dropStick(target);
+                    }
+                    break;
+                case GAME_OVER:
+                    world.reset();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.stickhero.perf;
+
+import com.stickhero.entities.Platform;
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameEngine;
+import com.stickhero.game.GameWorld;
+import com.stickhero.versus.LockstepRace;
+import com.stickhero.versus.Racer;
+import com.stickhero.versus.VersusConnection;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bandwidth and determinism of the lockstep versus race over loopback,
+ * with both sides stepped from one thread in an irregular order so each
+ * has to predict and roll back the other
+ */
+class VersusLoopbackTest {
+    
+    private static final int MAX_STEPS = 200_000;
+    private static final int SETTLE_TICKS = 2 * LockstepRace.MAX_PREDICTION_TICKS;
+    
+    @Test
+    void racesAgreeAndStayUnderBandwidthBudget() throws Exception {
+        LockstepRace host;
+        LockstepRace guest;
+        try (ServerSocketChannel server = VersusConnection.listen(0)) {
+            int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+            CompletableFuture<VersusConnection> accepted = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return VersusConnection.accept(server, 42);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            VersusConnection joined = VersusConnection.join(new InetSocketAddress("localhost", port));
+            host = new LockstepRace(accepted.get(), 600, 0, LockstepRace.DEFAULT_TARGET_SCORE);
+            guest = new LockstepRace(joined, 600, 1, LockstepRace.DEFAULT_TARGET_SCORE);
+        }
+        
+        // The guest overshoots on its fifth stick, so the host wins once it knows
+        ScriptedRacer hostPlayer = new ScriptedRacer(host, -1);
+        ScriptedRacer guestPlayer = new ScriptedRacer(guest, 4);
+        Random jitter = new Random(7);
+        int settledAt = -1;
+        for (int step = 0; step < MAX_STEPS; step++) {
+            for (int i = jitter.nextInt(3); i > 0; i--) {
+                if (settledAt < 0) hostPlayer.play();
+                host.advance();
+            }
+            for (int i = jitter.nextInt(3); i > 0; i--) {
+                if (settledAt < 0) guestPlayer.play();
+                guest.advance();
+            }
+            if (settledAt < 0 && host.getResult() != LockstepRace.Result.RACING &&
+                guest.getResult() != LockstepRace.Result.RACING) {
+                settledAt = Math.max(host.getTick(), guest.getTick());
+            }
+            if (settledAt >= 0 && Math.min(host.getTick(), guest.getTick()) > settledAt + SETTLE_TICKS) {
+                break;
+            }
+        }
+        
+        double seconds = host.getTick() * LockstepRace.TICK_SECONDS;
+        double hostRate = host.getConnection().getBytesSent() / seconds;
+        double guestRate = guest.getConnection().getBytesSent() / seconds;
+        System.out.printf("Versus: %d ticks, host sent %.1f B/s, guest sent %.1f B/s, rollbacks %d/%d " +
+                          "(%d/%d ticks resimulated), stalls %d/%d%n",
+                          host.getTick(), hostRate, guestRate, host.getRollbacks(), guest.getRollbacks(),
+                          host.getResimulatedTicks(), guest.getResimulatedTicks(),
+                          host.getStalledTicks(), guest.getStalledTicks());
+        
+        assertTrue(settledAt >= 0, "Race was not decided");
+        assertEquals(LockstepRace.Result.WON, host.getResult());
+        assertEquals(LockstepRace.Result.LOST, guest.getResult());
+        assertFalse(host.isDesynced() || guest.isDesynced(), "Checksums disagreed");
+        assertTrue(host.getRollbacks() + guest.getRollbacks() > 0, "Nothing was rolled back");
+        assertSameRun(host.getLocal(), guest.getRemote());
+        assertSameRun(guest.getLocal(), host.getRemote());
+        assertTrue(Math.max(hostRate, guestRate) <= PerfBudget.MAX_VERSUS_BYTES_PER_SECOND,
+                   String.format("%.1f B/s is above the budget of %.0f", Math.max(hostRate, guestRate),
+                                 PerfBudget.MAX_VERSUS_BYTES_PER_SECOND));
+    }
+    
+    /**
+     * Check that a racer and the other side's copy of it played the same
+     * run; their clocks may differ, since the sides stop on different ticks
+     */
+    private static void assertSameRun(Racer expected, Racer actual) {
+        assertEquals(expected.getOutcome(), actual.getOutcome());
+        assertEquals(expected.getOutcomeTick(), actual.getOutcomeTick());
+        assertEquals(expected.getWorld().getScore(), actual.getWorld().getScore());
+        assertArrayEquals(expected.getWorld().getStickLengths(), actual.getWorld().getStickLengths());
+        assertEquals(expected.getWorld().getHero().getX(), actual.getWorld().getHero().getX());
+    }
+    
+    /**
+     * Presses when ready and releases when the stick will reach the middle
+     * of the next platform, allowing for the input delay
+     */
+    private static class ScriptedRacer {
+        private final LockstepRace race;
+        private final int overshootRound;
+        private boolean pressed;
+        private double target;
+        
+        ScriptedRacer(LockstepRace race, int overshootRound) {
+            this.race = race;
+            this.overshootRound = overshootRound;
+        }
+        
+        void play() throws IOException {
+            GameWorld world = race.getLocal().getWorld();
+            if (!pressed && world.getCurrentState() == GameEngine.GameState.READY) {
+                Platform next = world.getNextPlatform();
+                target = next.getX() + next.getWidth() / 2 - world.getHero().getX();
+                if (world.getRoundCount() == overshootRound) {
+                    target += 250;
+                }
+                race.press();
+                pressed = true;
+            } else if (pressed && world.getCurrentState() == GameEngine.GameState.GROWING_STICK &&
+                       world.getCurrentStick().getLength() >=
+                           target - Stick.lengthForHoldTime(race.getInputDelay() * LockstepRace.TICK_SECONDS)) {
+                race.release();
+                pressed = false;
+            }
+        }
+    }
+}
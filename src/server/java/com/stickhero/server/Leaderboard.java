@@ -0,0 +1,74 @@
+package com.stickhero.server;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * One board: each player's best verified run, sorted best first.
+ *
+ * Not thread safe; {@link Leaderboards} guards each board with its stripe's lock.
+ */
+class Leaderboard {
+
+    /**
+     * A player's best run on a board
+     */
+    static final class Entry {
+        final String player;
+        final int score;
+        final int durationMillis;
+        final long timestamp;
+
+        Entry(String player, int score, int durationMillis, long timestamp) {
+            this.player = player;
+            this.score = score;
+            this.durationMillis = durationMillis;
+            this.timestamp = timestamp;
+        }
+    }
+
+    // Higher score first, then the faster run, then the earlier one
+    private static final Comparator<Entry> RANKING = Comparator.<Entry>comparingInt(entry -> -entry.score)
+        .thenComparingInt(entry -> entry.durationMillis)
+        .thenComparingLong(entry -> entry.timestamp)
+        .thenComparing(entry -> entry.player);
+
+    private final Map<String, Entry> bestByPlayer = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+
+    /**
+     * Record a run; returns the player's best entry afterwards
+     */
+    Entry submit(Entry entry) {
+        Entry best = bestByPlayer.get(entry.player);
+        if (best != null && RANKING.compare(best, entry) <= 0) {
+            return best;
+        }
+        if (best != null) {
+            ranking.remove(best);
+        }
+        bestByPlayer.put(entry.player, entry);
+        ranking.add(entry);
+        return entry;
+    }
+
+    /**
+     * Get the best {@code k} entries, best first
+     */
+    List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(Math.min(k, ranking.size()));
+        for (Entry entry : ranking) {
+            if (entries.size() >= k) break;
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    int size() {
+        return ranking.size();
+    }
+}
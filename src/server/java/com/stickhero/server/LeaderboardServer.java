@@ -0,0 +1,197 @@
+package com.stickhero.server;
+
+import com.stickhero.net.RunSubmission;
+import com.stickhero.persistence.RunRecord;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Standalone leaderboard server. Each request is handled on its own virtual
+ * thread, so slow clients don't hold up verification.
+ *
+ * <pre>
+ * POST /boards/{board}/runs     submit a run (see RunSubmission), replayed before it is accepted
+ * GET  /boards/{board}/top?k=10 best runs on a board, one per player
+ * GET  /stats                   submission counters
+ * </pre>
+ *
+ * Run with {@code ./gradlew runLeaderboard} (port 8642, or -Pport=N).
+ */
+public class LeaderboardServer {
+
+    public static final int DEFAULT_PORT = 8642;
+
+    private static final Pattern BOARD_PATH = Pattern.compile("/boards/([A-Za-z0-9_-]{1,64})/(runs|top)");
+    private static final int MAX_BODY_BYTES = 2 * 1024 * 1024;
+    private static final int DEFAULT_TOP = 10;
+    private static final int MAX_TOP = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Leaderboards leaderboards;
+    private final ReplayVerifier verifier;
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public LeaderboardServer(int port) throws IOException {
+        leaderboards = new Leaderboards();
+        verifier = new ReplayVerifier();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/boards/", this::handleBoard);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Leaderboard server listening on port " + getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleBoard(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Matcher matcher = BOARD_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!matcher.matches()) {
+                reply(exchange, 404, "{\"error\":\"not found\"}");
+                return;
+            }
+            String board = matcher.group(1);
+            String method = exchange.getRequestMethod();
+            if (matcher.group(2).equals("runs") && method.equals("POST")) {
+                handleSubmit(exchange, board);
+            } else if (matcher.group(2).equals("top") && method.equals("GET")) {
+                handleTop(exchange, board);
+            } else {
+                reply(exchange, 405, "{\"error\":\"method not allowed\"}");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Leaderboard request failed: " + e);
+            reply(exchange, 500, "{\"error\":\"internal error\"}");
+        }
+    }
+
+    private void handleSubmit(HttpExchange exchange, String board) throws IOException {
+        RunSubmission submission;
+        try {
+            submission = RunSubmission.decode(readBody(exchange));
+        } catch (IllegalArgumentException e) {
+            rejectedCount.incrementAndGet();
+            reply(exchange, 400, "{\"accepted\":false,\"reason\":" + quote(e.getMessage()) + "}");
+            return;
+        }
+
+        RunRecord record = submission.getRecord();
+        String failure = verifier.verify(record);
+        if (failure != null) {
+            rejectedCount.incrementAndGet();
+            reply(exchange, 422, "{\"accepted\":false,\"reason\":" + quote(failure) + "}");
+            return;
+        }
+
+        Leaderboard.Entry entry = new Leaderboard.Entry(submission.getPlayer(), record.getScore(),
+                                                        record.getDurationMillis(), record.getTimestamp());
+        Leaderboard.Entry best = leaderboards.submit(board, entry);
+        acceptedCount.incrementAndGet();
+        reply(exchange, 200, "{\"accepted\":true,\"improved\":" + (best == entry) + ",\"best\":" + best.score + "}");
+    }
+
+    private void handleTop(HttpExchange exchange, String board) throws IOException {
+        int k = DEFAULT_TOP;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.startsWith("k=")) {
+                    try {
+                        k = Math.max(1, Math.min(MAX_TOP, Integer.parseInt(pair.substring(2))));
+                    } catch (NumberFormatException e) {
+                        reply(exchange, 400, "{\"error\":\"bad k\"}");
+                        return;
+                    }
+                }
+            }
+        }
+
+        List<Leaderboard.Entry> entries = leaderboards.top(board, k);
+        StringBuilder json = new StringBuilder(32 + entries.size() * 96);
+        json.append("{\"board\":").append(quote(board)).append(",\"entries\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            Leaderboard.Entry entry = entries.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"rank\":").append(i + 1)
+                .append(",\"player\":").append(quote(entry.player))
+                .append(",\"score\":").append(entry.score)
+                .append(",\"durationMillis\":").append(entry.durationMillis)
+                .append(",\"timestamp\":").append(entry.timestamp).append('}');
+        }
+        json.append("]}");
+        reply(exchange, 200, json.toString());
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            reply(exchange, 200, "{\"accepted\":" + acceptedCount.get() + ",\"rejected\":" + rejectedCount.get() + "}");
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Body too large");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void reply(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        LeaderboardServer server = new LeaderboardServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+    }
+}
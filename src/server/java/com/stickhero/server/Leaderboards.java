@@ -0,0 +1,65 @@
+package com.stickhero.server;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * All boards, split across lock stripes by board name.
+ *
+ * Submissions to different boards rarely contend: each takes only its
+ * stripe's write lock, and only for the sorted-set update (verification
+ * happens before, outside any lock). Top-K queries take the read lock, so
+ * they run concurrently with each other.
+ */
+class Leaderboards {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+
+    Leaderboards() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripeFor(String board) {
+        return stripes[(board.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /**
+     * Record a verified run; returns the player's best entry on the board afterwards
+     */
+    Leaderboard.Entry submit(String board, Leaderboard.Entry entry) {
+        Stripe stripe = stripeFor(board);
+        stripe.lock.writeLock().lock();
+        try {
+            return stripe.boards.computeIfAbsent(board, name -> new Leaderboard()).submit(entry);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get a board's best {@code k} entries, best first; empty if the board doesn't exist
+     */
+    List<Leaderboard.Entry> top(String board, int k) {
+        Stripe stripe = stripeFor(board);
+        stripe.lock.readLock().lock();
+        try {
+            Leaderboard leaderboard = stripe.boards.get(board);
+            return leaderboard != null ? leaderboard.top(k) : List.of();
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    private static final class Stripe {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<String, Leaderboard> boards = new HashMap<>();
+    }
+}
@@ -0,0 +1,78 @@
+package com.stickhero.server;
+
+import com.stickhero.entities.Stick;
+import com.stickhero.game.GameEngine;
+import com.stickhero.game.GameWorld;
+import com.stickhero.persistence.RunRecord;
+
+/**
+ * Checks a submitted score by replaying the run's input log (its seed and
+ * stick lengths) through the game rules.
+ *
+ * Where the hero ends up depends only on the stick length, not on frame
+ * timing, so the replay steps the world with large fixed time steps. A run
+ * is valid if every stick but the last lands, the last one falls, and the
+ * score matches.
+ *
+ * The claimed duration breaks ties on the leaderboard, so it must be at
+ * least as long as the run could have taken: holding each stick down long
+ * enough to grow it, less a frame of slack, plus the rotating, walking and
+ * falling the replay went through. Each round's replayed time is counted
+ * without its last step, which may have overshot.
+ */
+public class ReplayVerifier {
+
+    private static final double WORLD_HEIGHT = 600;
+    private static final double STEP_SECONDS = 0.25;
+    private static final int MAX_STEPS_PER_ROUND = 1000;
+    private static final double HOLD_SLACK_SECONDS = 0.05;
+
+    /**
+     * Replay a run; returns null if it is valid, otherwise why it isn't
+     */
+    public String verify(RunRecord record) {
+        float[] sticks = record.getStickLengths();
+        if (sticks.length != record.getScore() + 1) {
+            return "expected " + (record.getScore() + 1) + " sticks for score " + record.getScore() +
+                   ", got " + sticks.length;
+        }
+
+        GameWorld world = new GameWorld(WORLD_HEIGHT, 0);
+        world.reset(record.getSeed());
+        double minimumSeconds = 0;
+        for (int round = 0; round < sticks.length; round++) {
+            if (!world.startStick() || !world.dropStick(sticks[round])) {
+                return "round " + round + ": stick rejected in state " + world.getCurrentState();
+            }
+            minimumSeconds += Math.max(0, Stick.holdTimeForLength(sticks[round]) - HOLD_SLACK_SECONDS);
+
+            int steps = 0;
+            while (world.getCurrentState() != GameEngine.GameState.READY &&
+                   world.getCurrentState() != GameEngine.GameState.GAME_OVER) {
+                if (++steps > MAX_STEPS_PER_ROUND) {
+                    return "round " + round + ": did not finish";
+                }
+                world.update(STEP_SECONDS);
+            }
+            minimumSeconds += Math.max(0, steps - 1) * STEP_SECONDS;
+
+            boolean last = round == sticks.length - 1;
+            if (last && world.getCurrentState() != GameEngine.GameState.GAME_OVER) {
+                return "run did not end after the last stick";
+            }
+            if (!last && world.getCurrentState() == GameEngine.GameState.GAME_OVER) {
+                return "run ended at round " + round + " of " + sticks.length;
+            }
+        }
+
+        if (world.getScore() != record.getScore()) {
+            return "replayed score " + world.getScore() + " does not match " + record.getScore();
+        }
+        long minimumMillis = (long) (minimumSeconds * 1000);
+        if (record.getDurationMillis() < minimumMillis) {
+            return "duration " + record.getDurationMillis() + " ms is shorter than the " + minimumMillis +
+                   " ms the run takes";
+        }
+        return null;
+    }
+}